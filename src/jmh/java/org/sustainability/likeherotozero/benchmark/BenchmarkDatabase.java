@@ -0,0 +1,147 @@
+package org.sustainability.likeherotozero.benchmark;
+
+import org.sustainability.likeherotozero.entity.Country;
+import org.sustainability.likeherotozero.entity.EmissionData;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Benchmark state holding the persistence unit of the application on an in-memory H2 database in MySQL mode,
+ * filled with synthetic countries and approved emission data.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    /**
+     * The number of entities persisted before the persistence context is flushed and cleared while seeding.
+     */
+    private static final int SEED_BATCH_SIZE = 500;
+
+    @Param("50")
+    public int countries;
+
+    @Param("2000")
+    public int valuesPerCountry;
+
+    private EntityManagerFactory entityManagerFactory;
+    private int[] countryIds;
+
+    /**
+     * Creates the schema and seeds the synthetic data.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        entityManagerFactory = Persistence.createEntityManagerFactory("default", overrides("benchmark"));
+        countryIds = new int[countries];
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+
+        try {
+            entityManager.getTransaction().begin();
+            LocalDate first = LocalDate.now().minusDays(valuesPerCountry);
+            int pending = 0;
+
+            for (int c = 0; c < countries; c++) {
+                Country country = new Country();
+                country.setName("Country " + c);
+                country.setCode(String.format("C%02d", c));
+                entityManager.persist(country);
+                countryIds[c] = country.getId();
+
+                for (int v = 0; v < valuesPerCountry; v++) {
+                    EmissionData emissionData = new EmissionData();
+                    emissionData.setCountry(country);
+                    emissionData.setReportedFor(java.sql.Date.valueOf(first.plusDays(v)));
+                    emissionData.setValue(1000 + (c * 31 + v * 17) % 5000 + v / 1000.0);
+                    emissionData.setApproved(true);
+                    entityManager.persist(emissionData);
+
+                    if (++pending % SEED_BATCH_SIZE == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                        country = entityManager.getReference(Country.class, countryIds[c]);
+                    }
+                }
+            }
+
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Closes the persistence unit, which drops the in-memory database.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    /**
+     * Gets the persistence unit.
+     *
+     * @return the {@link EntityManagerFactory}.
+     */
+    public EntityManagerFactory getEntityManagerFactory() {
+        return entityManagerFactory;
+    }
+
+    /**
+     * Gets the ID of a seeded country.
+     *
+     * @param index any non-negative number; it is mapped to one of the countries.
+     * @return the ID of the country.
+     */
+    public int getCountryId(int index) {
+        return countryIds[index % countryIds.length];
+    }
+
+    /**
+     * Builds the settings that replace the MySQL database of the persistence unit with an in-memory H2 database.
+     *
+     * @param name the name of the database.
+     * @return the settings overriding persistence.xml.
+     */
+    static Map<String, Object> overrides(String name) {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("jakarta.persistence.jdbc.url", "jdbc:h2:mem:" + name + ";MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1");
+        overrides.put("jakarta.persistence.jdbc.driver", "org.h2.Driver");
+        overrides.put("jakarta.persistence.jdbc.user", "sa");
+        overrides.put("jakarta.persistence.jdbc.password", "");
+        overrides.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        overrides.put("hibernate.hbm2ddl.auto", "create-drop");
+        overrides.put("hibernate.show_sql", "false");
+        overrides.put("hibernate.hikari.registerMbeans", "false");
+        return overrides;
+    }
+
+    /**
+     * Sets a private field, e.g. the injected {@link EntityManager} of a DAO, since the benchmarks run without CDI.
+     *
+     * @param target the object.
+     * @param name   the name of the field.
+     * @param value  the value.
+     */
+    static void inject(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " of " + target.getClass().getName(), e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.sustainability.likeherotozero.benchmark;
+
+import org.sustainability.likeherotozero.dao.EmissionDataDAO;
+import org.sustainability.likeherotozero.entity.Country;
+import org.sustainability.likeherotozero.entity.EmissionData;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of the {@link EmissionDataDAO} queries behind the public pages and of loading
+ * {@link Country#getEmissionData()}. The persistence context is cleared after every operation,
+ * so each one measures a query and the hydration of its results instead of a first-level cache hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmissionDataDAOBenchmark {
+
+    private EntityManager entityManager;
+    private EmissionDataDAO emissionDataDAO;
+    private int next;
+
+    /**
+     * Opens the entity manager of this thread.
+     *
+     * @param database the seeded database.
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        entityManager = database.getEntityManagerFactory().createEntityManager();
+        emissionDataDAO = new EmissionDataDAO();
+        BenchmarkDatabase.inject(emissionDataDAO, "entityManager", entityManager);
+    }
+
+    /**
+     * Closes the entity manager of this thread.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+    }
+
+    @Benchmark
+    public EmissionData findNewestApprovedByCountryId(BenchmarkDatabase database) {
+        EmissionData newest = emissionDataDAO.findNewestApprovedByCountryId(database.getCountryId(next++));
+        entityManager.clear();
+        return newest;
+    }
+
+    @Benchmark
+    public List<EmissionData> findApprovedByCountryIdFirstPage(BenchmarkDatabase database) {
+        List<EmissionData> page = emissionDataDAO.findApprovedByCountryId(database.getCountryId(next++), "reportedFor", false, null, 0, 25);
+        entityManager.clear();
+        return page;
+    }
+
+    @Benchmark
+    public long countApprovedByCountryId(BenchmarkDatabase database) {
+        return emissionDataDAO.countApprovedByCountryId(database.getCountryId(next++));
+    }
+
+    @Benchmark
+    public long streamApprovedValuesOfOneCountry(BenchmarkDatabase database) {
+        try (Stream<Object[]> rows = emissionDataDAO.streamApprovedValues(Collections.singleton(database.getCountryId(next++)), 500)) {
+            return rows.count();
+        }
+    }
+
+    @Benchmark
+    public int hydrateCountryEmissionData(BenchmarkDatabase database) {
+        Country country = entityManager.find(Country.class, database.getCountryId(next++));
+        int size = country.getEmissionData().size();
+        entityManager.clear();
+        return size;
+    }
+}
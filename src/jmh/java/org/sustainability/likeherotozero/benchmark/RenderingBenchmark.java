@@ -0,0 +1,94 @@
+package org.sustainability.likeherotozero.benchmark;
+
+import org.sustainability.likeherotozero.controller.EmissionDataController;
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
+import org.sustainability.likeherotozero.model.Role;
+import org.sustainability.likeherotozero.service.CountryCatalog;
+import org.sustainability.likeherotozero.service.ReferenceDataCacheService;
+import org.sustainability.likeherotozero.service.SessionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.DecimalFormat;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the per-row and per-request work of the pages that does not touch the database:
+ * formatting emission values, building the country catalog and checking the roles of the user.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderingBenchmark {
+
+    private EmissionData emissionData;
+    private CountryCatalog countryCatalog;
+    private EmissionDataController emissionDataController;
+
+    /**
+     * Prepares an emission value, a built catalog and a controller of a logged-in publisher.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        emissionData = new EmissionData();
+        emissionData.setValue(123456.789);
+
+        countryCatalog = new CountryCatalog();
+        countryCatalog.init();
+
+        SessionService sessionService = new SessionService();
+        BenchmarkDatabase.inject(sessionService, "referenceDataCacheService", new ReferenceDataCacheService());
+        BenchmarkDatabase.inject(sessionService, "roles", Collections.unmodifiableSet(EnumSet.of(Role.PUBLISHER)));
+        emissionDataController = new EmissionDataController();
+        BenchmarkDatabase.inject(emissionDataController, "sessionService", sessionService);
+    }
+
+    @Benchmark
+    public String roundedValue() {
+        return emissionData.getRoundedValue();
+    }
+
+    @Benchmark
+    public String formatGerman() {
+        return EmissionValueFormat.format(emissionData.getValue(), Locale.GERMANY);
+    }
+
+    /**
+     * Baseline: a new {@link DecimalFormat} per value, as {@link EmissionData#getRoundedValue()} formatted values before.
+     *
+     * @return the formatted value.
+     */
+    @Benchmark
+    public String roundedValueDecimalFormatBaseline() {
+        return new DecimalFormat("0.000").format(emissionData.getValue());
+    }
+
+    @Benchmark
+    public CountryCatalog buildCountryCatalog() {
+        CountryCatalog catalog = new CountryCatalog();
+        catalog.init();
+        return catalog;
+    }
+
+    @Benchmark
+    public List<CountryCatalog.Entry> countryCatalogEntries() {
+        return countryCatalog.getEntries(Locale.GERMAN);
+    }
+
+    @Benchmark
+    public boolean roleCheckApprove() {
+        return emissionDataController.isUserAllowedToApprove();
+    }
+
+    @Benchmark
+    public boolean roleCheckCreateOrEdit() {
+        return emissionDataController.isUserAllowedToCreateOrEdit();
+    }
+}
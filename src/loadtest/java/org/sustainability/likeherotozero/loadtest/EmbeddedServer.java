@@ -0,0 +1,68 @@
+package org.sustainability.likeherotozero.loadtest;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.loader.WebappLoader;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.webresources.DirResourceSet;
+import org.apache.catalina.webresources.StandardRoot;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Embedded Tomcat serving the web application directly from src/main/webapp and the compiled classes,
+ * so the load test needs neither a packaged WAR nor an installed server.
+ */
+class EmbeddedServer {
+
+    /**
+     * The context path the application is deployed under.
+     */
+    static final String CONTEXT_PATH = "/likeherotozero";
+
+    private final Tomcat tomcat = new Tomcat();
+
+    /**
+     * Starts the server.
+     *
+     * @param port the HTTP port, 0 for a free port.
+     * @return the base URI of the application, without a trailing slash.
+     * @throws LifecycleException if the server cannot be started.
+     */
+    URI start(int port) throws LifecycleException {
+        Path baseDirectory = Paths.get("target", "loadtest-tomcat").toAbsolutePath();
+        tomcat.setBaseDir(baseDirectory.toString());
+        tomcat.setPort(port);
+        tomcat.getConnector();
+
+        Context context = tomcat.addWebapp(CONTEXT_PATH, Paths.get("src", "main", "webapp").toAbsolutePath().toString());
+        // The libraries and the classes are on the class path of the load test, which the web application must share,
+        // so the entities of the synthetic data and of the application are the same classes
+        context.setParentClassLoader(EmbeddedServer.class.getClassLoader());
+        WebappLoader loader = new WebappLoader();
+        loader.setDelegate(true);
+        context.setLoader(loader);
+
+        WebResourceRoot resources = new StandardRoot(context);
+        // The classes are mounted as WEB-INF/classes, so CDI and the servlet container discover them as in a WAR
+        resources.addPreResources(new DirResourceSet(resources, "/WEB-INF/classes",
+                Paths.get("target", "classes").toAbsolutePath().toString(), "/"));
+        context.setResources(resources);
+
+        tomcat.start();
+        return URI.create("http://localhost:" + tomcat.getConnector().getLocalPort() + CONTEXT_PATH);
+    }
+
+    /**
+     * Stops the server.
+     *
+     * @throws LifecycleException if the server cannot be stopped.
+     */
+    void stop() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
@@ -0,0 +1,166 @@
+package org.sustainability.likeherotozero.loadtest;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * The scripted flows of the virtual users. Each flow starts from a freshly opened page and performs the same requests
+ * a browser would send for the interaction; its latency is the time of all requests together.
+ */
+enum Flow {
+
+    /**
+     * Opens the home page with the newest emission value of the user's country.
+     */
+    HOME("home") {
+        @Override
+        void run(JsfClient client, Random random) throws IOException, InterruptedException {
+            client.get("/index.xhtml");
+        }
+    },
+
+    /**
+     * Changes the country of the session on the country page and returns to the home page.
+     */
+    COUNTRY_SWITCH("country-switch") {
+        @Override
+        void run(JsfClient client, Random random) throws IOException, InterruptedException {
+            client.get("/country.xhtml");
+            String country = pick(client.getOptions("countrySettingsForm:country_input"), random);
+            client.ajax("countrySettingsForm:changeCountry", "countrySettingsForm", "countrySettingsForm",
+                    Map.of("countrySettingsForm:country_input", country));
+            client.get("/index.xhtml");
+        }
+    },
+
+    /**
+     * Selects a country on the emission page, which renders the chart and the first page of the table,
+     * and turns to the second page of the table.
+     */
+    EMISSION_BROWSING("emission-browsing") {
+        @Override
+        void run(JsfClient client, Random random) throws IOException, InterruptedException {
+            openCountry(client, random);
+
+            if (client.contains(APPROVED_TABLE + "_paginator")) {
+                client.ajax(APPROVED_TABLE, APPROVED_TABLE, APPROVED_TABLE, Map.of(
+                        APPROVED_TABLE + "_pagination", "true",
+                        APPROVED_TABLE + "_first", "25",
+                        APPROVED_TABLE + "_rows", "25",
+                        APPROVED_TABLE + "_skipChildren", "true",
+                        APPROVED_TABLE + "_encodeFeature", "true"));
+            }
+        }
+    },
+
+    /**
+     * Selects a country on the emission page and either edits its newest approved value or creates a value for
+     * a random date of the last year. Requires a scientist.
+     */
+    CREATE_EDIT("create-edit") {
+        @Override
+        void run(JsfClient client, Random random) throws IOException, InterruptedException {
+            openCountry(client, random);
+            String reportedFor;
+
+            if (random.nextBoolean() && client.contains(APPROVED_TABLE + ":0:edit")) {
+                client.ajax(APPROVED_TABLE + ":0:edit", "emissionForm", "createOrEditArea", Map.of());
+                reportedFor = client.getInputValue("createOrEditForm:reportedFor_input");
+            } else {
+                client.ajax("emissionForm:createNew", "emissionForm", "createOrEditArea", Map.of());
+                reportedFor = LocalDate.now().minusDays(1 + random.nextInt(365)).toString();
+            }
+
+            String value = String.format(Locale.ROOT, "%.3f", Math.exp(2 + random.nextDouble() * 8));
+            client.ajax("createOrEditForm:save", "createOrEditForm", "selectedCountry createOrEditArea", Map.of(
+                    "createOrEditForm:reportedFor_input", null == reportedFor ? "" : reportedFor,
+                    "createOrEditForm:emissionValue_input", value,
+                    "createOrEditForm:emissionValue_hinput", value));
+        }
+    },
+
+    /**
+     * Opens the approval queue on the emission page and approves a few of the oldest unapproved values at once.
+     * Requires a publisher.
+     */
+    APPROVAL("approval") {
+        @Override
+        void run(JsfClient client, Random random) throws IOException, InterruptedException {
+            client.get("/emissionData.xhtml");
+            List<String> rowKeys = client.getRowKeys("approvalForm:approvalTable");
+
+            if (!rowKeys.isEmpty()) {
+                List<String> selection = rowKeys.subList(0, Math.min(rowKeys.size(), 1 + random.nextInt(5)));
+                client.ajax("approvalForm:approveSelected", "approvalForm", "approvalForm selectedCountry",
+                        Map.of("approvalForm:approvalTable_selection", String.join(",", selection)));
+            }
+        }
+    };
+
+    /**
+     * The client ID of the table of approved emission values on the emission page.
+     */
+    static final String APPROVED_TABLE = "emissionForm:approvedTable";
+
+    private final String name;
+
+    /**
+     * Creates a new flow.
+     *
+     * @param name the name of the flow in the report.
+     */
+    Flow(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the name of the flow in the report.
+     *
+     * @return the name.
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Runs the flow once.
+     *
+     * @param client the client of the virtual user.
+     * @param random the random numbers of the virtual user.
+     * @throws IOException          if a request fails.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    abstract void run(JsfClient client, Random random) throws IOException, InterruptedException;
+
+    /**
+     * Opens the emission page and selects a random country.
+     *
+     * @param client the client of the virtual user.
+     * @param random the random numbers of the virtual user.
+     * @throws IOException          if a request fails.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private static void openCountry(JsfClient client, Random random) throws IOException, InterruptedException {
+        client.get("/emissionData.xhtml");
+        String countryId = pick(client.getOptions("countryForm:country_input"), random);
+        client.ajaxEvent("countryForm:country", "change", "countryForm:country", "selectedCountry",
+                Map.of("countryForm:country_input", countryId));
+    }
+
+    /**
+     * Picks a random option.
+     *
+     * @param options the options.
+     * @param random  the random numbers of the virtual user.
+     * @return the picked option.
+     * @throws IOException if there are no options, i.e. the page was not rendered as expected.
+     */
+    private static String pick(List<String> options, Random random) throws IOException {
+        if (options.isEmpty()) {
+            throw new IOException("The page has no options to choose from");
+        }
+
+        return options.get(random.nextInt(options.size()));
+    }
+}
@@ -0,0 +1,280 @@
+package org.sustainability.likeherotozero.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP client of one virtual user, which behaves like a browser towards the Faces pages: it keeps the session cookie,
+ * tracks the view state of the current page and sends the same partial requests as the PrimeFaces components.
+ */
+class JsfClient {
+
+    private static final Pattern VIEW_STATE = Pattern.compile("name=\"jakarta\\.faces\\.ViewState\"[^>]*?value=\"([^\"]*)\"");
+    private static final Pattern PARTIAL_VIEW_STATE = Pattern.compile("<update id=\"[^\"]*jakarta\\.faces\\.ViewState[^\"]*\"><!\\[CDATA\\[(.*?)]]>");
+    private static final Pattern REDIRECT = Pattern.compile("<redirect url=\"([^\"]*)\"");
+    private static final Pattern OPTION = Pattern.compile("<option value=\"([^\"]*)\"");
+    private static final Pattern ROW_KEY = Pattern.compile("data-rk=\"([^\"]+)\"");
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final URI base;
+    private final HttpClient httpClient;
+
+    private String page = "";
+    private String body = "";
+    private String viewState;
+
+    /**
+     * Creates a new client with its own cookies, i.e. its own HTTP session.
+     *
+     * @param base the base URI of the application.
+     */
+    JsfClient(URI base) {
+        this.base = base;
+        this.httpClient = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Opens a page, which becomes the current page.
+     *
+     * @param path the path of the page relative to the application, e.g. {@code /index.xhtml}.
+     * @return the HTML of the page.
+     * @throws IOException          if the request fails or the response is not successful.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    String get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + path)).timeout(TIMEOUT).GET().build();
+        page = send(request);
+        body = page;
+        Matcher matcher = VIEW_STATE.matcher(body);
+        viewState = matcher.find() ? matcher.group(1) : null;
+        return body;
+    }
+
+    /**
+     * Sends a partial request of a command component of the current page, e.g. a click on a button.
+     *
+     * @param source     the client ID of the component.
+     * @param execute    the client IDs of the components to process, separated by spaces.
+     * @param render     the client IDs of the components to update, separated by spaces.
+     * @param parameters the values of the processed inputs by name.
+     * @return the partial response.
+     * @throws IOException          if the request fails or the response contains an error.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    String ajax(String source, String execute, String render, Map<String, String> parameters) throws IOException, InterruptedException {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put(source, source);
+        return post(source, execute, render, form, parameters);
+    }
+
+    /**
+     * Sends a partial request of an ajax behavior of the current page, e.g. a change of a select menu.
+     *
+     * @param source     the client ID of the component.
+     * @param event      the name of the event.
+     * @param execute    the client IDs of the components to process, separated by spaces.
+     * @param render     the client IDs of the components to update, separated by spaces.
+     * @param parameters the values of the processed inputs by name.
+     * @return the partial response.
+     * @throws IOException          if the request fails or the response contains an error.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    String ajaxEvent(String source, String event, String execute, String render, Map<String, String> parameters)
+            throws IOException, InterruptedException {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("jakarta.faces.behavior.event", event);
+        form.put("jakarta.faces.partial.event", event);
+        return post(source, execute, render, form, parameters);
+    }
+
+    /**
+     * Gets the values of the options of a select element of the current page or the last partial response.
+     *
+     * @param name the name of the select element.
+     * @return the option values, in document order.
+     */
+    List<String> getOptions(String name) {
+        int start = body.indexOf("<select name=\"" + name + "\"");
+        start = start < 0 ? body.indexOf("name=\"" + name + "\"") : start;
+        List<String> options = new ArrayList<>();
+
+        if (start >= 0) {
+            Matcher matcher = OPTION.matcher(body.substring(start, body.indexOf("</select>", start)));
+
+            while (matcher.find()) {
+                if (!matcher.group(1).isEmpty()) {
+                    options.add(matcher.group(1));
+                }
+            }
+        }
+
+        return options;
+    }
+
+    /**
+     * Gets the row keys of a data table of the current page or the last partial response.
+     *
+     * @param tableId the client ID of the data table.
+     * @return the row keys of the rendered rows.
+     */
+    List<String> getRowKeys(String tableId) {
+        int start = body.indexOf("id=\"" + tableId + "_data\"");
+        List<String> rowKeys = new ArrayList<>();
+
+        if (start >= 0) {
+            Matcher matcher = ROW_KEY.matcher(body.substring(start, body.indexOf("</tbody>", start)));
+
+            while (matcher.find()) {
+                rowKeys.add(matcher.group(1));
+            }
+        }
+
+        return rowKeys;
+    }
+
+    /**
+     * Gets the value attribute of an input of the current page or the last partial response.
+     *
+     * @param name the name of the input.
+     * @return the value, or null if there is no such input or it has no value.
+     */
+    String getInputValue(String name) {
+        Matcher matcher = Pattern.compile("name=\"" + Pattern.quote(name) + "\"[^>]*?value=\"([^\"]*)\"").matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Checks if the current page or the last partial response contains a text, e.g. the client ID of a component.
+     *
+     * @param text the text.
+     * @return true if the text is contained, false otherwise.
+     */
+    boolean contains(String text) {
+        return body.contains(text);
+    }
+
+    /**
+     * Posts a partial request to the action of the form containing the source component.
+     *
+     * @param source     the client ID of the component.
+     * @param execute    the client IDs of the components to process.
+     * @param render     the client IDs of the components to update.
+     * @param form       the request specific parameters.
+     * @param parameters the values of the processed inputs by name.
+     * @return the partial response.
+     * @throws IOException          if the request fails or the response contains an error.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private String post(String source, String execute, String render, Map<String, String> form, Map<String, String> parameters)
+            throws IOException, InterruptedException {
+        if (null == viewState) {
+            throw new IOException("The current page has no view state");
+        }
+
+        String formId = source.contains(":") ? source.substring(0, source.indexOf(':')) : source;
+        Map<String, String> all = new LinkedHashMap<>();
+        all.put("jakarta.faces.partial.ajax", "true");
+        all.put("jakarta.faces.source", source);
+        all.put("jakarta.faces.partial.execute", execute);
+        all.put("jakarta.faces.partial.render", render);
+        all.putAll(form);
+        all.put(formId, formId);
+        all.putAll(parameters);
+        all.put("jakarta.faces.ViewState", viewState);
+
+        StringBuilder encoded = new StringBuilder();
+
+        for (Map.Entry<String, String> entry : all.entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append('&');
+            }
+            encoded.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(getFormAction(formId))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8")
+                .header("Faces-Request", "partial/ajax")
+                .header("X-Requested-With", "XMLHttpRequest")
+                .POST(HttpRequest.BodyPublishers.ofString(encoded.toString()))
+                .build();
+        String response = send(request);
+
+        if (response.contains("<error>")) {
+            throw new IOException("Partial request of " + source + " failed: " + response);
+        }
+
+        Matcher redirect = REDIRECT.matcher(response);
+
+        if (redirect.find()) {
+            String target = redirect.group(1).replace("&amp;", "&");
+            return get(target.startsWith(base.getPath()) ? target.substring(base.getPath().length()) : target);
+        }
+
+        Matcher matcher = PARTIAL_VIEW_STATE.matcher(response);
+
+        if (matcher.find()) {
+            viewState = matcher.group(1);
+        }
+
+        body = response;
+        return response;
+    }
+
+    /**
+     * Finds the action of a form of the last partial response or the current page,
+     * which carries the session ID as long as no cookie is established.
+     *
+     * @param formId the ID of the form.
+     * @return the absolute URI the form is posted to.
+     * @throws IOException if the form is not on the page.
+     */
+    private URI getFormAction(String formId) throws IOException {
+        Pattern action = Pattern.compile("<form id=\"" + Pattern.quote(formId) + "\"[^>]*?action=\"([^\"]*)\"");
+        Matcher matcher = action.matcher(body);
+
+        if (!matcher.find()) {
+            matcher = action.matcher(page);
+
+            if (!matcher.find()) {
+                throw new IOException("The current page has no form " + formId);
+            }
+        }
+
+        return base.resolve(matcher.group(1).replace("&amp;", "&"));
+    }
+
+    /**
+     * Sends a request and checks that it was successful.
+     *
+     * @param request the request.
+     * @return the response body.
+     * @throws IOException          if the request fails or the status is not 200.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        if (200 != response.statusCode()) {
+            throw new IOException(request.method() + " " + request.uri() + " returned " + response.statusCode());
+        }
+
+        return response.body();
+    }
+}
@@ -0,0 +1,88 @@
+package org.sustainability.likeherotozero.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records the latencies and errors of one flow across all virtual users.
+ * Every latency is kept, so the percentiles are exact rather than estimated from buckets.
+ */
+class LatencyRecorder {
+
+    private final Flow flow;
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    /**
+     * Creates a new recorder.
+     *
+     * @param flow the flow.
+     */
+    LatencyRecorder(Flow flow) {
+        this.flow = flow;
+    }
+
+    /**
+     * Gets the flow.
+     *
+     * @return the flow.
+     */
+    Flow getFlow() {
+        return flow;
+    }
+
+    /**
+     * Records a successful run of the flow.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    synchronized void record(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+
+        latencies[count++] = nanos;
+    }
+
+    /**
+     * Records a failed run of the flow.
+     */
+    synchronized void recordError() {
+        errors++;
+    }
+
+    /**
+     * Gets the number of successful runs.
+     *
+     * @return the number of runs.
+     */
+    synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of failed runs.
+     *
+     * @return the number of errors.
+     */
+    synchronized int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets a percentile of the latencies by the nearest-rank method.
+     *
+     * @param percentile the percentile, between 0 (exclusive) and 100 (inclusive).
+     * @return the latency in milliseconds, or 0 if nothing was recorded.
+     */
+    synchronized double getPercentile(double percentile) {
+        if (0 == count) {
+            return 0;
+        }
+
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
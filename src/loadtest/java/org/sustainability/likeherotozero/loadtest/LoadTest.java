@@ -0,0 +1,193 @@
+package org.sustainability.likeherotozero.loadtest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * End-to-end load test of the web application. It generates synthetic data in an in-memory H2 database in MySQL mode,
+ * deploys the application in an embedded Tomcat and lets virtual visitors, scientists and publishers run the scripted
+ * {@link Flow}s concurrently. The latency percentiles and the throughput of every flow are printed and written as JSON,
+ * so capacity planning and changes to the application can be based on comparable numbers.
+ * Before the load starts, the {@link QueryBudgetCheck} fails the load test if a page issues too many SQL statements.
+ *
+ * @see LoadTestSettings
+ */
+public class LoadTest {
+
+    private static final Logger LOGGER = Logger.getLogger(LoadTest.class.getName());
+
+    private static final double[] PERCENTILES = { 50, 95, 99 };
+
+    /**
+     * Runs the load test.
+     *
+     * @param args not used; the settings are read from system properties.
+     * @throws Exception if the load test cannot be run.
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = new LoadTestSettings();
+        Map<String, Object> overrides = databaseOverrides();
+
+        new SyntheticDataGenerator(settings).generate(overrides);
+
+        // The application reads its persistence settings from system properties, see EntityManagerService
+        for (Map.Entry<String, Object> override : overrides.entrySet()) {
+            System.setProperty(override.getKey(), override.getValue().toString());
+        }
+
+        EmbeddedServer server = new EmbeddedServer();
+        URI base = server.start(settings.getPort());
+        LOGGER.info("Application started at " + base);
+
+        try {
+            Map<Flow, LatencyRecorder> recorders = new EnumMap<>(Flow.class);
+
+            for (Flow flow : Flow.values()) {
+                recorders.put(flow, new LatencyRecorder(flow));
+            }
+
+            new QueryBudgetCheck(base, settings.getQueryBudget()).run();
+            run(settings, base, recorders);
+            report(settings, recorders);
+            saveMetrics(settings, base);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Builds the settings that replace the MySQL database of the persistence unit with the in-memory H2 database.
+     *
+     * @return the settings overriding persistence.xml.
+     */
+    private static Map<String, Object> databaseOverrides() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("jakarta.persistence.jdbc.url", "jdbc:h2:mem:loadtest;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1");
+        overrides.put("jakarta.persistence.jdbc.driver", "org.h2.Driver");
+        overrides.put("jakarta.persistence.jdbc.user", "sa");
+        overrides.put("jakarta.persistence.jdbc.password", "");
+        overrides.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        overrides.put("hibernate.hbm2ddl.auto", "none");
+        overrides.put("hibernate.show_sql", "false");
+        return overrides;
+    }
+
+    /**
+     * Runs the virtual users through the warm-up and the measurement.
+     *
+     * @param settings  the settings.
+     * @param base      the base URI of the application.
+     * @param recorders the recorders of all flows.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private static void run(LoadTestSettings settings, URI base, Map<Flow, LatencyRecorder> recorders) throws InterruptedException {
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+        long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getUsers());
+
+        for (int i = 0; i < settings.getUsers(); i++) {
+            VirtualUser.Profile profile;
+            String username;
+
+            // Logged in users share the generated accounts round robin, each with a session of its own
+            if (i < settings.getPublisherUsers()) {
+                profile = VirtualUser.Profile.PUBLISHER;
+                username = "publisher" + (1 + i % settings.getPublishers());
+            } else if (i < settings.getPublisherUsers() + settings.getScientistUsers()) {
+                profile = VirtualUser.Profile.SCIENTIST;
+                username = "scientist" + (1 + i % settings.getScientists());
+            } else {
+                profile = VirtualUser.Profile.VISITOR;
+                username = null;
+            }
+
+            executor.execute(new VirtualUser(base, profile, username, recorders, measureFrom, measureUntil,
+                    settings.getThinkTimeMillis(), settings.getSeed() + i));
+        }
+
+        LOGGER.info(String.format("%d virtual users started, measuring for %d s after a warm-up of %d s",
+                settings.getUsers(), settings.getDurationSeconds(), settings.getWarmupSeconds()));
+        executor.shutdown();
+
+        if (!executor.awaitTermination(settings.getWarmupSeconds() + settings.getDurationSeconds() + 120L, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Saves the metrics of the application after the run next to the result file, e.g. as
+     * target/loadtest-result.metrics.txt, so the latencies of the flows can be related to the DAO latencies,
+     * the queries per request and the pool utilization.
+     *
+     * @param settings the settings.
+     * @param base     the base URI of the application.
+     * @throws IOException          if the metrics cannot be read or written.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private static void saveMetrics(LoadTestSettings settings, URI base) throws IOException, InterruptedException {
+        String fileName = settings.getResultFile().getFileName().toString().replaceFirst("\\.json$", "") + ".metrics.txt";
+        Path metricsFile = settings.getResultFile().resolveSibling(fileName);
+        HttpResponse<Path> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(base + "/metrics")).build(),
+                HttpResponse.BodyHandlers.ofFile(metricsFile));
+
+        if (200 != response.statusCode()) {
+            throw new IOException("GET /metrics returned " + response.statusCode());
+        }
+
+        LOGGER.info("Metrics written to " + metricsFile.toAbsolutePath());
+    }
+
+    /**
+     * Prints the results and writes them to the result file.
+     *
+     * @param settings  the settings.
+     * @param recorders the recorders of all flows.
+     * @throws IOException if the result file cannot be written.
+     */
+    private static void report(LoadTestSettings settings, Map<Flow, LatencyRecorder> recorders) throws IOException {
+        double seconds = settings.getDurationSeconds();
+        StringBuilder table = new StringBuilder(String.format("%n%-18s %8s %7s %9s %9s %9s %9s%n",
+                "flow", "count", "errors", "p50 ms", "p95 ms", "p99 ms", "per s"));
+
+        Files.createDirectories(settings.getResultFile().toAbsolutePath().getParent());
+
+        try (Writer out = Files.newBufferedWriter(settings.getResultFile(), StandardCharsets.UTF_8)) {
+            out.write(String.format(Locale.ROOT, "{\"users\":%d,\"countries\":%d,\"years\":%d,\"durationSeconds\":%d,\"flows\":[",
+                    settings.getUsers(), settings.getCountries(), settings.getYears(), settings.getDurationSeconds()));
+            String separator = "";
+
+            for (LatencyRecorder recorder : recorders.values()) {
+                double[] percentiles = new double[PERCENTILES.length];
+
+                for (int i = 0; i < PERCENTILES.length; i++) {
+                    percentiles[i] = recorder.getPercentile(PERCENTILES[i]);
+                }
+
+                double throughput = recorder.getCount() / seconds;
+                table.append(String.format(Locale.ROOT, "%-18s %8d %7d %9.1f %9.1f %9.1f %9.2f%n", recorder.getFlow().getName(),
+                        recorder.getCount(), recorder.getErrors(), percentiles[0], percentiles[1], percentiles[2], throughput));
+                out.write(String.format(Locale.ROOT,
+                        "%s{\"flow\":\"%s\",\"count\":%d,\"errors\":%d,\"p50\":%.3f,\"p95\":%.3f,\"p99\":%.3f,\"throughput\":%.3f}",
+                        separator, recorder.getFlow().getName(), recorder.getCount(), recorder.getErrors(),
+                        percentiles[0], percentiles[1], percentiles[2], throughput));
+                separator = ",";
+            }
+
+            out.write("]}\n");
+        }
+
+        LOGGER.info(table + "Results written to " + settings.getResultFile().toAbsolutePath());
+    }
+}
@@ -0,0 +1,176 @@
+package org.sustainability.likeherotozero.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Settings of the load test, read from system properties with the prefix {@code loadtest.},
+ * e.g. {@code mvn -Ploadtest verify -Dloadtest.users=100 -Dloadtest.duration=300}.
+ */
+final class LoadTestSettings {
+
+    private static final String PREFIX = "loadtest.";
+
+    private final int countries = getInt("countries", 250);
+    private final int years = getInt("years", 30);
+    private final int pendingEntries = getInt("pending", 2000);
+    private final int scientists = getInt("scientists", 10);
+    private final int publishers = getInt("publishers", 3);
+    private final int users = getInt("users", 50);
+    private final int scientistUsers = getInt("scientistUsers", Math.max(1, users * 15 / 100));
+    private final int publisherUsers = getInt("publisherUsers", Math.max(1, users * 5 / 100));
+    private final int warmupSeconds = getInt("warmup", 30);
+    private final int durationSeconds = getInt("duration", 120);
+    private final int thinkTimeMillis = getInt("thinkTime", 0);
+    private final int port = getInt("port", 0);
+    private final long seed = getInt("seed", 42);
+    private final int queryBudget = getInt("queryBudget", 5);
+    private final Path resultFile = Paths.get(System.getProperty(PREFIX + "result", "target/loadtest-result.json"));
+
+    /**
+     * Gets the number of generated countries.
+     *
+     * @return the number of countries.
+     */
+    int getCountries() {
+        return countries;
+    }
+
+    /**
+     * Gets the number of years of daily emission data generated per country.
+     *
+     * @return the number of years.
+     */
+    int getYears() {
+        return years;
+    }
+
+    /**
+     * Gets the number of unapproved emission values generated for the approval queue.
+     *
+     * @return the number of unapproved values.
+     */
+    int getPendingEntries() {
+        return pendingEntries;
+    }
+
+    /**
+     * Gets the number of generated scientist accounts.
+     *
+     * @return the number of scientists.
+     */
+    int getScientists() {
+        return scientists;
+    }
+
+    /**
+     * Gets the number of generated publisher accounts.
+     *
+     * @return the number of publishers.
+     */
+    int getPublishers() {
+        return publishers;
+    }
+
+    /**
+     * Gets the total number of concurrent virtual users.
+     *
+     * @return the number of virtual users.
+     */
+    int getUsers() {
+        return users;
+    }
+
+    /**
+     * Gets the number of virtual users logged in as scientists.
+     *
+     * @return the number of scientist virtual users.
+     */
+    int getScientistUsers() {
+        return scientistUsers;
+    }
+
+    /**
+     * Gets the number of virtual users logged in as publishers.
+     *
+     * @return the number of publisher virtual users.
+     */
+    int getPublisherUsers() {
+        return publisherUsers;
+    }
+
+    /**
+     * Gets the time before the measurement starts, in which the JIT compiler and the caches warm up.
+     *
+     * @return the warm-up time in seconds.
+     */
+    int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    /**
+     * Gets the duration of the measurement.
+     *
+     * @return the duration in seconds.
+     */
+    int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * Gets the pause of a virtual user between two flows.
+     *
+     * @return the think time in milliseconds, 0 for a closed loop without pauses.
+     */
+    int getThinkTimeMillis() {
+        return thinkTimeMillis;
+    }
+
+    /**
+     * Gets the HTTP port of the embedded server.
+     *
+     * @return the port, 0 for a free port.
+     */
+    int getPort() {
+        return port;
+    }
+
+    /**
+     * Gets the seed of the random numbers, so runs with the same settings generate the same data.
+     *
+     * @return the seed.
+     */
+    long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the largest number of SQL statements a single page request may issue in the {@link QueryBudgetCheck}.
+     *
+     * @return the query budget.
+     */
+    int getQueryBudget() {
+        return queryBudget;
+    }
+
+    /**
+     * Gets the file the results are written to.
+     *
+     * @return the path of the result file.
+     */
+    Path getResultFile() {
+        return resultFile;
+    }
+
+    /**
+     * Reads an integer setting.
+     *
+     * @param name         the name without prefix.
+     * @param defaultValue the value if the property is not set.
+     * @return the value.
+     */
+    private static int getInt(String name, int defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        return null == value || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
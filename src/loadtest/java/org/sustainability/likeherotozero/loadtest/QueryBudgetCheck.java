@@ -0,0 +1,143 @@
+package org.sustainability.likeherotozero.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Checks that rendering the pages of a visitor issues at most the configured number of SQL statements per request,
+ * so an N+1 pattern introduced into a page or a DAO fails the build instead of only slowing down production.
+ * The requests are sent one after another before the load starts, and the statements of each one are read from
+ * the {@code http_request_queries} histograms of the application's metrics. Every request is sent twice and the
+ * second one is checked, so the check measures rendering with warm caches rather than filling the caches.
+ */
+final class QueryBudgetCheck {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryBudgetCheck.class.getName());
+
+    private static final String QUERIES_SUM = "likeherotozero_http_request_queries_sum{";
+
+    private final URI base;
+    private final int budget;
+    private final HttpClient metricsClient = HttpClient.newHttpClient();
+    private final Map<String, Long> statements = new LinkedHashMap<>();
+
+    /**
+     * Creates a new check.
+     *
+     * @param base   the base URI of the application.
+     * @param budget the largest number of SQL statements per request.
+     */
+    QueryBudgetCheck(URI base, int budget) {
+        this.base = base;
+        this.budget = budget;
+    }
+
+    /**
+     * Sends the requests and checks their number of statements.
+     *
+     * @throws IOException           if a request fails.
+     * @throws InterruptedException  if the thread is interrupted.
+     * @throws IllegalStateException if a request exceeds the budget.
+     */
+    void run() throws IOException, InterruptedException {
+        // The first pass fills the caches, the second one is checked
+        for (int pass = 0; pass < 2; pass++) {
+            JsfClient client = new JsfClient(base);
+            measure("GET /index.xhtml", () -> client.get("/index.xhtml"));
+            measure("GET /country.xhtml", () -> client.get("/country.xhtml"));
+            measure("GET /emissionData.xhtml", () -> client.get("/emissionData.xhtml"));
+
+            String countryId = client.getOptions("countryForm:country_input").get(0);
+            measure("select a country on /emissionData.xhtml", () -> client.ajaxEvent("countryForm:country", "change",
+                    "countryForm:country", "selectedCountry", Map.of("countryForm:country_input", countryId)));
+
+            if (client.contains(Flow.APPROVED_TABLE + "_paginator")) {
+                measure("page the table on /emissionData.xhtml", () -> client.ajax(Flow.APPROVED_TABLE,
+                        Flow.APPROVED_TABLE, Flow.APPROVED_TABLE, Map.of(
+                                Flow.APPROVED_TABLE + "_pagination", "true",
+                                Flow.APPROVED_TABLE + "_first", "25",
+                                Flow.APPROVED_TABLE + "_rows", "25",
+                                Flow.APPROVED_TABLE + "_skipChildren", "true",
+                                Flow.APPROVED_TABLE + "_encodeFeature", "true")));
+            }
+        }
+
+        StringBuilder table = new StringBuilder(String.format("%n%-42s %10s%n", "request", "statements"));
+        List<String> exceeded = new ArrayList<>();
+
+        for (Map.Entry<String, Long> entry : statements.entrySet()) {
+            table.append(String.format("%-42s %10d%n", entry.getKey(), entry.getValue()));
+
+            if (entry.getValue() > budget) {
+                exceeded.add(entry.getKey() + " issued " + entry.getValue());
+            }
+        }
+
+        LOGGER.info(table + "Query budget per request: " + budget);
+
+        if (!exceeded.isEmpty()) {
+            throw new IllegalStateException("Query budget of " + budget + " SQL statements exceeded: "
+                    + String.join(", ", exceeded));
+        }
+    }
+
+    /**
+     * Sends a request and records its number of statements.
+     *
+     * @param name    the name of the request.
+     * @param request the request.
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private void measure(String name, Request request) throws IOException, InterruptedException {
+        long before = readStatements();
+        request.send();
+        statements.put(name, readStatements() - before);
+    }
+
+    /**
+     * Reads the number of SQL statements of all requests so far from the metrics of the application.
+     *
+     * @return the number of statements.
+     * @throws IOException          if the metrics cannot be read.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private long readStatements() throws IOException, InterruptedException {
+        HttpResponse<String> response = metricsClient.send(HttpRequest.newBuilder(URI.create(base + "/metrics")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        if (200 != response.statusCode()) {
+            throw new IOException("GET /metrics returned " + response.statusCode());
+        }
+
+        long sum = 0;
+
+        for (String line : response.body().split("\n")) {
+            if (line.startsWith(QUERIES_SUM)) {
+                sum += Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+            }
+        }
+
+        return sum;
+    }
+
+    /**
+     * A request of the check.
+     */
+    @FunctionalInterface
+    private interface Request {
+
+        /**
+         * Sends the request.
+         *
+         * @throws IOException          if the request fails.
+         * @throws InterruptedException if the thread is interrupted.
+         */
+        void send() throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,266 @@
+package org.sustainability.likeherotozero.loadtest;
+
+import org.sustainability.likeherotozero.dao.SchemaMigrator;
+import org.sustainability.likeherotozero.entity.Country;
+import org.sustainability.likeherotozero.entity.User;
+import org.sustainability.likeherotozero.entity.UserRole;
+import org.sustainability.likeherotozero.model.Role;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Fills the load test database with synthetic countries, daily emission data and users.
+ * The schema is created by the migration scripts and validated by Hibernate against the entities, so a script that
+ * does not match the mapping fails the load test; countries and users are persisted through the persistence unit,
+ * while the emission data is inserted with JDBC batches, since it amounts to millions of rows.
+ * The data of every country ends one year before today, so scientists can create entries for the last year.
+ */
+class SyntheticDataGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(SyntheticDataGenerator.class.getName());
+
+    /**
+     * The password of all generated users.
+     */
+    static final String PASSWORD = "loadtest";
+
+    /**
+     * The number of rows inserted per JDBC batch and transaction.
+     */
+    private static final int BATCH_SIZE = 10_000;
+
+    private final LoadTestSettings settings;
+    private final Random random;
+
+    /**
+     * Creates a new generator.
+     *
+     * @param settings the settings of the load test.
+     */
+    SyntheticDataGenerator(LoadTestSettings settings) {
+        this.settings = settings;
+        this.random = new Random(settings.getSeed());
+    }
+
+    /**
+     * Creates the schema and generates the data.
+     *
+     * @param overrides the settings of the persistence unit pointing to the load test database.
+     */
+    void generate(Map<String, Object> overrides) {
+        long start = System.nanoTime();
+        new SchemaMigrator(overrides).migrate();
+        Map<String, Object> schemaOverrides = new HashMap<>(overrides);
+        schemaOverrides.put("hibernate.hbm2ddl.auto", "validate");
+        EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory("default", schemaOverrides);
+        List<Integer> countryIds;
+        int scientistId;
+
+        try {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+
+            try {
+                entityManager.getTransaction().begin();
+                countryIds = persistCountries(entityManager);
+                scientistId = persistUsers(entityManager);
+                entityManager.getTransaction().commit();
+            } finally {
+                entityManager.close();
+            }
+        } finally {
+            entityManagerFactory.close();
+        }
+
+        long rows = insertEmissionData(overrides, countryIds, scientistId);
+        LOGGER.info(String.format("Generated %d countries, %d emission values and %d users in %d ms", countryIds.size(), rows,
+                settings.getScientists() + settings.getPublishers(), (System.nanoTime() - start) / 1_000_000));
+    }
+
+    /**
+     * Persists the countries. The real ISO 3166 countries known to the JDK are used first,
+     * so the country pages and the API resolve them like in production.
+     *
+     * @param entityManager the {@link EntityManager}.
+     * @return the IDs of the countries.
+     */
+    private List<Integer> persistCountries(EntityManager entityManager) {
+        List<Integer> countryIds = new ArrayList<>();
+        String[] isoCountries = Locale.getISOCountries();
+
+        for (int i = 0; i < settings.getCountries(); i++) {
+            Country country = new Country();
+
+            if (i < isoCountries.length) {
+                Locale locale = new Locale("", isoCountries[i]);
+                country.setName(locale.getDisplayCountry(Locale.ENGLISH));
+                country.setCode(locale.getISO3Country());
+            } else {
+                country.setName("Synthetic Country " + i);
+                country.setCode(String.format("X%02d", i - isoCountries.length));
+            }
+
+            entityManager.persist(country);
+            countryIds.add(country.getId());
+        }
+
+        return countryIds;
+    }
+
+    /**
+     * Persists the roles and the scientists and publishers the virtual users log in as.
+     *
+     * @param entityManager the {@link EntityManager}.
+     * @return the ID of the first scientist, who is the creator of the generated emission data.
+     */
+    private int persistUsers(EntityManager entityManager) {
+        UserRole scientistRole = persistRole(entityManager, Role.SCIENTIST);
+        UserRole publisherRole = persistRole(entityManager, Role.PUBLISHER);
+        int scientistId = 0;
+
+        for (int i = 1; i <= settings.getScientists(); i++) {
+            User user = persistUser(entityManager, "scientist" + i, scientistRole);
+
+            if (0 == scientistId) {
+                scientistId = user.getId();
+            }
+        }
+
+        for (int i = 1; i <= settings.getPublishers(); i++) {
+            persistUser(entityManager, "publisher" + i, publisherRole);
+        }
+
+        return scientistId;
+    }
+
+    /**
+     * Persists a role.
+     *
+     * @param entityManager the {@link EntityManager}.
+     * @param role          the role.
+     * @return the {@link UserRole}.
+     */
+    private static UserRole persistRole(EntityManager entityManager, Role role) {
+        UserRole userRole = new UserRole();
+        userRole.setRole(role.getRoleName());
+        entityManager.persist(userRole);
+        return userRole;
+    }
+
+    /**
+     * Persists an active user with the common password.
+     *
+     * @param entityManager the {@link EntityManager}.
+     * @param username      the username.
+     * @param userRole      the only role of the user.
+     * @return the {@link User}.
+     */
+    private static User persistUser(EntityManager entityManager, String username, UserRole userRole) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(PASSWORD);
+        user.setActive(true);
+        user.setUserRoles(new ArrayList<>(Collections.singletonList(userRole)));
+        entityManager.persist(user);
+        return user;
+    }
+
+    /**
+     * Inserts one value per country and day over the configured number of years, followed by unapproved values
+     * of random countries and days for the approval queue.
+     *
+     * @param overrides   the settings of the persistence unit pointing to the load test database.
+     * @param countryIds  the IDs of the countries.
+     * @param scientistId the ID of the creator.
+     * @return the number of inserted rows.
+     */
+    private long insertEmissionData(Map<String, Object> overrides, List<Integer> countryIds, int scientistId) {
+        LocalDate last = LocalDate.now().minusYears(1);
+        LocalDate first = last.minusYears(settings.getYears()).plusDays(1);
+        int days = (int) (last.toEpochDay() - first.toEpochDay()) + 1;
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        String sql = "INSERT INTO EmissionData (approved, createdAt, updatedAt, reportedFor, value, country_id, createdBy_id)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection connection = DriverManager.getConnection((String) overrides.get("jakarta.persistence.jdbc.url"),
+                (String) overrides.get("jakarta.persistence.jdbc.user"), (String) overrides.get("jakarta.persistence.jdbc.password"));
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            long rows = 0;
+
+            for (int countryId : countryIds) {
+                // Every country gets its own level, trend and seasonality, so rankings and charts are not uniform
+                double level = Math.exp(2 + random.nextDouble() * 8);
+                double trend = (random.nextDouble() - 0.6) / settings.getYears() / 365;
+                double seasonality = random.nextDouble() * 0.3;
+
+                for (int day = 0; day < days; day++) {
+                    double value = level * (1 + trend * day) * (1 + seasonality * Math.sin(2 * Math.PI * day / 365.25))
+                            * (0.9 + random.nextDouble() * 0.2);
+                    addRow(statement, true, now, first.plusDays(day), value, countryId, scientistId);
+
+                    if (++rows % BATCH_SIZE == 0) {
+                        statement.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+
+            // Unapproved values are generated within the free last year, so they cannot collide with the approved ones
+            Set<Long> pending = new HashSet<>();
+
+            while (pending.size() < settings.getPendingEntries()) {
+                int countryId = countryIds.get(random.nextInt(countryIds.size()));
+                int day = 1 + random.nextInt(365);
+
+                if (pending.add((long) countryId << 32 | day)) {
+                    addRow(statement, false, now, last.plusDays(day), Math.exp(2 + random.nextDouble() * 8), countryId, scientistId);
+
+                    if (++rows % BATCH_SIZE == 0) {
+                        statement.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+
+            statement.executeBatch();
+            connection.commit();
+            return rows;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not insert the synthetic emission data", e);
+        }
+    }
+
+    /**
+     * Adds an emission value to the batch.
+     *
+     * @param statement   the insert statement.
+     * @param approved    the approval status.
+     * @param now         the creation and update time.
+     * @param reportedFor the reported date.
+     * @param value       the value in kt.
+     * @param countryId   the ID of the country.
+     * @param scientistId the ID of the creator.
+     * @throws SQLException if the row cannot be added.
+     */
+    private static void addRow(PreparedStatement statement, boolean approved, Timestamp now, LocalDate reportedFor,
+                               double value, int countryId, int scientistId) throws SQLException {
+        statement.setBoolean(1, approved);
+        statement.setTimestamp(2, now);
+        statement.setTimestamp(3, now);
+        statement.setDate(4, java.sql.Date.valueOf(reportedFor));
+        statement.setDouble(5, Math.round(value * 1000) / 1000.0);
+        statement.setInt(6, countryId);
+        statement.setInt(7, scientistId);
+        statement.addBatch();
+    }
+}
@@ -0,0 +1,167 @@
+package org.sustainability.likeherotozero.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A simulated user who runs randomly chosen flows in a loop until the load test ends.
+ * Only runs that start after the warm-up and finish before the end of the measurement are recorded.
+ */
+class VirtualUser implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(VirtualUser.class.getName());
+
+    /**
+     * The kinds of users with the weights of the flows they run.
+     */
+    enum Profile {
+
+        /**
+         * A visitor without an account.
+         */
+        VISITOR(Map.of(Flow.HOME, 4, Flow.COUNTRY_SWITCH, 2, Flow.EMISSION_BROWSING, 4)),
+
+        /**
+         * A scientist who mostly enters emission data.
+         */
+        SCIENTIST(Map.of(Flow.EMISSION_BROWSING, 4, Flow.CREATE_EDIT, 6)),
+
+        /**
+         * A publisher who mostly approves emission data.
+         */
+        PUBLISHER(Map.of(Flow.EMISSION_BROWSING, 3, Flow.APPROVAL, 7));
+
+        private final Map<Flow, Integer> weights;
+        private final int totalWeight;
+
+        /**
+         * Creates a new profile.
+         *
+         * @param weights the relative frequencies of the flows.
+         */
+        Profile(Map<Flow, Integer> weights) {
+            this.weights = weights;
+            this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        /**
+         * Chooses the next flow according to the weights.
+         *
+         * @param random the random numbers of the virtual user.
+         * @return the flow.
+         */
+        Flow choose(Random random) {
+            int remaining = random.nextInt(totalWeight);
+
+            for (Flow flow : Flow.values()) {
+                remaining -= weights.getOrDefault(flow, 0);
+
+                if (remaining < 0) {
+                    return flow;
+                }
+            }
+
+            throw new IllegalStateException("No flow chosen");
+        }
+    }
+
+    private final URI base;
+    private final Profile profile;
+    private final String username;
+    private final Map<Flow, LatencyRecorder> recorders;
+    private final long measureFrom;
+    private final long measureUntil;
+    private final int thinkTimeMillis;
+    private final Random random;
+
+    private JsfClient client;
+
+    /**
+     * Creates a new virtual user.
+     *
+     * @param base            the base URI of the application.
+     * @param profile         the kind of user.
+     * @param username        the account to log in with, or null for a visitor.
+     * @param recorders       the recorders of all flows.
+     * @param measureFrom     the {@link System#nanoTime()} the measurement starts at.
+     * @param measureUntil    the {@link System#nanoTime()} the measurement and the load test end at.
+     * @param thinkTimeMillis the pause between two flows.
+     * @param seed            the seed of the random numbers.
+     */
+    VirtualUser(URI base, Profile profile, String username, Map<Flow, LatencyRecorder> recorders,
+                long measureFrom, long measureUntil, int thinkTimeMillis, long seed) {
+        this.base = base;
+        this.profile = profile;
+        this.username = username;
+        this.recorders = recorders;
+        this.measureFrom = measureFrom;
+        this.measureUntil = measureUntil;
+        this.thinkTimeMillis = thinkTimeMillis;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Runs flows until the load test ends. After a failed flow the user starts over with a new session.
+     */
+    @Override
+    public void run() {
+        while (System.nanoTime() < measureUntil && !Thread.currentThread().isInterrupted()) {
+            Flow flow = profile.choose(random);
+
+            try {
+                if (null == client) {
+                    client = new JsfClient(base);
+                    login();
+                }
+
+                long start = System.nanoTime();
+                flow.run(client, random);
+                long end = System.nanoTime();
+
+                if (start >= measureFrom && end <= measureUntil) {
+                    recorders.get(flow).record(end - start);
+                }
+
+                if (thinkTimeMillis > 0) {
+                    Thread.sleep(thinkTimeMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                if (System.nanoTime() >= measureFrom) {
+                    recorders.get(flow).recordError();
+                }
+                LOGGER.log(Level.FINE, "Flow " + flow.getName() + " failed", e);
+                LOGGER.warning(() -> "Flow " + flow.getName() + " of " + (null == username ? "a visitor" : username)
+                        + " failed: " + e.getMessage());
+                client = null;
+            }
+        }
+    }
+
+    /**
+     * Logs the user in, unless it is a visitor.
+     *
+     * @throws IOException          if the login fails.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private void login() throws IOException, InterruptedException {
+        if (null == username) {
+            return;
+        }
+
+        client.get("/login.xhtml");
+        client.ajax("loginForm:login", "loginForm", "loginForm", Map.of(
+                "loginForm:username", username,
+                "loginForm:password", SyntheticDataGenerator.PASSWORD));
+
+        // A successful login navigates to the home page, which replaces the whole view
+        if (!client.contains("jakarta.faces.ViewRoot")) {
+            throw new IOException("Login of " + username + " failed");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.sustainability.likeherotozero.controller;
 
+import org.sustainability.likeherotozero.service.CountryCatalog;
 import org.sustainability.likeherotozero.service.SessionService;
 import jakarta.faces.application.FacesMessage;
 import jakarta.faces.component.UIComponent;
@@ -10,11 +11,8 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
 import java.io.Serializable;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.*;
-import java.util.stream.Collectors;
 
 
 /**
@@ -26,27 +24,17 @@ import java.util.stream.Collectors;
 public class CountryController implements Serializable {
 
     private final SessionService sessionService;
+    private final CountryCatalog countryCatalog;
 
     private String country;
-    private final Map<String, Locale> availableCountries;
 
     /**
-     * Initializes the CountryController and populates the availableCountries map
-     * with all available locales.
+     * Initializes the CountryController with the shared {@link CountryCatalog} of available countries.
      */
     @Inject
-    public CountryController(SessionService sessionService) {
+    public CountryController(SessionService sessionService, CountryCatalog countryCatalog) {
         this.sessionService = sessionService;
-
-        List<Locale> sortedLocales = Arrays.stream(Locale.getAvailableLocales())
-                .filter(locale -> !locale.getCountry().isEmpty()) // Filter out locales without countries
-                .sorted(Comparator.comparing(locale -> locale.getDisplayCountry(Locale.ENGLISH)))
-                .collect(Collectors.toList());
-
-        availableCountries = new LinkedHashMap<>();
-        for (Locale availableLocale : sortedLocales) {
-            availableCountries.put(availableLocale.getCountry(), availableLocale);
-        }
+        this.countryCatalog = countryCatalog;
     }
 
     /**
@@ -73,12 +61,12 @@ public class CountryController implements Serializable {
     }
 
     /**
-     * Gets a map of available countries and their corresponding locales.
+     * Gets the available countries with their display names in the language of the current view.
      *
-     * @return a map where the key is the country code and the value is the {@link Locale}.
+     * @return a list of {@link CountryCatalog.Entry} instances, sorted by display name.
      */
-    public Map<String, Locale> getAvailableCountries() {
-        return availableCountries;
+    public List<CountryCatalog.Entry> getAvailableCountries() {
+        return countryCatalog.getEntries(FacesContext.getCurrentInstance().getViewRoot().getLocale());
     }
 
     /**
@@ -90,9 +78,7 @@ public class CountryController implements Serializable {
      * @throws ValidatorException if the country is not available.
      */
     public void validateCountryChange(FacesContext context, UIComponent component, Object value) {
-        Locale locale = availableCountries.get((String) value);
-
-        if (null == locale) {
+        if (!countryCatalog.contains((String) value)) {
             throw new ValidatorException(new FacesMessage("Country not available!"));
         }
     }
@@ -103,7 +89,7 @@ public class CountryController implements Serializable {
      * @return the navigation outcome, which is "index.xhtml".
      */
     public String changeCountry() {
-        Locale locale = this.availableCountries.get(this.country);
+        Locale locale = countryCatalog.findLocale(this.country);
         sessionService.setLocale(locale);
 
         return "index.xhtml";
@@ -2,12 +2,17 @@ package org.sustainability.likeherotozero.controller;
 
 import org.sustainability.likeherotozero.dao.CountryDAO;
 import org.sustainability.likeherotozero.dao.EmissionDataDAO;
-import org.sustainability.likeherotozero.dao.UserRoleDAO;
 import org.sustainability.likeherotozero.entity.Country;
 import org.sustainability.likeherotozero.entity.EmissionData;
-import org.sustainability.likeherotozero.entity.User;
-import org.sustainability.likeherotozero.entity.UserRole;
-import org.sustainability.likeherotozero.service.EntityManagerService;
+import org.sustainability.likeherotozero.model.ApprovalQueueFilter;
+import org.sustainability.likeherotozero.model.ApprovalQueueModel;
+import org.sustainability.likeherotozero.model.ApprovedEmissionDataModel;
+import org.sustainability.likeherotozero.model.DownsamplingMethod;
+import org.sustainability.likeherotozero.model.EmissionSeries;
+import org.sustainability.likeherotozero.model.PendingEmissionData;
+import org.sustainability.likeherotozero.model.Role;
+import org.sustainability.likeherotozero.service.DownsamplingService;
+import org.sustainability.likeherotozero.service.EmissionDataService;
 import org.sustainability.likeherotozero.service.SessionService;
 import jakarta.faces.application.FacesMessage;
 import jakarta.faces.component.UIComponent;
@@ -16,8 +21,9 @@ import jakarta.faces.validator.ValidatorException;
 import jakarta.faces.view.ViewScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.EntityTransaction;
+import org.primefaces.model.charts.ChartData;
+import org.primefaces.model.charts.line.LineChartDataSet;
+import org.primefaces.model.charts.line.LineChartModel;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -36,6 +42,11 @@ import java.util.stream.Collectors;
 @ViewScoped
 public class EmissionDataController implements Serializable {
 
+    /**
+     * The maximum number of points shown in the emission chart.
+     */
+    private static final int CHART_POINTS = 500;
+
     @Inject
     private SessionService sessionService;
 
@@ -43,16 +54,22 @@ public class EmissionDataController implements Serializable {
     private CountryDAO countryDAO;
 
     @Inject
-    private UserRoleDAO userRoleDAO;
+    private EmissionDataDAO emissionDataDAO;
 
     @Inject
-    private EmissionDataDAO emissionDataDAO;
+    private EmissionDataService emissionDataService;
 
     @Inject
-    private EntityManagerService entityManagerService;
+    private DownsamplingService downsamplingService;
 
     private int selectedCountryId;
     private EmissionData emissionData = null;
+    private ApprovedEmissionDataModel approvedEmissionDataModel = null;
+    private LineChartModel emissionChart = null;
+    private long emissionChartVersion;
+    private final ApprovalQueueFilter approvalQueueFilter = new ApprovalQueueFilter();
+    private ApprovalQueueModel approvalQueueModel = null;
+    private List<PendingEmissionData> selectedPendingEmissionData = new ArrayList<>();
 
     /**
      * Default constructor.
@@ -77,6 +94,8 @@ public class EmissionDataController implements Serializable {
      */
     public void setSelectedCountryId(int selectedCountryId) {
         this.selectedCountryId = selectedCountryId;
+        this.approvedEmissionDataModel = null;
+        this.emissionChart = null;
         this.initializeNewEmissionData();
     }
 
@@ -86,14 +105,7 @@ public class EmissionDataController implements Serializable {
      * @return true if the user has the role 'ROLE_REPORTER', false otherwise.
      */
     public boolean isUserAllowedToCreateOrEdit() {
-        User user = sessionService.getUser();
-        UserRole requiredUserRole = userRoleDAO.findOneByRoleName("ROLE_SCIENTIST");
-
-        if (null == user) {
-            return false;
-        }
-
-        return user.getUserRoles().contains(requiredUserRole);
+        return sessionService.hasRole(Role.SCIENTIST);
     }
 
     /**
@@ -105,26 +117,64 @@ public class EmissionDataController implements Serializable {
      * @throws ValidatorException if the country is not found.
      */
     public void validateCountryChange(FacesContext context, UIComponent component, Object value) {
-        Country country = countryDAO.findOneById((int) value);
-
-        if (null == country) {
+        if (!countryDAO.existsById((int) value)) {
             throw new ValidatorException(new FacesMessage("Country not found!"));
         }
     }
 
     /**
-     * Retrieves the list of emission data for the selected country.
+     * Gets the lazy data model of the approved emission data for the selected country.
+     * The model loads one page at a time instead of the whole history of the country.
      *
-     * @return a list of EmissionData associated with the selected country.
+     * @return the {@link ApprovedEmissionDataModel} of the selected country.
      */
-    public List<EmissionData> getEmissionDataBySelectedCountry() {
-        Country country = countryDAO.findOneById(selectedCountryId);
+    public ApprovedEmissionDataModel getApprovedEmissionDataModel() {
+        if (null == this.approvedEmissionDataModel) {
+            this.approvedEmissionDataModel = new ApprovedEmissionDataModel(emissionDataDAO, selectedCountryId);
+        }
+
+        return this.approvedEmissionDataModel;
+    }
 
-        if (null == country) {
-            return new ArrayList<EmissionData>();
+    /**
+     * Gets the chart of the approved emission data of the selected country.
+     * Long series are downsampled to at most {@link #CHART_POINTS} points, so the page stays small no matter
+     * how many values the country has. The chart is rebuilt only when the series of the country changed.
+     *
+     * @return the {@link LineChartModel}, or null if the country has less than two approved values.
+     */
+    public LineChartModel getEmissionChart() {
+        EmissionSeries series = downsamplingService.downsample(selectedCountryId, null, null, CHART_POINTS, DownsamplingMethod.LTTB);
+
+        if (series.size() < 2) {
+            return null;
+        }
+
+        if (null == this.emissionChart || series.getVersion() != this.emissionChartVersion) {
+            List<Object> values = new ArrayList<>(series.size());
+            List<String> labels = new ArrayList<>(series.size());
+
+            for (int i = 0; i < series.size(); i++) {
+                values.add(series.getValue(i));
+                labels.add(series.getDate(i).toString());
+            }
+
+            LineChartDataSet dataSet = new LineChartDataSet();
+            dataSet.setData(values);
+            dataSet.setLabel("Emission Value (in kt)");
+            dataSet.setBorderColor("#3498db");
+            dataSet.setFill(false);
+
+            ChartData data = new ChartData();
+            data.addChartDataSet(dataSet);
+            data.setLabels(labels);
+
+            this.emissionChart = new LineChartModel();
+            this.emissionChart.setData(data);
+            this.emissionChartVersion = series.getVersion();
         }
 
-        return country.getEmissionData();
+        return this.emissionChart;
     }
 
     /**
@@ -211,24 +261,9 @@ public class EmissionDataController implements Serializable {
      * If the data is new, it sets the creation date and associates the data with the selected country.
      */
     public void saveEmissionData() {
-        EntityManager entityManager = entityManagerService.getEntityManager();
-        EntityTransaction t = entityManager.getTransaction();
-
-        if (0 == this.emissionData.getId()) {
-            Country country = countryDAO.findOneById(selectedCountryId);
-
-            this.emissionData.setCreatedBy(sessionService.getUser());
-            this.emissionData.setCreatedAt(new Date());
-            this.emissionData.setCountry(country);
-        }
-
-        this.emissionData.setUpdatedAt(new Date());
-        this.emissionData.setApproved(false); // Set new entries as unapproved
-
-        t.begin();
-        entityManager.merge(this.emissionData);
-        t.commit();
-        entityManager.close();
+        Country country = countryDAO.findOneById(selectedCountryId);
+        emissionDataService.save(this.emissionData, country, sessionService.getUser());
+        this.getApprovedEmissionDataModel().resetCursors();
 
         this.initializeNewEmissionData();
     }
@@ -239,74 +274,104 @@ public class EmissionDataController implements Serializable {
      * @return true if the user has the role 'ROLE_PUBLISHER', false otherwise.
      */
     public boolean isUserAllowedToApprove() {
-        User user = sessionService.getUser();
-        UserRole requiredUserRole = userRoleDAO.findOneByRoleName("ROLE_PUBLISHER");
+        return sessionService.hasRole(Role.PUBLISHER);
+    }
 
-        if (null == user) {
-            return false;
+    /**
+     * Gets the filter settings of the approval queue.
+     *
+     * @return the {@link ApprovalQueueFilter}.
+     */
+    public ApprovalQueueFilter getApprovalQueueFilter() {
+        return approvalQueueFilter;
+    }
+
+    /**
+     * Gets the lazy data model of the approval queue, which loads one page of unapproved emission data at a time.
+     *
+     * @return the {@link ApprovalQueueModel}.
+     */
+    public ApprovalQueueModel getApprovalQueueModel() {
+        if (null == this.approvalQueueModel) {
+            this.approvalQueueModel = new ApprovalQueueModel(emissionDataDAO, approvalQueueFilter);
         }
 
-        return user.getUserRoles().contains(requiredUserRole);
+        return this.approvalQueueModel;
     }
 
     /**
-     * Retrieves the list of unapproved emission data.
+     * Applies changed filter settings to the approval queue.
+     */
+    public void applyApprovalQueueFilter() {
+        this.getApprovalQueueModel().resetCursors();
+    }
+
+    /**
+     * Approves the specified entry of the approval queue.
      *
-     * @return a list of unapproved EmissionData instances.
+     * @param data the entry to approve.
      */
-    public List<EmissionData> getUnapprovedEmissionData() {
-        return emissionDataDAO.findAllUnapproved();
+    public void approveEmissionData(PendingEmissionData data) {
+        emissionDataService.approve(data.getId());
+        this.getApprovedEmissionDataModel().resetCursors();
+        this.getApprovalQueueModel().resetCursors();
     }
 
     /**
-     * Approves the specified EmissionData instance.
+     * Rejects (deletes) the specified entry of the approval queue.
      *
-     * @param data the EmissionData instance to approve.
+     * @param data the entry to reject.
      */
-    public void approveEmissionData(EmissionData data) {
-        data.setApproved(true);
-        saveEmissionData(data);
+    public void rejectEmissionData(PendingEmissionData data) {
+        emissionDataService.reject(data.getId());
+        this.getApprovalQueueModel().resetCursors();
     }
 
     /**
-     * Rejects (deletes) the specified EmissionData instance.
+     * Gets the entries selected in the approval queue.
      *
-     * @param data the EmissionData instance to reject.
+     * @return the selected entries.
      */
-    public void rejectEmissionData(EmissionData data) {
-        EntityManager entityManager = entityManagerService.getEntityManager();
-        EntityTransaction t = entityManager.getTransaction();
-
-        t.begin();
-        entityManager.remove(entityManager.merge(data));
-        t.commit();
-        entityManager.close();
+    public List<PendingEmissionData> getSelectedPendingEmissionData() {
+        return selectedPendingEmissionData;
     }
 
     /**
-     * Saves the specified EmissionData instance.
+     * Sets the entries selected in the approval queue.
      *
-     * @param data the EmissionData instance to save.
+     * @param selectedPendingEmissionData the selected entries.
+     */
+    public void setSelectedPendingEmissionData(List<PendingEmissionData> selectedPendingEmissionData) {
+        this.selectedPendingEmissionData = selectedPendingEmissionData;
+    }
+
+    /**
+     * Approves all selected entries of the approval queue in one transaction.
+     */
+    public void approveSelectedEmissionData() {
+        emissionDataService.approveAll(getSelectedPendingEmissionDataIds());
+        this.selectedPendingEmissionData = new ArrayList<>();
+        this.getApprovedEmissionDataModel().resetCursors();
+        this.getApprovalQueueModel().resetCursors();
+    }
+
+    /**
+     * Rejects (deletes) all selected entries of the approval queue in one transaction.
      */
-    private void saveEmissionData(EmissionData data) {
-        EntityManager entityManager = entityManagerService.getEntityManager();
-        EntityTransaction t = entityManager.getTransaction();
-
-        t.begin();
-        entityManager.merge(data);
-        t.commit();
-        entityManager.close();
+    public void rejectSelectedEmissionData() {
+        emissionDataService.rejectAll(getSelectedPendingEmissionDataIds());
+        this.selectedPendingEmissionData = new ArrayList<>();
+        this.getApprovalQueueModel().resetCursors();
     }
 
     /**
-     * Retrieves approved emission data for the selected country.
+     * Gets the IDs of the entries selected in the approval queue.
      *
-     * @return a list of approved EmissionData objects for the selected country.
+     * @return the IDs of the selected entries.
      */
-    public List<EmissionData> getApprovedEmissionDataBySelectedCountry() {
-        List<EmissionData> allEmissionData = getEmissionDataBySelectedCountry();
-        return allEmissionData.stream()
-                .filter(EmissionData::isApproved)
+    private List<Integer> getSelectedPendingEmissionDataIds() {
+        return selectedPendingEmissionData.stream()
+                .map(PendingEmissionData::getId)
                 .collect(Collectors.toList());
     }
 
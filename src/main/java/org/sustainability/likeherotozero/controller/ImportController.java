@@ -0,0 +1,125 @@
+package org.sustainability.likeherotozero.controller;
+
+import org.sustainability.likeherotozero.model.ImportResult;
+import org.sustainability.likeherotozero.model.Role;
+import org.sustainability.likeherotozero.service.EmissionDataImportService;
+import org.sustainability.likeherotozero.service.SessionService;
+import jakarta.faces.application.FacesMessage;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.view.ViewScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.primefaces.model.DefaultStreamedContent;
+import org.primefaces.model.StreamedContent;
+import org.primefaces.model.file.UploadedFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Controller for importing emission data from CSV files.
+ * Scientists upload a file with the columns country code, date and value; the imported rows
+ * are unapproved until a publisher approves them. Rejected rows can be downloaded as a report.
+ */
+@Named
+@ViewScoped
+public class ImportController implements Serializable {
+
+    @Inject
+    private SessionService sessionService;
+
+    @Inject
+    private EmissionDataImportService emissionDataImportService;
+
+    private transient UploadedFile file;
+    private ImportResult importResult = null;
+
+    /**
+     * Default constructor.
+     */
+    public ImportController() {
+
+    }
+
+    /**
+     * Checks if the current user is allowed to import emission data.
+     *
+     * @return true if the user has the role 'ROLE_SCIENTIST', false otherwise.
+     */
+    public boolean isUserAllowedToImport() {
+        return sessionService.hasRole(Role.SCIENTIST);
+    }
+
+    /**
+     * Gets the uploaded file.
+     *
+     * @return the uploaded file.
+     */
+    public UploadedFile getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the uploaded file.
+     *
+     * @param file the uploaded file.
+     */
+    public void setFile(UploadedFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Imports the uploaded file and keeps the result for display.
+     */
+    public void importFile() {
+        FacesContext context = FacesContext.getCurrentInstance();
+
+        if (!isUserAllowedToImport()) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "Not allowed to import emission data!", null));
+            return;
+        }
+
+        if (null == file || 0 == file.getSize()) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_WARN, "Please select a CSV file!", null));
+            return;
+        }
+
+        try (InputStream input = file.getInputStream()) {
+            this.importResult = emissionDataImportService.importCsv(input, sessionService.getUser());
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_INFO, "Import finished",
+                    importResult.getImportedCount() + " rows imported, " + importResult.getRejectedCount() + " rows rejected."));
+        } catch (IOException e) {
+            context.addMessage(null, new FacesMessage(FacesMessage.SEVERITY_ERROR, "The file could not be read!", e.getMessage()));
+        } finally {
+            this.file = null;
+        }
+    }
+
+    /**
+     * Gets the result of the last import.
+     *
+     * @return the {@link ImportResult}, or null if nothing was imported yet.
+     */
+    public ImportResult getImportResult() {
+        return importResult;
+    }
+
+    /**
+     * Gets the report of the rejected rows of the last import as a CSV download.
+     *
+     * @return the report as {@link StreamedContent}.
+     */
+    public StreamedContent getRejectedRowReport() {
+        byte[] report = null == importResult ? new byte[0] : importResult.toRejectedRowReport().getBytes(StandardCharsets.UTF_8);
+
+        return DefaultStreamedContent.builder()
+                .name("rejected-rows.csv")
+                .contentType("text/csv")
+                .contentLength(report.length)
+                .stream(() -> new ByteArrayInputStream(report))
+                .build();
+    }
+}
@@ -1,9 +1,9 @@
 package org.sustainability.likeherotozero.controller;
 
 import org.sustainability.likeherotozero.dao.CountryDAO;
-import org.sustainability.likeherotozero.dao.EmissionDataDAO;
+import org.sustainability.likeherotozero.dao.LatestEmissionDataDAO;
 import org.sustainability.likeherotozero.entity.Country;
-import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.entity.LatestEmissionData;
 import org.sustainability.likeherotozero.service.SessionService;
 import jakarta.faces.view.ViewScoped;
 import jakarta.inject.Inject;
@@ -21,7 +21,7 @@ import java.io.Serializable;
 public class IndexController implements Serializable {
 
     @Inject
-    private EmissionDataDAO emissionDataDAO;
+    private LatestEmissionDataDAO latestEmissionDataDAO;
 
     @Inject
     private CountryDAO countryDAO;
@@ -30,22 +30,19 @@ public class IndexController implements Serializable {
     private SessionService sessionService;
 
     /**
-     * Retrieves the most recent emission data for the country associated with the user's locale.
-     * The country is determined based on the ISO3 country code of the user's locale.
+     * Retrieves the most recent approved emission data for the country associated with the user's locale.
+     * The country is resolved from the locale through the in-memory country index, and the value is read
+     * from the latest emission data projection by its primary key.
      *
-     * @return the newest EmissionData for the user's country, or null if the country is not found.
+     * @return the newest approved emission data for the user's country, or null if the country is not found.
      */
-    public EmissionData getNewestEmissionData() {
-        String countryCode = sessionService.getLocale().getISO3Country();
-        Country country = countryDAO.findOneByCode(countryCode);
-
-        System.out.println("Country : " + country.getName());
-        System.out.println("Country code :" + countryCode);
+    public LatestEmissionData getNewestEmissionData() {
+        Country country = countryDAO.findOneByLocale(sessionService.getLocale());
 
         if (null == country) {
             return null;
         }
 
-        return emissionDataDAO.findNewestByCountry(country);
+        return latestEmissionDataDAO.findOneByCountryId(country.getId());
     }
-}
\ No newline at end of file
+}
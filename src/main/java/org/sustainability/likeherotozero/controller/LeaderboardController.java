@@ -0,0 +1,103 @@
+package org.sustainability.likeherotozero.controller;
+
+import org.sustainability.likeherotozero.model.LeaderboardEntry;
+import org.sustainability.likeherotozero.service.LeaderboardService;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controller responsible for the leaderboard page.
+ * The page is public, so the controller is request-scoped and only reads the rankings kept by
+ * {@link LeaderboardService}; no view state is stored for anonymous visitors.
+ */
+@Named
+@RequestScoped
+public class LeaderboardController {
+
+    /**
+     * The number of entries shown per ranking.
+     */
+    private static final int PAGE_LIMIT = 10;
+
+    @Inject
+    private LeaderboardService leaderboardService;
+
+    private Integer window;
+    private List<LeaderboardEntry> topEmitters;
+    private List<LeaderboardEntry> biggestReducers;
+
+    /**
+     * Gets the selected window, which defaults to the shortest configured window.
+     *
+     * @return the window length in years.
+     */
+    public int getWindow() {
+        return null == window ? leaderboardService.getWindows().get(0) : window;
+    }
+
+    /**
+     * Sets the selected window. Unknown windows are ignored.
+     *
+     * @param window the window length in years.
+     */
+    public void setWindow(int window) {
+        this.window = leaderboardService.hasWindow(window) ? window : null;
+    }
+
+    /**
+     * Gets the configured windows.
+     *
+     * @return a {@link List} of window lengths in years.
+     */
+    public List<Integer> getWindows() {
+        return leaderboardService.getWindows();
+    }
+
+    /**
+     * Gets the latest year with approved emission data, which is the last year of every window.
+     *
+     * @return the latest year, or 0 if there is no approved emission data.
+     */
+    public int getLatestYear() {
+        return leaderboardService.getLatestYear();
+    }
+
+    /**
+     * Gets the newest reported date, which is the last day of every window.
+     *
+     * @return the newest reported date, or null if there is no approved emission data.
+     */
+    public LocalDate getLatestDate() {
+        return leaderboardService.getLatestDate();
+    }
+
+    /**
+     * Gets the countries with the highest total emissions within the selected window.
+     *
+     * @return a {@link List} of {@link LeaderboardEntry} instances.
+     */
+    public List<LeaderboardEntry> getTopEmitters() {
+        if (null == topEmitters) {
+            topEmitters = leaderboardService.getTopEmitters(getWindow(), PAGE_LIMIT);
+        }
+
+        return topEmitters;
+    }
+
+    /**
+     * Gets the countries whose emissions decreased most within the selected window.
+     *
+     * @return a {@link List} of {@link LeaderboardEntry} instances.
+     */
+    public List<LeaderboardEntry> getBiggestReducers() {
+        if (null == biggestReducers) {
+            biggestReducers = leaderboardService.getBiggestReducers(getWindow(), PAGE_LIMIT);
+        }
+
+        return biggestReducers;
+    }
+}
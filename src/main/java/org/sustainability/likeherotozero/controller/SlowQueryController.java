@@ -0,0 +1,51 @@
+package org.sustainability.likeherotozero.controller;
+
+import org.sustainability.likeherotozero.dao.SlowQueryLog;
+import org.sustainability.likeherotozero.model.Role;
+import org.sustainability.likeherotozero.model.SlowQuery;
+import org.sustainability.likeherotozero.service.SessionService;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Controller responsible for the slow-query page, which shows the statements recorded in the {@link SlowQueryLog}.
+ * The statements contain bind values of other users, so only publishers can see them.
+ */
+@Named
+@RequestScoped
+public class SlowQueryController {
+
+    @Inject
+    private SessionService sessionService;
+
+    /**
+     * Checks if the current user is allowed to see the slow queries.
+     *
+     * @return true if the user has the role 'ROLE_PUBLISHER', false otherwise.
+     */
+    public boolean isUserAllowedToView() {
+        return sessionService.hasRole(Role.PUBLISHER);
+    }
+
+    /**
+     * Gets the recorded slow queries.
+     *
+     * @return a {@link List} of the queries, the most recent first; empty if the user is not allowed to see them.
+     */
+    public List<SlowQuery> getSlowQueries() {
+        return isUserAllowedToView() ? SlowQueryLog.getEntries() : Collections.emptyList();
+    }
+
+    /**
+     * Removes all recorded slow queries.
+     */
+    public void clear() {
+        if (isUserAllowedToView()) {
+            SlowQueryLog.clear();
+        }
+    }
+}
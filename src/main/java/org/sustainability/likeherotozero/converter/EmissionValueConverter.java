@@ -0,0 +1,64 @@
+package org.sustainability.likeherotozero.converter;
+
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
+import jakarta.faces.application.FacesMessage;
+import jakarta.faces.component.UIComponent;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.convert.Converter;
+import jakarta.faces.convert.ConverterException;
+import jakarta.faces.convert.FacesConverter;
+
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+
+/**
+ * JSF converter for emission values in kt.
+ * Values are rendered with three decimal places and the separators of the view's locale through
+ * {@link EmissionValueFormat}, which does not create a formatter per value.
+ */
+@FacesConverter("emissionValueConverter")
+public class EmissionValueConverter implements Converter<Double> {
+
+    /**
+     * Parses a submitted emission value in the format of the view's locale.
+     *
+     * @param context   the FacesContext.
+     * @param component the UIComponent the value belongs to.
+     * @param value     the submitted value.
+     * @return the emission value rounded to three decimal places, or null if the value is empty.
+     * @throws ConverterException if the value is not a number.
+     */
+    @Override
+    public Double getAsObject(FacesContext context, UIComponent component, String value) {
+        if (null == value || value.isBlank()) {
+            return null;
+        }
+
+        String trimmed = value.trim();
+        ParsePosition position = new ParsePosition(0);
+        Number number = NumberFormat.getNumberInstance(context.getViewRoot().getLocale()).parse(trimmed, position);
+
+        if (null == number || position.getIndex() != trimmed.length()) {
+            throw new ConverterException(new FacesMessage("Invalid emission value!"));
+        }
+
+        return EmissionValueFormat.roundToMilli(number.doubleValue());
+    }
+
+    /**
+     * Formats an emission value in the format of the view's locale.
+     *
+     * @param context   the FacesContext.
+     * @param component the UIComponent the value belongs to.
+     * @param value     the emission value.
+     * @return the formatted value, or an empty string if the value is null.
+     */
+    @Override
+    public String getAsString(FacesContext context, UIComponent component, Double value) {
+        if (null == value) {
+            return "";
+        }
+
+        return EmissionValueFormat.format(value, context.getViewRoot().getLocale());
+    }
+}
@@ -1,25 +1,37 @@
 package org.sustainability.likeherotozero.dao;
 
 import org.sustainability.likeherotozero.entity.Country;
-import org.sustainability.likeherotozero.service.EntityManagerService;
+import org.sustainability.likeherotozero.interceptor.Timed;
+import org.sustainability.likeherotozero.service.CountryIndex;
+import org.sustainability.likeherotozero.service.CountryIndexService;
+import org.sustainability.likeherotozero.service.ReferenceDataCacheService;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Locale;
+import java.util.MissingResourceException;
 
 /**
  * Data Access Object (DAO) responsible for handling operations related to the {@link Country} entity.
  * This class provides methods to retrieve countries from the database by various criteria such as ID or code.
+ * Lookups consult the in-memory {@link CountryIndex} first; countries and the results of these queries
+ * are served from the second-level cache.
  */
 @Named
+@Timed
 public class CountryDAO implements Serializable {
 
     @Inject
-    private EntityManagerService entityManagerService;
+    private EntityManager entityManager;
+
+    @Inject
+    private CountryIndexService countryIndexService;
 
     /**
      * Retrieves a list of all countries from the database.
@@ -27,8 +39,9 @@ public class CountryDAO implements Serializable {
      * @return a {@link List} of {@link Country} entities.
      */
     public List<Country> findAll() {
-        EntityManager entityManager = entityManagerService.getEntityManager();
         Query query = entityManager.createQuery("SELECT c FROM Country c");
+        query.setHint(HibernateHints.HINT_CACHEABLE, true);
+        query.setHint(HibernateHints.HINT_CACHE_REGION, ReferenceDataCacheService.COUNTRY_QUERY_REGION);
         return query.getResultList();
     }
 
@@ -39,15 +52,22 @@ public class CountryDAO implements Serializable {
      * @return the {@link Country} entity if found, or null if no country with the specified ID exists.
      */
     public Country findOneById(int countryId) {
-        EntityManager entityManager = entityManagerService.getEntityManager();
-        Query query = entityManager.createQuery("SELECT c FROM Country c WHERE id = :id");
-        query.setParameter("id", countryId);
+        return entityManager.find(Country.class, countryId);
+    }
 
-        try {
-            return (Country) query.getSingleResult();
-        } catch (NoResultException e) {
-            return null;
+    /**
+     * Checks if a country with the given ID exists.
+     * Known countries are answered from the {@link CountryIndex} without touching the database.
+     *
+     * @param countryId the ID of the country.
+     * @return true if the country exists, false otherwise.
+     */
+    public boolean existsById(int countryId) {
+        if (countryIndexService.getIndex().containsId(countryId)) {
+            return true;
         }
+
+        return null != findOneById(countryId);
     }
 
     /**
@@ -57,9 +77,16 @@ public class CountryDAO implements Serializable {
      * @return the {@link Country} entity if found, or null if no country with the specified code exists.
      */
     public Country findOneByCode(String countryCode) {
-        EntityManager entityManager = entityManagerService.getEntityManager();
+        CountryIndex.Entry entry = countryIndexService.getIndex().findByCode(countryCode);
+
+        if (null != entry) {
+            return findOneById(entry.getId());
+        }
+
         Query query = entityManager.createQuery("SELECT c FROM Country c WHERE code = :code");
         query.setParameter("code", countryCode);
+        query.setHint(HibernateHints.HINT_CACHEABLE, true);
+        query.setHint(HibernateHints.HINT_CACHE_REGION, ReferenceDataCacheService.COUNTRY_QUERY_REGION);
 
         try {
             return (Country) query.getSingleResult();
@@ -67,4 +94,30 @@ public class CountryDAO implements Serializable {
             return null;
         }
     }
+
+    /**
+     * Retrieves the country of a {@link Locale}.
+     * Countries missing from the {@link CountryIndex}, such as ones added after it was built, are looked up by their
+     * ISO 3166-1 alpha-3 code.
+     *
+     * @param locale the locale whose country is to be retrieved.
+     * @return the {@link Country} entity if found, or null if the locale has no known country.
+     */
+    public Country findOneByLocale(Locale locale) {
+        CountryIndex.Entry entry = countryIndexService.getIndex().findByLocaleCountry(locale.getCountry());
+
+        if (null != entry) {
+            return findOneById(entry.getId());
+        }
+
+        if (locale.getCountry().isEmpty()) {
+            return null;
+        }
+
+        try {
+            return findOneByCode(locale.getISO3Country());
+        } catch (MissingResourceException e) {
+            return null;
+        }
+    }
 }
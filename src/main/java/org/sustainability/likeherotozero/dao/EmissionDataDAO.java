@@ -2,17 +2,27 @@ package org.sustainability.likeherotozero.dao;
 
 import org.sustainability.likeherotozero.entity.Country;
 import org.sustainability.likeherotozero.entity.EmissionData;
-import org.sustainability.likeherotozero.service.EntityManagerService;
+import org.sustainability.likeherotozero.interceptor.Timed;
+import org.sustainability.likeherotozero.model.ApprovalQueueFilter;
+import org.sustainability.likeherotozero.model.ExportFilter;
+import org.sustainability.likeherotozero.model.PendingEmissionData;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Data Access Object (DAO) responsible for handling operations related to the {@link EmissionData} entity.
@@ -20,10 +30,16 @@ import java.util.List;
  * country, date, and approval status.
  */
 @Named
+@Timed
 public class EmissionDataDAO implements Serializable {
 
+    /**
+     * The number of rows per bulk statement if hibernate.jdbc.batch_size is not configured.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
     @Inject
-    private EntityManagerService entityManagerService;
+    private EntityManager entityManager;
 
     /**
      * Retrieves an EmissionData entry by its unique ID.
@@ -32,7 +48,6 @@ public class EmissionDataDAO implements Serializable {
      * @return the {@link EmissionData} entity if found, or null if no entry with the specified ID exists.
      */
     public EmissionData findOneById(int id) {
-        EntityManager entityManager = entityManagerService.getEntityManager();
         Query query = entityManager.createQuery("SELECT e FROM EmissionData e WHERE id = :id");
         query.setParameter("id", id);
 
@@ -51,7 +66,6 @@ public class EmissionDataDAO implements Serializable {
      * @return the {@link EmissionData} entity if found, or null if no entry exists for the specified criteria.
      */
     public EmissionData findOneByCountryAndDate(Country country, Date reportedForDate) {
-        EntityManager entityManager = entityManagerService.getEntityManager();
         Query query = entityManager.createQuery("SELECT e FROM EmissionData e WHERE country = :country AND reportedFor = :reportedFor");
         query.setParameter("country", country);
         query.setParameter("reportedFor", reportedForDate);
@@ -64,17 +78,29 @@ public class EmissionDataDAO implements Serializable {
     }
 
     /**
-     * Retrieves the most recent EmissionData entry for a specific country.
+     * Retrieves the most recent approved EmissionData entry for a specific country.
      * The results are ordered by the reported date in descending order, and the first result is returned.
      *
-     * @param country the {@link Country} entity for which the most recent data is requested.
-     * @return the newest {@link EmissionData} entity if found, or null if no entries exist for the specified country.
+     * @param countryId the ID of the country for which the most recent data is requested.
+     * @return the newest approved {@link EmissionData} entity if found, or null if no approved entries exist for the specified country.
      */
-    public EmissionData findNewestByCountry(Country country) {
-        EntityManager entityManager = entityManagerService.getEntityManager();
-        Query query = entityManager.createQuery("SELECT e FROM EmissionData e WHERE country = :country ORDER BY reportedFor DESC");
-        query.setParameter("country", country);
+    public EmissionData findNewestApprovedByCountryId(int countryId) {
+        return findNewestApprovedByCountryId(countryId, LockModeType.NONE);
+    }
+
+    /**
+     * Retrieves the most recent approved EmissionData entry for a specific country with the given lock mode,
+     * e.g. with a locking read that sees the values committed by other transactions since this one started.
+     *
+     * @param countryId the ID of the country for which the most recent data is requested.
+     * @param lockMode  the lock mode of the query.
+     * @return the newest approved {@link EmissionData} entity if found, or null if no approved entries exist for the specified country.
+     */
+    public EmissionData findNewestApprovedByCountryId(int countryId, LockModeType lockMode) {
+        Query query = entityManager.createQuery("SELECT e FROM EmissionData e WHERE e.country.id = :countryId AND e.approved = true ORDER BY e.reportedFor DESC");
+        query.setParameter("countryId", countryId);
         query.setMaxResults(1);
+        query.setLockMode(lockMode);
 
         try {
             return (EmissionData) query.getSingleResult();
@@ -84,19 +110,375 @@ public class EmissionDataDAO implements Serializable {
     }
 
     /**
-     * Retrieves a list of all unapproved EmissionData entries.
-     * The results are ordered by the creation date in descending order.
+     * Retrieves one page of approved EmissionData entries of a country, filtered and sorted in the database.
+     * If a cursor is given, the page starts directly after it (keyset pagination); otherwise the offset is used.
+     * Rows are always ordered by the sort field and then by the reported date, which is unique per country.
      *
-     * @return a {@link List} of unapproved {@link EmissionData} entities.
+     * @param countryId the ID of the country.
+     * @param sortField the field to sort by, either "reportedFor" or "value"; null sorts by the reported date.
+     * @param ascending true to sort in ascending order, false for descending order.
+     * @param after     the last entry of the previous page, or null to use the offset.
+     * @param offset    the number of entries to skip if no cursor is given.
+     * @param limit     the maximum number of entries to return.
+     * @return a {@link List} of approved {@link EmissionData} entities.
      */
-    public List<EmissionData> findAllUnapproved() {
-        EntityManager entityManager = entityManagerService.getEntityManager();
-        Query query = entityManager.createQuery("SELECT e FROM EmissionData e WHERE e.approved = false ORDER BY e.createdAt DESC");
+    public List<EmissionData> findApprovedByCountryId(int countryId, String sortField, boolean ascending, EmissionData after, int offset, int limit) {
+        boolean sortByValue = "value".equals(sortField);
+        String direction = ascending ? "ASC" : "DESC";
+        String comparison = ascending ? ">" : "<";
 
-        try {
-            return query.getResultList();
-        } catch (NoResultException e) {
-            return new ArrayList<>();
+        StringBuilder jpql = new StringBuilder("SELECT e FROM EmissionData e WHERE e.country.id = :countryId AND e.approved = true");
+
+        if (null != after) {
+            if (sortByValue) {
+                jpql.append(" AND (e.value ").append(comparison).append(" :afterValue")
+                        .append(" OR (e.value = :afterValue AND e.reportedFor ").append(comparison).append(" :afterReportedFor))");
+            } else {
+                jpql.append(" AND e.reportedFor ").append(comparison).append(" :afterReportedFor");
+            }
+        }
+
+        jpql.append(" ORDER BY ");
+        if (sortByValue) {
+            jpql.append("e.value ").append(direction).append(", ");
+        }
+        jpql.append("e.reportedFor ").append(direction);
+
+        TypedQuery<EmissionData> query = entityManager.createQuery(jpql.toString(), EmissionData.class);
+        query.setParameter("countryId", countryId);
+
+        if (null != after) {
+            query.setParameter("afterReportedFor", after.getReportedFor());
+            if (sortByValue) {
+                query.setParameter("afterValue", after.getValue());
+            }
+        } else {
+            query.setFirstResult(offset);
+        }
+
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    /**
+     * Counts the approved EmissionData entries of a country.
+     *
+     * @param countryId the ID of the country.
+     * @return the number of approved entries.
+     */
+    public long countApprovedByCountryId(int countryId) {
+        Query query = entityManager.createQuery("SELECT COUNT(e) FROM EmissionData e WHERE e.country.id = :countryId AND e.approved = true");
+        query.setParameter("countryId", countryId);
+
+        return (Long) query.getSingleResult();
+    }
+
+    /**
+     * Retrieves the IDs of the countries of the given EmissionData entries.
+     *
+     * @param ids the IDs of the EmissionData entries.
+     * @return the set of country IDs.
+     */
+    public Set<Integer> findCountryIdsByIds(Collection<Integer> ids) {
+        Set<Integer> countryIds = new HashSet<>();
+
+        for (List<Integer> chunk : chunk(ids)) {
+            countryIds.addAll(entityManager.createQuery("SELECT DISTINCT e.country.id FROM EmissionData e WHERE e.id IN :ids", Integer.class)
+                    .setParameter("ids", chunk)
+                    .getResultList());
+        }
+
+        return countryIds;
+    }
+
+    /**
+     * Retrieves the country, reported date and value of the given EmissionData entries with the given approval status.
+     *
+     * @param ids      the IDs of the EmissionData entries.
+     * @param approved the approval status of the entries to retrieve.
+     * @return a {@link List} of arrays with the country ID, reported date and value.
+     */
+    public List<Object[]> findValuesByIds(Collection<Integer> ids, boolean approved) {
+        List<Object[]> values = new ArrayList<>();
+
+        for (List<Integer> chunk : chunk(ids)) {
+            values.addAll(entityManager.createQuery("SELECT e.country.id, e.reportedFor, e.value FROM EmissionData e " +
+                            "WHERE e.id IN :ids AND e.approved = :approved", Object[].class)
+                    .setParameter("ids", chunk)
+                    .setParameter("approved", approved)
+                    .getResultList());
+        }
+
+        return values;
+    }
+
+    /**
+     * Approves the given unapproved EmissionData entries with set-based UPDATE statements,
+     * each covering up to one batch of IDs. Must be called inside an active transaction.
+     *
+     * @param ids       the IDs of the EmissionData entries to approve.
+     * @param updatedAt the timestamp to set as the last update.
+     * @return the number of approved entries.
+     */
+    public int approveAll(Collection<Integer> ids, Date updatedAt) {
+        int updated = 0;
+
+        for (List<Integer> chunk : chunk(ids)) {
+            updated += entityManager.createQuery("UPDATE EmissionData e SET e.approved = true, e.updatedAt = :updatedAt WHERE e.id IN :ids AND e.approved = false")
+                    .setParameter("updatedAt", updatedAt)
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+
+        return updated;
+    }
+
+    /**
+     * Deletes the given EmissionData entries with set-based DELETE statements,
+     * each covering up to one batch of IDs. Must be called inside an active transaction.
+     *
+     * @param ids the IDs of the EmissionData entries to delete.
+     * @return the number of deleted entries.
+     */
+    public int deleteAll(Collection<Integer> ids) {
+        int deleted = 0;
+
+        for (List<Integer> chunk : chunk(ids)) {
+            deleted += entityManager.createQuery("DELETE FROM EmissionData e WHERE e.id IN :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+
+        return deleted;
+    }
+
+    /**
+     * Splits IDs into chunks of the configured JDBC batch size (hibernate.jdbc.batch_size).
+     *
+     * @param ids the IDs to split.
+     * @return the chunks of IDs.
+     */
+    private List<List<Integer>> chunk(Collection<Integer> ids) {
+        Object configured = entityManager.getEntityManagerFactory().getProperties().get("hibernate.jdbc.batch_size");
+        int batchSize = null == configured ? DEFAULT_BATCH_SIZE : Integer.parseInt(configured.toString());
+
+        List<Integer> all = new ArrayList<>(ids);
+        List<List<Integer>> chunks = new ArrayList<>();
+
+        for (int i = 0; i < all.size(); i += batchSize) {
+            chunks.add(all.subList(i, Math.min(i + batchSize, all.size())));
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Retrieves one page of the approval queue, i.e. unapproved EmissionData entries ordered from newest to oldest.
+     * The entries are projected into {@link PendingEmissionData} together with the country name and the submitter,
+     * so no entities are loaded. If a cursor is given, the page starts directly after it (keyset pagination);
+     * otherwise the offset is used.
+     *
+     * @param filter the filter settings of the queue.
+     * @param after  the last entry of the previous page, or null to use the offset.
+     * @param offset the number of entries to skip if no cursor is given.
+     * @param limit  the maximum number of entries to return.
+     * @return a {@link List} of {@link PendingEmissionData} entries.
+     */
+    public List<PendingEmissionData> findUnapproved(ApprovalQueueFilter filter, PendingEmissionData after, int offset, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT new org.sustainability.likeherotozero.model.PendingEmissionData(" +
+                "e.id, c.id, c.name, e.reportedFor, e.value, e.createdAt, u.username) " +
+                "FROM EmissionData e JOIN e.country c LEFT JOIN e.createdBy u WHERE e.approved = false");
+        appendApprovalQueueFilter(jpql, filter);
+
+        if (null != after) {
+            jpql.append(" AND (e.createdAt < :afterCreatedAt OR (e.createdAt = :afterCreatedAt AND e.id < :afterId))");
+        }
+
+        jpql.append(" ORDER BY e.createdAt DESC, e.id DESC");
+
+        TypedQuery<PendingEmissionData> query = entityManager.createQuery(jpql.toString(), PendingEmissionData.class);
+        setApprovalQueueFilterParameters(query, filter);
+
+        if (null != after) {
+            query.setParameter("afterCreatedAt", after.getCreatedAt());
+            query.setParameter("afterId", after.getId());
+        } else {
+            query.setFirstResult(offset);
+        }
+
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    /**
+     * Counts the entries of the approval queue.
+     *
+     * @param filter the filter settings of the queue.
+     * @return the number of unapproved entries matching the filter.
+     */
+    public long countUnapproved(ApprovalQueueFilter filter) {
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(e) FROM EmissionData e LEFT JOIN e.createdBy u WHERE e.approved = false");
+        appendApprovalQueueFilter(jpql, filter);
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        setApprovalQueueFilterParameters(query, filter);
+
+        return query.getSingleResult();
+    }
+
+    /**
+     * Appends the conditions of the approval queue filter to a query.
+     *
+     * @param jpql   the query to extend.
+     * @param filter the filter settings.
+     */
+    private void appendApprovalQueueFilter(StringBuilder jpql, ApprovalQueueFilter filter) {
+        if (0 != filter.getCountryId()) {
+            jpql.append(" AND e.country.id = :countryId");
+        }
+        if (filter.hasSubmitter()) {
+            jpql.append(" AND u.username = :submitter");
+        }
+        if (null != filter.getReportedFrom()) {
+            jpql.append(" AND e.reportedFor >= :reportedFrom");
+        }
+        if (null != filter.getReportedTo()) {
+            jpql.append(" AND e.reportedFor <= :reportedTo");
+        }
+    }
+
+    /**
+     * Sets the parameters of the approval queue filter on a query.
+     *
+     * @param query  the query.
+     * @param filter the filter settings.
+     */
+    private void setApprovalQueueFilterParameters(Query query, ApprovalQueueFilter filter) {
+        if (0 != filter.getCountryId()) {
+            query.setParameter("countryId", filter.getCountryId());
+        }
+        if (filter.hasSubmitter()) {
+            query.setParameter("submitter", filter.getSubmitter().trim());
+        }
+        if (null != filter.getReportedFrom()) {
+            query.setParameter("reportedFrom", filter.getReportedFrom());
+        }
+        if (null != filter.getReportedTo()) {
+            query.setParameter("reportedTo", filter.getReportedTo());
+        }
+    }
+
+    /**
+     * Retrieves the version of the approved EmissionData entries matching an export filter,
+     * i.e. the newest update timestamp and the number of entries. Both change whenever an entry is added,
+     * changed or removed, so together they identify the content of an export.
+     *
+     * @param filter the filter settings of the export.
+     * @return an array with the newest update timestamp (null if there are no entries) and the number of entries.
+     */
+    public Object[] findExportVersion(ExportFilter filter) {
+        StringBuilder jpql = new StringBuilder("SELECT MAX(e.updatedAt), COUNT(e) FROM EmissionData e WHERE e.approved = true");
+        appendExportFilter(jpql, filter);
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        setExportFilterParameters(query, filter);
+
+        return query.getSingleResult();
+    }
+
+    /**
+     * Streams the approved EmissionData entries matching an export filter, ordered by country code and reported date.
+     * Only the exported columns (country code, country name, reported date and value) are selected, so no entities
+     * are loaded into the persistence context. The rows are read through a forward-only cursor in steps of the
+     * fetch size. The returned stream holds the cursor open and must be closed.
+     *
+     * @param filter    the filter settings of the export.
+     * @param fetchSize the number of rows fetched from the database at once.
+     * @return a {@link Stream} of rows with the country code, country name, reported date and value.
+     */
+    public Stream<Object[]> streamApproved(ExportFilter filter, int fetchSize) {
+        StringBuilder jpql = new StringBuilder("SELECT c.code, c.name, e.reportedFor, e.value FROM EmissionData e JOIN e.country c WHERE e.approved = true");
+        appendExportFilter(jpql, filter);
+        jpql.append(" ORDER BY c.code, e.reportedFor");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class);
+        setExportFilterParameters(query, filter);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        return query.getResultStream();
+    }
+
+    /**
+     * Streams the country ID, reported date, value and update time of approved EmissionData entries, ordered by country and date.
+     * No entities are loaded and the rows are read through a forward-only cursor in steps of the fetch size.
+     * The returned stream holds the cursor open and must be closed.
+     * A single country is compared for equality and ordered by date only, so the query is planned as a range of the
+     * index on country, approval state and reported date rather than of the foreign key index on the country.
+     *
+     * @param countryIds the IDs of the countries, or null for all countries.
+     * @param fetchSize  the number of rows fetched from the database at once.
+     * @return a {@link Stream} of rows with the country ID, reported date, value and update time.
+     */
+    public Stream<Object[]> streamApprovedValues(Collection<Integer> countryIds, int fetchSize) {
+        String countryCondition = "";
+        String order = "e.country.id, e.reportedFor";
+
+        if (null != countryIds && 1 == countryIds.size()) {
+            countryCondition = "e.country.id = :countryId AND ";
+            order = "e.reportedFor";
+        } else if (null != countryIds) {
+            countryCondition = "e.country.id IN :countryIds AND ";
+        }
+
+        TypedQuery<Object[]> query = entityManager.createQuery("SELECT e.country.id, e.reportedFor, e.value, e.updatedAt FROM EmissionData e " +
+                "WHERE " + countryCondition + "e.approved = true ORDER BY " + order, Object[].class);
+
+        if (null != countryIds && 1 == countryIds.size()) {
+            query.setParameter("countryId", countryIds.iterator().next());
+        } else if (null != countryIds) {
+            query.setParameter("countryIds", countryIds);
+        }
+
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        return query.getResultStream();
+    }
+
+    /**
+     * Appends the conditions of an export filter to a query.
+     *
+     * @param jpql   the query to extend.
+     * @param filter the filter settings.
+     */
+    private void appendExportFilter(StringBuilder jpql, ExportFilter filter) {
+        if (!filter.getCountryIds().isEmpty()) {
+            jpql.append(" AND e.country.id IN :countryIds");
+        }
+        if (null != filter.getReportedFrom()) {
+            jpql.append(" AND e.reportedFor >= :reportedFrom");
+        }
+        if (null != filter.getReportedTo()) {
+            jpql.append(" AND e.reportedFor <= :reportedTo");
+        }
+    }
+
+    /**
+     * Sets the parameters of an export filter on a query.
+     *
+     * @param query  the query.
+     * @param filter the filter settings.
+     */
+    private void setExportFilterParameters(Query query, ExportFilter filter) {
+        if (!filter.getCountryIds().isEmpty()) {
+            query.setParameter("countryIds", filter.getCountryIds());
+        }
+        if (null != filter.getReportedFrom()) {
+            query.setParameter("reportedFrom", filter.getReportedFrom());
+        }
+        if (null != filter.getReportedTo()) {
+            query.setParameter("reportedTo", filter.getReportedTo());
         }
     }
 }
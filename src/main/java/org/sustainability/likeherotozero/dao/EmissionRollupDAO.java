@@ -0,0 +1,228 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.entity.EmissionRollup;
+import org.sustainability.likeherotozero.interceptor.Timed;
+import org.sustainability.likeherotozero.model.RollupGranularity;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.hibernate.query.NativeQuery;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) responsible for handling operations related to the {@link EmissionRollup} buckets.
+ * This class provides methods to read the buckets of a country and to aggregate the approved {@link EmissionData}
+ * they are computed from. Write methods must be called inside an active transaction.
+ * Buckets are changed either atomically in the database or while their row is locked, so concurrent approvals of
+ * values of the same bucket neither lose an update nor collide when inserting a new bucket. Values a bucket is
+ * recomputed from are read with a locking read, which sees the latest committed values instead of the snapshot of the
+ * transaction.
+ */
+@Named
+@Timed
+public class EmissionRollupDAO implements Serializable {
+
+    @Inject
+    private EntityManager entityManager;
+
+    /**
+     * Retrieves a bucket by its key and locks its row until the end of the transaction,
+     * so it can be read, changed and written back without a concurrent change in between.
+     * A missing bucket is inserted empty first, because a row that does not exist cannot be locked.
+     *
+     * @param countryId   the ID of the country.
+     * @param granularity the granularity.
+     * @param period      the encoded period.
+     * @param updatedAt   the timestamp of an inserted bucket.
+     * @return the locked {@link EmissionRollup}, which has no values if it was inserted.
+     */
+    public EmissionRollup lock(int countryId, RollupGranularity granularity, int period, Date updatedAt) {
+        upsert("countryId = countryId", countryId, granularity, period, 0, 0, 0, 0, updatedAt);
+        return entityManager.find(EmissionRollup.class, new EmissionRollup.Key(countryId, granularity, period),
+                LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * Adds values to a bucket with one atomic statement, inserting the bucket if it does not exist yet.
+     *
+     * @param countryId   the ID of the country.
+     * @param granularity the granularity.
+     * @param period      the encoded period.
+     * @param count       the number of values.
+     * @param sumMilli    the sum of the values in milli-kt.
+     * @param minMilli    the smallest of the values in milli-kt.
+     * @param maxMilli    the largest of the values in milli-kt.
+     * @param updatedAt   the timestamp of the update.
+     */
+    public void add(int countryId, RollupGranularity granularity, int period, long count, long sumMilli, long minMilli,
+                    long maxMilli, Date updatedAt) {
+        upsert("count = count + VALUES(count), sumMilli = sumMilli + VALUES(sumMilli), " +
+                        "minMilli = LEAST(minMilli, VALUES(minMilli)), maxMilli = GREATEST(maxMilli, VALUES(maxMilli)), " +
+                        "updatedAt = VALUES(updatedAt)",
+                countryId, granularity, period, count, sumMilli, minMilli, maxMilli, updatedAt);
+    }
+
+    /**
+     * Retrieves the buckets of a country within a range of periods, ordered by period.
+     *
+     * @param countryId   the ID of the country.
+     * @param granularity the granularity.
+     * @param fromPeriod  the first period (inclusive).
+     * @param toPeriod    the last period (inclusive).
+     * @return a {@link List} of {@link EmissionRollup} buckets.
+     */
+    public List<EmissionRollup> findByCountryId(int countryId, RollupGranularity granularity, int fromPeriod, int toPeriod) {
+        return entityManager.createQuery("SELECT r FROM EmissionRollup r WHERE r.countryId = :countryId " +
+                        "AND r.granularity = :granularity AND r.period BETWEEN :fromPeriod AND :toPeriod ORDER BY r.period", EmissionRollup.class)
+                .setParameter("countryId", countryId)
+                .setParameter("granularity", granularity)
+                .setParameter("fromPeriod", fromPeriod)
+                .setParameter("toPeriod", toPeriod)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves the version of the buckets of a country, i.e. the newest update timestamp and the number of buckets.
+     *
+     * @param countryId   the ID of the country.
+     * @param granularity the granularity.
+     * @return an array with the newest update timestamp (null if there are no buckets) and the number of buckets.
+     */
+    public Object[] findVersion(int countryId, RollupGranularity granularity) {
+        return entityManager.createQuery("SELECT MAX(r.updatedAt), COUNT(r) FROM EmissionRollup r " +
+                        "WHERE r.countryId = :countryId AND r.granularity = :granularity", Object[].class)
+                .setParameter("countryId", countryId)
+                .setParameter("granularity", granularity)
+                .getSingleResult();
+    }
+
+    /**
+     * Retrieves the version of the buckets of every country, i.e. the newest update timestamp and the number of
+     * values they hold. Buckets are changed in the transaction of every approval, change and removal of a value,
+     * so the version of a country changes whenever its approved values change.
+     *
+     * @param granularity the granularity.
+     * @return a {@link List} of arrays with the country ID, the newest update timestamp and the number of values.
+     */
+    public List<Object[]> findVersions(RollupGranularity granularity) {
+        return entityManager.createQuery("SELECT r.countryId, MAX(r.updatedAt), SUM(r.count) FROM EmissionRollup r " +
+                        "WHERE r.granularity = :granularity GROUP BY r.countryId", Object[].class)
+                .setParameter("granularity", granularity)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves the values of the approved EmissionData entries of a country within a date range with a locking read.
+     * Unlike a plain read, it sees values committed by other transactions since this one started, and keeps them
+     * from changing until the end of the transaction. The values are read instead of aggregated in the database,
+     * since not every database supports locking reads of aggregates.
+     *
+     * @param countryId the ID of the country.
+     * @param from      the first reported date (inclusive).
+     * @param to        the last reported date (inclusive).
+     * @return a {@link List} of the values in kt.
+     */
+    public List<Double> findApprovedValues(int countryId, Date from, Date to) {
+        return entityManager.createQuery("SELECT e.value FROM EmissionData e " +
+                        "WHERE e.country.id = :countryId AND e.approved = true AND e.reportedFor BETWEEN :from AND :to", Double.class)
+                .setParameter("countryId", countryId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setLockMode(LockModeType.PESSIMISTIC_READ)
+                .getResultList();
+    }
+
+    /**
+     * Aggregates all approved EmissionData entries per country and month.
+     *
+     * @return a {@link List} of arrays with the country ID, year, month, number of values, sum, minimum and maximum.
+     */
+    public List<Object[]> aggregateAllApprovedByMonth() {
+        return entityManager.createQuery("SELECT e.country.id, YEAR(e.reportedFor), MONTH(e.reportedFor), " +
+                        "COUNT(e), SUM(e.value), MIN(e.value), MAX(e.value) FROM EmissionData e WHERE e.approved = true " +
+                        "GROUP BY e.country.id, YEAR(e.reportedFor), MONTH(e.reportedFor)", Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * Saves a new bucket.
+     *
+     * @param rollup the bucket to save.
+     */
+    public void persist(EmissionRollup rollup) {
+        entityManager.persist(rollup);
+    }
+
+    /**
+     * Removes a bucket.
+     *
+     * @param rollup the bucket to remove.
+     */
+    public void remove(EmissionRollup rollup) {
+        entityManager.remove(rollup);
+    }
+
+    /**
+     * Removes all buckets.
+     */
+    public void deleteAll() {
+        entityManager.createQuery("DELETE FROM EmissionRollup").executeUpdate();
+    }
+
+    /**
+     * Checks if there are no buckets, e.g. because the table was just created.
+     *
+     * @return true if there are no buckets, false otherwise.
+     */
+    public boolean isEmpty() {
+        return entityManager.createQuery("SELECT r.countryId FROM EmissionRollup r")
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Inserts a bucket or, if it exists, updates it as given. Only the bucket table is declared as affected,
+     * so the statement does not invalidate the second-level cache of other entities.
+     *
+     * @param update      the assignments of the update, in MySQL's ON DUPLICATE KEY UPDATE syntax.
+     * @param countryId   the ID of the country.
+     * @param granularity the granularity.
+     * @param period      the encoded period.
+     * @param count       the number of values.
+     * @param sumMilli    the sum of the values in milli-kt.
+     * @param minMilli    the smallest of the values in milli-kt.
+     * @param maxMilli    the largest of the values in milli-kt.
+     * @param updatedAt   the timestamp of the update.
+     */
+    private void upsert(String update, int countryId, RollupGranularity granularity, int period, long count, long sumMilli,
+                        long minMilli, long maxMilli, Date updatedAt) {
+        entityManager.createNativeQuery("INSERT INTO EmissionRollup " +
+                        "(countryId, granularity, period, count, sumMilli, minMilli, maxMilli, updatedAt) " +
+                        "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8) ON DUPLICATE KEY UPDATE " + update)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(EmissionRollup.class)
+                .setParameter(1, countryId)
+                .setParameter(2, granularity.name())
+                .setParameter(3, period)
+                .setParameter(4, count)
+                .setParameter(5, sumMilli)
+                .setParameter(6, minMilli)
+                .setParameter(7, maxMilli)
+                .setParameter(8, new java.sql.Timestamp(updatedAt.getTime()))
+                .executeUpdate();
+    }
+
+    /**
+     * Writes pending changes to the database and detaches all entities, e.g. between batches of a rebuild.
+     */
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
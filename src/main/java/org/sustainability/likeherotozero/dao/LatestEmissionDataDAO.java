@@ -0,0 +1,139 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.entity.LatestEmissionData;
+import org.sustainability.likeherotozero.interceptor.Timed;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.hibernate.query.NativeQuery;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) responsible for handling operations related to the {@link LatestEmissionData} projection.
+ * This class provides methods to read the latest approved emission data of a country and to keep the projection
+ * in sync with the {@link EmissionData} table. Write methods must be called inside an active transaction.
+ * The entry of a country is locked before it is refreshed, so concurrent changes of the data of a country are applied
+ * one after the other and the entry always ends up at the newest approved value.
+ */
+@Named
+@Timed
+public class LatestEmissionDataDAO implements Serializable {
+
+    @Inject
+    private EntityManager entityManager;
+
+    @Inject
+    private EmissionDataDAO emissionDataDAO;
+
+    /**
+     * Retrieves the latest approved emission data of a country by a primary key lookup.
+     *
+     * @param countryId the ID of the country.
+     * @return the {@link LatestEmissionData} entity if found, or null if the country has no approved emission data.
+     */
+    public LatestEmissionData findOneByCountryId(int countryId) {
+        return entityManager.find(LatestEmissionData.class, countryId);
+    }
+
+    /**
+     * Retrieves the latest approved emission data of all countries.
+     *
+     * @return a {@link List} of {@link LatestEmissionData} entities, ordered by country ID.
+     */
+    public List<LatestEmissionData> findAll() {
+        return entityManager.createQuery("SELECT l FROM LatestEmissionData l ORDER BY l.countryId", LatestEmissionData.class)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves the version of the projection, i.e. the newest update timestamp, the number of entries and the sum of
+     * the referenced EmissionData IDs. The sum changes when an older entry becomes the latest one of a country,
+     * which the newest update timestamp alone would not reflect.
+     *
+     * @return an array with the newest update timestamp (null if empty), the number of entries and the sum of IDs.
+     */
+    public Object[] findVersion() {
+        return entityManager.createQuery("SELECT MAX(l.updatedAt), COUNT(l), SUM(l.emissionDataId) FROM LatestEmissionData l", Object[].class)
+                .getSingleResult();
+    }
+
+    /**
+     * Locks the entry of a country until the end of the transaction. A missing entry is inserted as a placeholder
+     * first, because a row that does not exist cannot be locked; {@link #refresh(int)} fills or removes it.
+     * Callers lock the entries of all affected countries in ascending order before they change any emission data,
+     * so concurrent transactions neither deadlock nor both insert the entry of a country.
+     *
+     * @param countryId the ID of the country.
+     */
+    public void lock(int countryId) {
+        entityManager.createNativeQuery("INSERT INTO LatestEmissionData (countryId, emissionDataId, reportedFor, value, updatedAt) " +
+                        "VALUES (?1, 0, ?2, 0, ?3) ON DUPLICATE KEY UPDATE countryId = countryId")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(LatestEmissionData.class)
+                .setParameter(1, countryId)
+                .setParameter(2, new java.sql.Date(0))
+                .setParameter(3, new Timestamp(new Date().getTime()))
+                .executeUpdate();
+        entityManager.find(LatestEmissionData.class, countryId, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * Recomputes the latest approved emission data of a country from the {@link EmissionData} table.
+     * The newest value is read with a locking read, so it includes values committed by other transactions since this
+     * one started. The entry should be locked by {@link #lock(int)} before the emission data is changed.
+     *
+     * @param countryId the ID of the country to refresh.
+     */
+    public void refresh(int countryId) {
+        EmissionData newest = emissionDataDAO.findNewestApprovedByCountryId(countryId, LockModeType.PESSIMISTIC_READ);
+        LatestEmissionData latest = entityManager.find(LatestEmissionData.class, countryId, LockModeType.PESSIMISTIC_WRITE);
+
+        if (null == newest) {
+            if (null != latest) {
+                entityManager.remove(latest);
+            }
+            return;
+        }
+
+        if (null == latest) {
+            latest = new LatestEmissionData();
+            latest.setCountryId(countryId);
+            latest.copyFrom(newest);
+            entityManager.persist(latest);
+        } else {
+            latest.copyFrom(newest);
+        }
+    }
+
+    /**
+     * Checks if the projection is empty, e.g. because the table was just created.
+     *
+     * @return true if the projection has no entries, false otherwise.
+     */
+    public boolean isEmpty() {
+        return entityManager.createQuery("SELECT l.countryId FROM LatestEmissionData l")
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Rebuilds the projection for all countries with one set-based statement.
+     * The newest date of every country is determined once by an uncorrelated subquery, which reads only the index on
+     * country, approval state and reported date, instead of once per approved row.
+     */
+    public void rebuildAll() {
+        entityManager.createQuery("DELETE FROM LatestEmissionData").executeUpdate();
+        entityManager.createQuery("INSERT INTO LatestEmissionData (countryId, emissionDataId, reportedFor, value, updatedAt) " +
+                        "SELECT e.country.id, e.id, e.reportedFor, e.value, e.updatedAt FROM EmissionData e " +
+                        "WHERE e.approved = true AND (e.country.id, e.reportedFor) IN (" +
+                        "SELECT e2.country.id, MAX(e2.reportedFor) FROM EmissionData e2 WHERE e2.approved = true GROUP BY e2.country.id)")
+                .executeUpdate();
+    }
+}
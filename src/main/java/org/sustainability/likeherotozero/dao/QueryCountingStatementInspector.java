@@ -0,0 +1,100 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Hibernate {@link StatementInspector} that records the SQL statements prepared by the current thread by their shape,
+ * so the number of queries of an HTTP request can be measured and N+1 patterns can be told apart from single queries.
+ * Hibernate instantiates it from persistence.xml, therefore the statements are kept in a {@link ThreadLocal}
+ * rather than in a CDI bean.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<Map<String, Integer>> SHAPES = new ThreadLocal<>();
+
+    /**
+     * Hibernate prepares the same few statements over and over, so their shapes are computed once.
+     * Statements built with literals could grow the cache without bound, therefore it stops growing at this size.
+     */
+    private static final int MAX_CACHED_SHAPES = 10_000;
+    private static final Map<String, String> CACHED_SHAPES = new ConcurrentHashMap<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Starts recording the statements of the current thread.
+     */
+    public static void begin() {
+        SHAPES.set(new HashMap<>());
+    }
+
+    /**
+     * Stops recording the statements of the current thread.
+     *
+     * @return the statements since {@link #begin()}, or {@link RecordedQueries#NONE} if recording was not started.
+     */
+    public static RecordedQueries end() {
+        Map<String, Integer> shapes = SHAPES.get();
+        SHAPES.remove();
+        return null == shapes ? RecordedQueries.NONE : new RecordedQueries(shapes);
+    }
+
+    /**
+     * Computes the shape of a statement: literals are replaced by placeholders, lists of placeholders are collapsed
+     * and whitespace is normalized, so statements differing only in their parameters have the same shape.
+     *
+     * @param sql the SQL of the statement.
+     * @return the shape.
+     */
+    public static String shapeOf(String sql) {
+        String shape = CACHED_SHAPES.get(sql);
+
+        if (null == shape) {
+            shape = computeShape(sql);
+
+            if (CACHED_SHAPES.size() < MAX_CACHED_SHAPES) {
+                CACHED_SHAPES.put(sql, shape);
+            }
+        }
+
+        return shape;
+    }
+
+    /**
+     * Computes the shape of a statement without the cache.
+     *
+     * @param sql the SQL of the statement.
+     * @return the shape.
+     */
+    private static String computeShape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PLACEHOLDER_LIST.matcher(shape).replaceAll("(?...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * Records a statement and leaves it unchanged.
+     *
+     * @param sql the SQL of the statement.
+     * @return the unchanged SQL.
+     */
+    @Override
+    public String inspect(String sql) {
+        Map<String, Integer> shapes = SHAPES.get();
+
+        if (null != shapes) {
+            shapes.merge(shapeOf(sql), 1, Integer::sum);
+        }
+
+        return sql;
+    }
+}
@@ -0,0 +1,58 @@
+package org.sustainability.likeherotozero.dao;
+
+import java.util.*;
+
+/**
+ * The SQL statements recorded by the {@link QueryCountingStatementInspector} for one HTTP request,
+ * grouped by their shape, i.e. the statement with literals replaced by placeholders.
+ * A shape issued many times within one request is the typical sign of an N+1 pattern.
+ */
+public final class RecordedQueries {
+
+    /**
+     * No statements were recorded.
+     */
+    public static final RecordedQueries NONE = new RecordedQueries(Collections.emptyMap());
+
+    private final int count;
+    private final Map<String, Integer> shapes;
+
+    /**
+     * Creates new recorded queries.
+     *
+     * @param shapes the number of statements by shape.
+     */
+    RecordedQueries(Map<String, Integer> shapes) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(shapes.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        int total = 0;
+
+        for (Map.Entry<String, Integer> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+            total += entry.getValue();
+        }
+
+        this.count = total;
+        this.shapes = Collections.unmodifiableMap(sorted);
+    }
+
+    /**
+     * Gets the number of statements.
+     *
+     * @return the number of statements.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of statements by shape.
+     *
+     * @return an unmodifiable {@link Map} of the number of statements by shape, the most frequent shape first.
+     */
+    public Map<String, Integer> getShapes() {
+        return shapes;
+    }
+}
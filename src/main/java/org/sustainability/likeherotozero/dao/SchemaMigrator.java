@@ -0,0 +1,604 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Versioned migration of the database schema, run before the {@link jakarta.persistence.EntityManagerFactory}
+ * is created, so Hibernate neither introspects nor changes the schema at startup.
+ * <p>
+ * The scripts under {@code db/migration} are listed in order in {@value #INDEX}. Every script is applied once and
+ * recorded in the table {@code schema_migration} with the SHA-256 checksum of its content; a released script that was
+ * changed afterwards stops the startup. While scripts are applied, the single row of {@code schema_migration_lock} is
+ * locked by a conditional update, so nodes starting at the same time apply every script exactly once. A node whose
+ * scripts are all applied reads the history once and takes no lock, so its startup does not grow with the schema.
+ * <p>
+ * A database whose schema was created before the migrations, i.e. which has tables but no history, is baselined:
+ * the scripts up to {@value #BASELINE_VERSION_PROPERTY} (default 1) are recorded as applied without running them.
+ * The system property {@value #LOCK_TIMEOUT_PROPERTY} (default 300) limits the wait for the lock.
+ * MySQL commits every DDL statement on its own, so a script that fails halfway must be completed by hand before the
+ * node is started again.
+ */
+public final class SchemaMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+
+    /**
+     * System property with the version up to which an existing schema without history is recorded as applied.
+     */
+    public static final String BASELINE_VERSION_PROPERTY = "likeherotozero.migration.baselineVersion";
+
+    /**
+     * System property with the number of seconds a node waits for another node to finish its migrations.
+     */
+    public static final String LOCK_TIMEOUT_PROPERTY = "likeherotozero.migration.lockTimeoutSeconds";
+
+    /**
+     * The resource listing the migration scripts in order.
+     */
+    static final String INDEX = "db/migration/migrations.txt";
+
+    /**
+     * Query locking the row of the migration lock until the end of the current transaction, for one-off work at
+     * startup that must not run on several nodes at once.
+     */
+    public static final String LOCK_ROW_QUERY = "SELECT locked FROM schema_migration_lock WHERE id = 1 FOR UPDATE";
+
+    private static final String SCRIPTS = "db/migration/";
+    private static final String HISTORY_TABLE = "schema_migration";
+    private static final String LOCK_TABLE = "schema_migration_lock";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final long LOCK_POLL_MILLIS = 500;
+
+    private final Map<String, Object> settings;
+
+    /**
+     * Creates a new migrator for the database of the "default" persistence unit.
+     *
+     * @param overrides the settings overriding persistence.xml, as passed to the persistence unit.
+     */
+    public SchemaMigrator(Map<String, Object> overrides) {
+        this.settings = readPersistenceSettings();
+        this.settings.putAll(overrides);
+    }
+
+    /**
+     * Applies the migration scripts not yet applied to the database.
+     *
+     * @throws IllegalStateException if the scripts cannot be read, a script was changed after it had been applied,
+     *                               the lock is not released in time or a statement fails.
+     */
+    public void migrate() {
+        long start = System.nanoTime();
+        List<Migration> migrations = readMigrations();
+
+        try (Connection connection = connect()) {
+            connection.setAutoCommit(true);
+            createTables(connection);
+            List<Migration> pending = getPending(connection, migrations);
+
+            if (pending.isEmpty()) {
+                LOGGER.info(() -> String.format("Schema is up to date at version %d, checked in %d ms",
+                        migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version, elapsedMillis(start)));
+                return;
+            }
+
+            String owner = getOwner();
+            lock(connection, owner);
+
+            try {
+                // Another node may have migrated while this one was waiting for the lock
+                pending = getPending(connection, migrations);
+
+                if (pending.isEmpty()) {
+                    LOGGER.info("Schema was migrated by another node");
+                    return;
+                }
+
+                int baselineVersion = Integer.getInteger(BASELINE_VERSION_PROPERTY, 1);
+                boolean baseline = !hasHistory(connection) && hasApplicationTables(connection);
+
+                for (Migration migration : pending) {
+                    if (baseline && migration.version <= baselineVersion) {
+                        record(connection, migration, owner, 0, true);
+                        LOGGER.info(() -> "Baselined the existing schema at " + migration.script);
+                    } else {
+                        apply(connection, migration, owner);
+                    }
+                }
+            } finally {
+                unlock(connection, owner);
+            }
+
+            LOGGER.info(() -> String.format("Migrated the schema to version %d in %d ms",
+                    migrations.get(migrations.size() - 1).version, elapsedMillis(start)));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not migrate the schema", e);
+        }
+    }
+
+    /**
+     * Creates the history and the lock table unless they exist. Two nodes may insert the lock row at the same time;
+     * the one violating the primary key ignores it.
+     *
+     * @param connection the connection.
+     * @throws SQLException if the tables cannot be created.
+     */
+    private static void createTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " (version INTEGER NOT NULL PRIMARY KEY, "
+                    + "script VARCHAR(255) NOT NULL, checksum VARCHAR(64) NOT NULL, baseline BOOLEAN NOT NULL, "
+                    + "applied_by VARCHAR(255) NOT NULL, applied_at TIMESTAMP NOT NULL, execution_millis BIGINT NOT NULL)");
+            statement.execute("CREATE TABLE IF NOT EXISTS " + LOCK_TABLE + " (id INTEGER NOT NULL PRIMARY KEY, "
+                    + "locked BOOLEAN NOT NULL, locked_by VARCHAR(255), locked_at TIMESTAMP NULL)");
+
+            boolean exists;
+
+            try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + LOCK_TABLE + " WHERE id = 1")) {
+                resultSet.next();
+                exists = 0 < resultSet.getInt(1);
+            }
+
+            if (!exists) {
+                try {
+                    statement.executeUpdate("INSERT INTO " + LOCK_TABLE + " (id, locked) VALUES (1, FALSE)");
+                } catch (SQLException e) {
+                    if (null == e.getSQLState() || !e.getSQLState().startsWith("23")) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines the migrations not yet applied and verifies the checksums of the applied ones.
+     * Versions in the history without a script are newer than this node and are ignored, so an older node can still
+     * start during a rolling deployment.
+     *
+     * @param connection the connection.
+     * @param migrations all migrations in order.
+     * @return a {@link List} of the pending migrations in order.
+     * @throws SQLException          if the history cannot be read.
+     * @throws IllegalStateException if an applied script was changed.
+     */
+    private static List<Migration> getPending(Connection connection, List<Migration> migrations) throws SQLException {
+        Map<Integer, String> checksums = new HashMap<>();
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE)) {
+            while (resultSet.next()) {
+                checksums.put(resultSet.getInt(1), resultSet.getString(2));
+            }
+        }
+
+        List<Migration> pending = new ArrayList<>();
+
+        for (Migration migration : migrations) {
+            String checksum = checksums.get(migration.version);
+
+            if (null == checksum) {
+                pending.add(migration);
+            } else if (!checksum.equals(migration.checksum)) {
+                throw new IllegalStateException("The migration " + migration.script + " was changed after it had been "
+                        + "applied (checksum " + checksum + " in " + HISTORY_TABLE + ", " + migration.checksum + " now)");
+            }
+        }
+
+        return pending;
+    }
+
+    /**
+     * Takes the migration lock, waiting for another node holding it.
+     *
+     * @param connection the connection.
+     * @param owner      the name of this node.
+     * @throws SQLException          if the lock cannot be read or updated.
+     * @throws IllegalStateException if the lock is not released within the timeout.
+     */
+    private static void lock(Connection connection, String owner) throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Long.getLong(LOCK_TIMEOUT_PROPERTY, 300));
+
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE " + LOCK_TABLE
+                + " SET locked = TRUE, locked_by = ?, locked_at = CURRENT_TIMESTAMP WHERE id = 1 AND locked = FALSE")) {
+            statement.setString(1, owner);
+            boolean waiting = false;
+
+            while (1 != statement.executeUpdate()) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("The schema migration is locked by " + getLockOwner(connection)
+                            + "; if that node is no longer running, release the lock with UPDATE " + LOCK_TABLE
+                            + " SET locked = FALSE WHERE id = 1");
+                }
+
+                if (!waiting) {
+                    LOGGER.info(() -> "Waiting for the schema migration of another node");
+                    waiting = true;
+                }
+
+                try {
+                    Thread.sleep(LOCK_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the schema migration lock", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the node holding the migration lock.
+     *
+     * @param connection the connection.
+     * @return the name of the node and the time it took the lock.
+     * @throws SQLException if the lock cannot be read.
+     */
+    private static String getLockOwner(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT locked_by, locked_at FROM " + LOCK_TABLE + " WHERE id = 1")) {
+            return resultSet.next() ? resultSet.getString(1) + " since " + resultSet.getTimestamp(2) : "another node";
+        }
+    }
+
+    /**
+     * Releases the migration lock if this node holds it.
+     *
+     * @param connection the connection.
+     * @param owner      the name of this node.
+     * @throws SQLException if the lock cannot be updated.
+     */
+    private static void unlock(Connection connection, String owner) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE " + LOCK_TABLE
+                + " SET locked = FALSE, locked_by = NULL, locked_at = NULL WHERE id = 1 AND locked_by = ?")) {
+            statement.setString(1, owner);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Checks whether any migration has been recorded.
+     *
+     * @param connection the connection.
+     * @return true if the history is not empty, otherwise false.
+     * @throws SQLException if the history cannot be read.
+     */
+    private static boolean hasHistory(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + HISTORY_TABLE)) {
+            resultSet.next();
+            return 0 < resultSet.getInt(1);
+        }
+    }
+
+    /**
+     * Checks whether the database contains tables other than the ones of the migrator, i.e. a schema created before.
+     *
+     * @param connection the connection.
+     * @return true if there are other tables, otherwise false.
+     * @throws SQLException if the metadata cannot be read.
+     */
+    private static boolean hasApplicationTables(Connection connection) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), connection.getSchema(), "%",
+                new String[] { "TABLE" })) {
+            while (tables.next()) {
+                String name = tables.getString("TABLE_NAME");
+
+                if (!HISTORY_TABLE.equalsIgnoreCase(name) && !LOCK_TABLE.equalsIgnoreCase(name)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Runs the statements of a migration and records it.
+     *
+     * @param connection the connection.
+     * @param migration  the migration.
+     * @param owner      the name of this node.
+     * @throws SQLException          if the migration cannot be recorded.
+     * @throws IllegalStateException if a statement fails.
+     */
+    private static void apply(Connection connection, Migration migration, String owner) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : migration.statements) {
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Migration " + migration.script + " failed at: " + sql, e);
+                }
+            }
+        }
+
+        long millis = elapsedMillis(start);
+        record(connection, migration, owner, millis, false);
+        LOGGER.info(() -> String.format("Applied %s in %d ms", migration.script, millis));
+    }
+
+    /**
+     * Records a migration in the history.
+     *
+     * @param connection the connection.
+     * @param migration  the migration.
+     * @param owner      the name of this node.
+     * @param millis     the duration of the migration in milliseconds.
+     * @param baseline   true if the migration was not run because the schema existed, otherwise false.
+     * @throws SQLException if the history cannot be written.
+     */
+    private static void record(Connection connection, Migration migration, String owner, long millis, boolean baseline)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + HISTORY_TABLE
+                + " (version, script, checksum, baseline, applied_by, applied_at, execution_millis)"
+                + " VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP, ?)")) {
+            statement.setInt(1, migration.version);
+            statement.setString(2, migration.script);
+            statement.setString(3, migration.checksum);
+            statement.setBoolean(4, baseline);
+            statement.setString(5, owner);
+            statement.setLong(6, millis);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Reads the migration scripts listed in the index.
+     *
+     * @return a {@link List} of the migrations in order of their version.
+     * @throws IllegalStateException if a script is missing, misnamed or out of order.
+     */
+    static List<Migration> readMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+
+        for (String line : readResource(INDEX).split("\n")) {
+            String script = line.trim();
+
+            if (script.isEmpty() || script.startsWith("#")) {
+                continue;
+            }
+
+            Matcher matcher = SCRIPT_NAME.matcher(script);
+
+            if (!matcher.matches()) {
+                throw new IllegalStateException("The migration " + script + " is not named V<version>__<description>.sql");
+            }
+
+            Migration migration = new Migration(Integer.parseInt(matcher.group(1)), script, readResource(SCRIPTS + script));
+
+            if (!migrations.isEmpty() && migrations.get(migrations.size() - 1).version >= migration.version) {
+                throw new IllegalStateException("The migration " + script + " is listed out of order in " + INDEX);
+            }
+
+            migrations.add(migration);
+        }
+
+        return migrations;
+    }
+
+    /**
+     * Reads a resource of the class path as text.
+     *
+     * @param name the name of the resource.
+     * @return the content of the resource.
+     * @throws IllegalStateException if the resource cannot be read.
+     */
+    private static String readResource(String name) {
+        try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(name)) {
+            if (null == in) {
+                throw new IllegalStateException("Missing migration resource " + name);
+            }
+
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the migration resource " + name, e);
+        }
+    }
+
+    /**
+     * Opens a connection outside of the pool, which is only created with the {@link jakarta.persistence.EntityManagerFactory}.
+     *
+     * @return the connection.
+     * @throws SQLException if the connection cannot be opened.
+     */
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", String.valueOf(settings.getOrDefault("jakarta.persistence.jdbc.user", "")));
+        properties.setProperty("password", String.valueOf(settings.getOrDefault("jakarta.persistence.jdbc.password", "")));
+        String url = String.valueOf(settings.get("jakarta.persistence.jdbc.url"));
+        Object driverClass = settings.get("jakarta.persistence.jdbc.driver");
+        Driver driver;
+
+        // Like the pool, the driver is instantiated directly, since DriverManager may not see the web application's drivers
+        if (null == driverClass) {
+            driver = DriverManager.getDriver(url);
+        } else {
+            try {
+                driver = (Driver) Class.forName(driverClass.toString()).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new SQLException("Cannot load the JDBC driver " + driverClass, e);
+            }
+        }
+
+        Connection connection = driver.connect(url, properties);
+
+        if (null == connection) {
+            throw new SQLException("The JDBC driver " + driver.getClass().getName() + " does not accept " + url);
+        }
+
+        return connection;
+    }
+
+    /**
+     * Reads the properties of the "default" persistence unit from persistence.xml.
+     *
+     * @return a mutable map of the properties.
+     * @throws IllegalStateException if persistence.xml cannot be read.
+     */
+    private static Map<String, Object> readPersistenceSettings() {
+        Map<String, Object> properties = new HashMap<>();
+
+        try (InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream("META-INF/persistence.xml")) {
+            if (null == in) {
+                return properties;
+            }
+
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+            NodeList units = document.getElementsByTagName("persistence-unit");
+
+            for (int i = 0; i < units.getLength(); i++) {
+                Element unit = (Element) units.item(i);
+
+                if ("default".equals(unit.getAttribute("name"))) {
+                    NodeList nodes = unit.getElementsByTagName("property");
+
+                    for (int j = 0; j < nodes.getLength(); j++) {
+                        Element property = (Element) nodes.item(j);
+                        properties.put(property.getAttribute("name"), property.getAttribute("value"));
+                    }
+                }
+            }
+        } catch (IOException | ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("Could not read persistence.xml", e);
+        }
+
+        return properties;
+    }
+
+    /**
+     * Gets the name of this node for the lock and the history.
+     *
+     * @return the host name and the process ID.
+     */
+    private static String getOwner() {
+        String host;
+
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+
+        return host + " (pid " + ProcessHandle.current().pid() + ")";
+    }
+
+    /**
+     * Computes the milliseconds elapsed since a point in time.
+     *
+     * @param start the point in time from {@link System#nanoTime()}.
+     * @return the elapsed milliseconds.
+     */
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * A migration script with its version, checksum and statements.
+     */
+    static final class Migration {
+
+        private final int version;
+        private final String script;
+        private final String checksum;
+        private final List<String> statements = new ArrayList<>();
+
+        /**
+         * Creates a new migration and splits its content into statements, each ending with a semicolon at the end
+         * of a line. Lines starting with {@code --} are comments. Line endings are normalized before the checksum
+         * is computed, so it does not depend on the platform the scripts were checked out on.
+         *
+         * @param version the version.
+         * @param script  the file name of the script.
+         * @param content the content of the script.
+         */
+        Migration(int version, String script, String content) {
+            String normalized = content.replace("\r\n", "\n");
+            this.version = version;
+            this.script = script;
+            this.checksum = sha256(normalized);
+            StringBuilder statement = new StringBuilder();
+
+            for (String line : normalized.split("\n")) {
+                String trimmed = line.trim();
+
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+
+                statement.append(statement.length() == 0 ? "" : "\n").append(line);
+
+                if (trimmed.endsWith(";")) {
+                    statements.add(statement.substring(0, statement.lastIndexOf(";")));
+                    statement.setLength(0);
+                }
+            }
+
+            if (0 < statement.toString().trim().length()) {
+                statements.add(statement.toString());
+            }
+        }
+
+        /**
+         * Gets the file name of the script.
+         *
+         * @return the file name.
+         */
+        String getScript() {
+            return script;
+        }
+
+        /**
+         * Gets the SHA-256 checksum of the script.
+         *
+         * @return the checksum in hexadecimal.
+         */
+        String getChecksum() {
+            return checksum;
+        }
+
+        /**
+         * Gets the statements of the script, without their terminating semicolons.
+         *
+         * @return the statements in order.
+         */
+        List<String> getStatements() {
+            return statements;
+        }
+
+        /**
+         * Computes the SHA-256 checksum of a script.
+         *
+         * @param content the content of the script.
+         * @return the checksum in hexadecimal.
+         */
+        private static String sha256(String content) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+                return String.format("%064x", new BigInteger(1, digest));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.sustainability.likeherotozero.interceptor.TimedInterceptor;
+import org.sustainability.likeherotozero.model.SlowQuery;
+import org.hibernate.HibernateException;
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HikariCP connection provider recording the statements that take longer than a threshold in the {@link SlowQueryLog},
+ * with their bind values, duration, number of rows and the {@link org.sustainability.likeherotozero.interceptor.Timed}
+ * DAO method that issued them. Optionally, the first occurrence of every query shape is explained.
+ * <p>
+ * The connections of the pool are wrapped in JDBC proxies. A statement below the threshold costs only the capture of
+ * its bind values; its result set is not wrapped. The duration of a slow query includes reading its result, because
+ * its rows are counted when the result set is closed. Values bound to a {@code password} column are redacted.
+ * The pool itself stays reachable through {@link #unwrap(Class)}, e.g. for its metrics.
+ * <p>
+ * The log is configured by system properties: {@value #THRESHOLD_PROPERTY} (default 200, negative to disable),
+ * {@value #CAPACITY_PROPERTY} (default 100) and {@value #EXPLAIN_PROPERTY} (default false).
+ */
+public class SlowQueryConnectionProvider extends HikariCPConnectionProvider {
+
+    private static final Logger LOGGER = Logger.getLogger(SlowQueryConnectionProvider.class.getName());
+
+    /**
+     * System property with the duration in milliseconds from which a statement is recorded.
+     */
+    public static final String THRESHOLD_PROPERTY = "likeherotozero.slowQuery.thresholdMillis";
+
+    /**
+     * System property with the number of slow queries kept in the {@link SlowQueryLog}.
+     */
+    public static final String CAPACITY_PROPERTY = "likeherotozero.slowQuery.capacity";
+
+    /**
+     * System property enabling EXPLAIN for the first occurrence of every slow query shape.
+     */
+    public static final String EXPLAIN_PROPERTY = "likeherotozero.slowQuery.explain";
+
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private static final Pattern PASSWORD_COMPARISON = Pattern.compile("(?i)\\bpassword[`\"]?\\s*(?:=|<>|!=|\\blike)\\s*$");
+    private static final Pattern INSERT = Pattern.compile("(?is)^\\s*insert\\s+into\\s+\\S+\\s*\\(([^)]*)\\)\\s*values\\s*\\((.*)\\)\\s*$");
+
+    private long thresholdNanos;
+    private boolean explain;
+
+    /**
+     * Configures the pool and the slow-query log.
+     *
+     * @param properties the settings of the persistence unit.
+     * @throws HibernateException if the pool cannot be configured.
+     */
+    @Override
+    public void configure(Map<String, Object> properties) throws HibernateException {
+        super.configure(properties);
+        long thresholdMillis = Long.getLong(THRESHOLD_PROPERTY, 200);
+        this.thresholdNanos = thresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.explain = Boolean.getBoolean(EXPLAIN_PROPERTY);
+        SlowQueryLog.setCapacity(Integer.getInteger(CAPACITY_PROPERTY, 100));
+    }
+
+    /**
+     * Gets a connection from the pool, wrapped so its slow statements are recorded.
+     *
+     * @return the connection.
+     * @throws SQLException if no connection can be obtained.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return thresholdNanos < 0 ? connection : proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Records a slow query and explains it if it is the first occurrence of its shape.
+     *
+     * @param execution the execution of the statement.
+     * @param rows      the number of rows read or changed, or -1 if unknown.
+     */
+    private void finish(Execution execution, long rows) {
+        String shape = QueryCountingStatementInspector.shapeOf(execution.sql);
+        Set<Integer> redacted = passwordParameters(execution.sql);
+        List<String> parameters = new ArrayList<>();
+
+        for (Map.Entry<Integer, Object> parameter : execution.parameters.entrySet()) {
+            parameters.add(redacted.contains(parameter.getKey()) ? "<redacted>" : format(parameter.getValue()));
+        }
+
+        String plan = null;
+
+        if (explain && execution.sql.trim().regionMatches(true, 0, "select", 0, 6) && SlowQueryLog.markExplained(shape)) {
+            plan = explain(execution.connection, execution.sql, execution.parameters);
+        }
+
+        SlowQuery query = new SlowQuery(new java.util.Date(execution.startedAt), execution.sql, shape, parameters,
+                execution.durationNanos, rows, execution.caller, plan);
+        SlowQueryLog.record(query);
+        LOGGER.warning(() -> String.format(Locale.ROOT, "Slow query (%.1f ms, %d rows) in %s: %s %s%s", query.getDurationMillis(),
+                rows, Objects.toString(execution.caller, "an unknown caller"), execution.sql, parameters,
+                null == query.getPlan() ? "" : System.lineSeparator() + query.getPlan()));
+    }
+
+    /**
+     * Runs EXPLAIN for a query on the connection that executed it.
+     *
+     * @param connection the unwrapped connection.
+     * @param sql        the SQL of the query.
+     * @param parameters the values bound to the parameters of the query by index.
+     * @return the rows of the plan with tab-separated columns, or the error if the query cannot be explained.
+     */
+    private static String explain(Connection connection, String sql, Map<Integer, Object> parameters) {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                statement.setObject(parameter.getKey(), parameter.getValue());
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                StringJoiner plan = new StringJoiner("\n");
+                StringJoiner header = new StringJoiner("\t");
+
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    header.add(metaData.getColumnLabel(i));
+                }
+
+                plan.add(header.toString());
+
+                while (resultSet.next()) {
+                    StringJoiner row = new StringJoiner("\t");
+
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        row.add(String.valueOf(resultSet.getObject(i)));
+                    }
+
+                    plan.add(row.toString());
+                }
+
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Could not explain " + sql, e);
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Finds the parameters of a statement that are bound to a {@code password} column, in comparisons and in inserts.
+     *
+     * @param sql the SQL of the statement.
+     * @return the indexes of the parameters, starting at 1.
+     */
+    private static Set<Integer> passwordParameters(String sql) {
+        if (!sql.toLowerCase(Locale.ROOT).contains("password")) {
+            return Collections.emptySet();
+        }
+
+        Set<Integer> indexes = new HashSet<>();
+        Matcher insert = INSERT.matcher(sql);
+
+        if (insert.matches()) {
+            String[] columns = insert.group(1).split(",");
+            String[] values = insert.group(2).split(",");
+            int index = 0;
+
+            for (int i = 0; i < values.length; i++) {
+                if ("?".equals(values[i].trim())) {
+                    index++;
+
+                    if (i < columns.length && isPasswordColumn(columns[i])) {
+                        indexes.add(index);
+                    }
+                }
+            }
+
+            return indexes;
+        }
+
+        int index = 0;
+        boolean quoted = false;
+
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+
+            if ('\'' == c) {
+                quoted = !quoted;
+            } else if ('?' == c && !quoted) {
+                index++;
+
+                if (PASSWORD_COMPARISON.matcher(sql.substring(0, i)).find()) {
+                    indexes.add(index);
+                }
+            }
+        }
+
+        return indexes;
+    }
+
+    /**
+     * Checks if a column of a column list is the password column.
+     *
+     * @param column the column, possibly qualified or quoted.
+     * @return true if it is the password column, otherwise false.
+     */
+    private static boolean isPasswordColumn(String column) {
+        String name = column.replace("`", "").replace("\"", "").trim();
+        return "password".equalsIgnoreCase(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    /**
+     * Formats a bind value for the log.
+     *
+     * @param value the value.
+     * @return the formatted value.
+     */
+    private static String format(Object value) {
+        if (null == value) {
+            return "NULL";
+        }
+
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+
+        String text = String.valueOf(value);
+
+        if (text.length() > MAX_VALUE_LENGTH) {
+            text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+
+        return value instanceof CharSequence || value instanceof Character ? "'" + text + "'" : text;
+    }
+
+    /**
+     * Creates a proxy for a JDBC object.
+     *
+     * @param type    the interface of the object.
+     * @param handler the handler of the proxy.
+     * @param <T>     the type of the object.
+     * @return the proxy.
+     */
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SlowQueryConnectionProvider.class.getClassLoader(), new Class<?>[]{ type }, handler));
+    }
+
+    /**
+     * Calls a method on the wrapped JDBC object, rethrowing its exceptions unwrapped.
+     *
+     * @param target the wrapped object.
+     * @param method the method.
+     * @param args   the arguments.
+     * @return the result of the method.
+     * @throws Throwable the exception thrown by the method.
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Wraps the statements a connection creates.
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        /**
+         * Creates a new handler.
+         *
+         * @param connection the connection of the pool.
+         */
+        ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Calls the method on the connection and wraps the statements it creates.
+         *
+         * @param proxy  the proxy.
+         * @param method the method.
+         * @param args   the arguments.
+         * @return the result of the method.
+         * @throws Throwable the exception thrown by the method.
+         */
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SlowQueryConnectionProvider.invoke(connection, method, args);
+
+            if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                String sql = null != args && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return proxy(method.getReturnType(), new StatementHandler(connection, (Statement) result, sql));
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Captures the bind values of a statement and times its executions.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private final Statement statement;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        /**
+         * Creates a new handler.
+         *
+         * @param connection the unwrapped connection of the statement.
+         * @param statement  the statement.
+         * @param sql        the SQL of a prepared statement, or null for a plain statement.
+         */
+        StatementHandler(Connection connection, Statement statement, String sql) {
+            this.connection = connection;
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        /**
+         * Calls the method on the statement, capturing bind values and timing executions.
+         *
+         * @param proxy  the proxy.
+         * @param method the method.
+         * @param args   the arguments.
+         * @return the result of the method.
+         * @throws Throwable the exception thrown by the method.
+         */
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("set") && null != args && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                parameters.clear();
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+
+            return SlowQueryConnectionProvider.invoke(statement, method, args);
+        }
+
+        /**
+         * Executes the statement and records it if it is slow.
+         *
+         * @param method the execute method.
+         * @param args   the arguments.
+         * @return the result of the method, with a result set wrapped to count its rows if the statement is slow.
+         * @throws Throwable the exception thrown by the method.
+         */
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String executed = null != args && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            Method caller = TimedInterceptor.getCurrentMethod();
+            long startedAt = System.currentTimeMillis();
+            long start = System.nanoTime();
+            Object result = SlowQueryConnectionProvider.invoke(statement, method, args);
+            long duration = System.nanoTime() - start;
+
+            if (duration < thresholdNanos || null == executed) {
+                return result;
+            }
+
+            Execution execution = new Execution(connection, executed, new TreeMap<>(parameters),
+                    null == caller ? null : caller.getDeclaringClass().getSimpleName() + "." + caller.getName(),
+                    startedAt, duration);
+
+            if (result instanceof ResultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(execution, (ResultSet) result));
+            }
+
+            long rows = -1;
+
+            if (result instanceof Number) {
+                rows = ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                rows = Arrays.stream((int[]) result).filter(count -> count > 0).asLongStream().sum();
+            } else if (result instanceof long[]) {
+                rows = Arrays.stream((long[]) result).filter(count -> count > 0).sum();
+            } else if (Boolean.FALSE.equals(result)) {
+                rows = statement.getUpdateCount();
+            }
+
+            finish(execution, rows);
+            return result;
+        }
+    }
+
+    /**
+     * Counts the rows of the result set of a slow query and records the query when the result set is closed.
+     */
+    private final class ResultSetHandler implements InvocationHandler {
+
+        private final Execution execution;
+        private final ResultSet resultSet;
+        private long rows;
+        private boolean finished;
+
+        /**
+         * Creates a new handler.
+         *
+         * @param execution the execution of the query.
+         * @param resultSet the result set.
+         */
+        ResultSetHandler(Execution execution, ResultSet resultSet) {
+            this.execution = execution;
+            this.resultSet = resultSet;
+        }
+
+        /**
+         * Calls the method on the result set, counting rows and recording the query on close.
+         *
+         * @param proxy  the proxy.
+         * @param method the method.
+         * @param args   the arguments.
+         * @return the result of the method.
+         * @throws Throwable the exception thrown by the method.
+         */
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("next".equals(method.getName())) {
+                long start = System.nanoTime();
+                Object result = SlowQueryConnectionProvider.invoke(resultSet, method, args);
+                execution.durationNanos += System.nanoTime() - start;
+
+                if (Boolean.TRUE.equals(result)) {
+                    rows++;
+                }
+
+                return result;
+            }
+
+            Object result = SlowQueryConnectionProvider.invoke(resultSet, method, args);
+
+            if ("close".equals(method.getName()) && !finished) {
+                finished = true;
+                finish(execution, rows);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * An execution of a slow statement.
+     */
+    private static final class Execution {
+
+        private final Connection connection;
+        private final String sql;
+        private final Map<Integer, Object> parameters;
+        private final String caller;
+        private final long startedAt;
+        private long durationNanos;
+
+        /**
+         * Creates a new execution.
+         *
+         * @param connection    the unwrapped connection of the statement.
+         * @param sql           the SQL of the statement.
+         * @param parameters    the values bound to the parameters by index.
+         * @param caller        the DAO method that issued the statement, or null if unknown.
+         * @param startedAt     the time the execution started in milliseconds since the epoch.
+         * @param durationNanos the duration of the execution in nanoseconds.
+         */
+        Execution(Connection connection, String sql, Map<Integer, Object> parameters, String caller, long startedAt,
+                  long durationNanos) {
+            this.connection = connection;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.caller = caller;
+            this.startedAt = startedAt;
+            this.durationNanos = durationNanos;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.sustainability.likeherotozero.model.SlowQuery;
+
+import java.util.*;
+
+/**
+ * Bounded in-memory ring buffer of the {@link SlowQuery}s recorded by the {@link SlowQueryConnectionProvider}.
+ * When the buffer is full, recording a query drops the oldest one, so the log needs constant memory however
+ * many slow queries the application issues. Hibernate instantiates the connection provider from persistence.xml,
+ * therefore the log is static rather than a CDI bean.
+ */
+public final class SlowQueryLog {
+
+    /**
+     * The number of shapes remembered as explained; further shapes are no longer explained.
+     */
+    private static final int MAX_EXPLAINED_SHAPES = 1_000;
+
+    private static final Deque<SlowQuery> ENTRIES = new ArrayDeque<>();
+    private static final Set<String> EXPLAINED_SHAPES = new HashSet<>();
+
+    private static int capacity = 100;
+
+    /**
+     * Utility class; not instantiable.
+     */
+    private SlowQueryLog() {
+
+    }
+
+    /**
+     * Sets the number of queries kept, dropping the oldest ones beyond it.
+     *
+     * @param capacity the capacity of the buffer.
+     */
+    static synchronized void setCapacity(int capacity) {
+        SlowQueryLog.capacity = Math.max(1, capacity);
+
+        while (ENTRIES.size() > SlowQueryLog.capacity) {
+            ENTRIES.removeLast();
+        }
+    }
+
+    /**
+     * Records a slow query, dropping the oldest one if the buffer is full.
+     *
+     * @param query the query.
+     */
+    static synchronized void record(SlowQuery query) {
+        if (ENTRIES.size() == capacity) {
+            ENTRIES.removeLast();
+        }
+
+        ENTRIES.addFirst(query);
+    }
+
+    /**
+     * Marks a shape as explained, so only the first occurrence of every shape is explained.
+     *
+     * @param shape the shape of a statement.
+     * @return true if the shape had not been explained before, otherwise false.
+     */
+    static synchronized boolean markExplained(String shape) {
+        return EXPLAINED_SHAPES.size() < MAX_EXPLAINED_SHAPES && EXPLAINED_SHAPES.add(shape);
+    }
+
+    /**
+     * Gets the recorded slow queries.
+     *
+     * @return a {@link List} of the queries, the most recent first.
+     */
+    public static synchronized List<SlowQuery> getEntries() {
+        return new ArrayList<>(ENTRIES);
+    }
+
+    /**
+     * Removes all recorded slow queries. Shapes explained before are explained again on their next occurrence.
+     */
+    public static synchronized void clear() {
+        ENTRIES.clear();
+        EXPLAINED_SHAPES.clear();
+    }
+}
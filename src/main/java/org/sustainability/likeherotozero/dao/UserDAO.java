@@ -1,22 +1,24 @@
 package org.sustainability.likeherotozero.dao;
 
 import org.sustainability.likeherotozero.entity.User;
-import org.sustainability.likeherotozero.service.EntityManagerService;
+import org.sustainability.likeherotozero.interceptor.Timed;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.Query;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Data Access Object (DAO) responsible for handling operations related to the {@link User} entity.
  * This class provides methods to retrieve users from the database based on their username.
  */
+@Timed
 public class UserDAO implements Serializable {
 
     @Inject
-    private EntityManagerService entityManagerService;
+    private EntityManager entityManager;
 
     /**
      * Retrieves a User entity by its username.
@@ -25,8 +27,7 @@ public class UserDAO implements Serializable {
      * @return the {@link User} entity if found, or null if no user with the specified username exists.
      */
     public User findOneByUsername(String username) {
-        EntityManager em = entityManagerService.getEntityManager();
-        Query query = em.createQuery("SELECT u FROM User u WHERE username = :username");
+        Query query = entityManager.createQuery("SELECT u FROM User u WHERE username = :username");
         query.setParameter("username", username);
 
         try {
@@ -35,4 +36,16 @@ public class UserDAO implements Serializable {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the names of the roles granted to a user.
+     *
+     * @param userId the ID of the user.
+     * @return a {@link List} of role names.
+     */
+    public List<String> findRoleNamesByUserId(int userId) {
+        return entityManager.createQuery("SELECT r.role FROM User u JOIN u.userRoles r WHERE u.id = :userId", String.class)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+}
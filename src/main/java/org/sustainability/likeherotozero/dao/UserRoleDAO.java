@@ -1,23 +1,27 @@
 package org.sustainability.likeherotozero.dao;
 import org.sustainability.likeherotozero.entity.UserRole;
-import org.sustainability.likeherotozero.service.EntityManagerService;
+import org.sustainability.likeherotozero.interceptor.Timed;
+import org.sustainability.likeherotozero.service.ReferenceDataCacheService;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
 
 import java.io.Serializable;
 
 /**
  * Data Access Object (DAO) responsible for handling operations related to the {@link UserRole} entity.
  * This class provides methods to retrieve user roles from the database based on their role name.
+ * User roles and the results of these queries are served from the second-level cache.
  */
 @Named
+@Timed
 public class UserRoleDAO implements Serializable {
 
     @Inject
-    private EntityManagerService entityManagerService;
+    private EntityManager entityManager;
 
     /**
      * Retrieves a UserRole entity by its role name.
@@ -26,9 +30,10 @@ public class UserRoleDAO implements Serializable {
      * @return the {@link UserRole} entity if found, or null if no role with the specified name exists.
      */
     public UserRole findOneByRoleName(String roleName) {
-        EntityManager entityManager = entityManagerService.getEntityManager();
         Query query = entityManager.createQuery("SELECT u FROM UserRole u WHERE role = :role");
         query.setParameter("role", roleName);
+        query.setHint(HibernateHints.HINT_CACHEABLE, true);
+        query.setHint(HibernateHints.HINT_CACHE_REGION, ReferenceDataCacheService.USER_ROLE_QUERY_REGION);
 
         try {
             return (UserRole) query.getSingleResult();
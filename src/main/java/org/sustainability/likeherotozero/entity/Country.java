@@ -1,14 +1,19 @@
 package org.sustainability.likeherotozero.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 /**
  * Entity class representing a country.
  * This class stores information about a country, including its name, code, and related emission data.
+ * Countries rarely change and are therefore kept in the second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "country")
 public class Country {
 
     /**
@@ -1,20 +1,41 @@
 package org.sustainability.likeherotozero.entity;
 
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
 import jakarta.persistence.*;
 import org.hibernate.annotations.ColumnDefault;
 
-import java.text.DecimalFormat;
 import java.util.Date;
+import java.util.Locale;
 
 /**
  * Entity class representing emission data for a specific country on a specific date.
  * This class stores details about the emission value, the country it is associated with,
  * and metadata such as creation and update timestamps.
+ * <p>
+ * The indexes follow the access paths of the DAOs: {@link #INDEX_COUNTRY_APPROVED_REPORTED} serves the approved
+ * values of a country (the newest value, the table pages and their count, read newest first by scanning it backwards)
+ * and, since it ends with the value and the update time, covers the aggregations and series of a country without
+ * reading the rows. {@link #INDEX_APPROVED_CREATED}
+ * serves the approval queue, which filters unapproved entries and orders them by creation time.
  */
 @Entity
-@Table(uniqueConstraints = { @UniqueConstraint(columnNames = { "reportedFor", "country_id" }) })
+@Table(uniqueConstraints = { @UniqueConstraint(columnNames = { "reportedFor", "country_id" }) },
+        indexes = {
+                @Index(name = EmissionData.INDEX_COUNTRY_APPROVED_REPORTED, columnList = "country_id, approved, reportedFor, value, updatedAt"),
+                @Index(name = EmissionData.INDEX_APPROVED_CREATED, columnList = "approved, createdAt")
+        })
 public class EmissionData {
 
+    /**
+     * The name of the index on the country, the approval state, the reported date, the value and the update time.
+     */
+    public static final String INDEX_COUNTRY_APPROVED_REPORTED = "idx_emissiondata_country_approved_reported";
+
+    /**
+     * The name of the index on the approval state and the creation time.
+     */
+    public static final String INDEX_APPROVED_CREATED = "idx_emissiondata_approved_created";
+
     /**
      * The unique identifier for the emission data entry.
      * This ID is auto-generated by the database.
@@ -148,22 +169,31 @@ public class EmissionData {
     }
 
     /**
-     * Gets the emission value rounded to three decimal places as a formatted string.
+     * Gets the emission value as fixed-point milli-kt, e.g. for exact sums.
+     *
+     * @return the emission value in milli-kt.
+     */
+    public long getValueMilli() {
+        return EmissionValueFormat.toMilli(value);
+    }
+
+    /**
+     * Gets the emission value rounded to three decimal places as a formatted string in the default locale.
+     * Views should use the emissionValueConverter instead, which formats in the locale of the view.
      *
      * @return the rounded emission value as a string.
      */
     public String getRoundedValue() {
-        DecimalFormat decimalFormat = new DecimalFormat("0.000");
-        return decimalFormat.format(value);
+        return EmissionValueFormat.format(value, Locale.getDefault());
     }
 
     /**
-     * Sets the emission value.
+     * Sets the emission value, rounded to three decimal places.
      *
      * @param value the emission value to set.
      */
     public void setValue(double value) {
-        this.value = value;
+        this.value = EmissionValueFormat.roundToMilli(value);
     }
 
     /**
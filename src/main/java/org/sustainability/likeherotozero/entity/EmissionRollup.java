@@ -0,0 +1,310 @@
+package org.sustainability.likeherotozero.entity;
+
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
+import org.sustainability.likeherotozero.model.RollupGranularity;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Entity class representing a pre-aggregated bucket of the approved emission data of a country,
+ * e.g. all values of one year or one month. The sum, minimum and maximum are kept as fixed-point milli-kt,
+ * so buckets can be updated incrementally without rounding drift.
+ * Buckets are maintained whenever emission data is saved, approved or rejected.
+ */
+@Entity
+@IdClass(EmissionRollup.Key.class)
+public class EmissionRollup {
+
+    /**
+     * The ID of the {@link Country} this bucket belongs to.
+     */
+    @Id
+    private int countryId;
+
+    /**
+     * The granularity of the bucket.
+     */
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private RollupGranularity granularity;
+
+    /**
+     * The period of the bucket, encoded as described in {@link RollupGranularity}.
+     */
+    @Id
+    private int period;
+
+    /**
+     * The number of approved values in the bucket.
+     */
+    @Column(nullable = false)
+    private long count;
+
+    /**
+     * The sum of the values in milli-kt.
+     */
+    @Column(nullable = false)
+    private long sumMilli;
+
+    /**
+     * The smallest value in milli-kt.
+     */
+    @Column(nullable = false)
+    private long minMilli;
+
+    /**
+     * The largest value in milli-kt.
+     */
+    @Column(nullable = false)
+    private long maxMilli;
+
+    /**
+     * The timestamp when the bucket was last updated.
+     */
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+
+    /**
+     * Default constructor for JPA.
+     */
+    public EmissionRollup() {
+    }
+
+    /**
+     * Creates a new, empty bucket.
+     *
+     * @param countryId   the ID of the country.
+     * @param granularity the granularity.
+     * @param period      the encoded period.
+     */
+    public EmissionRollup(int countryId, RollupGranularity granularity, int period) {
+        this.countryId = countryId;
+        this.granularity = granularity;
+        this.period = period;
+    }
+
+    /**
+     * Adds a value to the bucket.
+     *
+     * @param valueMilli the value in milli-kt.
+     * @param updatedAt  the timestamp of the update.
+     */
+    public void add(long valueMilli, Date updatedAt) {
+        this.minMilli = 0 == count ? valueMilli : Math.min(minMilli, valueMilli);
+        this.maxMilli = 0 == count ? valueMilli : Math.max(maxMilli, valueMilli);
+        this.count++;
+        this.sumMilli += valueMilli;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Replaces the content of the bucket, e.g. after it was recomputed from the emission data.
+     *
+     * @param count     the number of values.
+     * @param sumMilli  the sum in milli-kt.
+     * @param minMilli  the smallest value in milli-kt.
+     * @param maxMilli  the largest value in milli-kt.
+     * @param updatedAt the timestamp of the update.
+     */
+    public void set(long count, long sumMilli, long minMilli, long maxMilli, Date updatedAt) {
+        this.count = count;
+        this.sumMilli = sumMilli;
+        this.minMilli = minMilli;
+        this.maxMilli = maxMilli;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Gets the ID of the country.
+     *
+     * @return the ID of the country.
+     */
+    public int getCountryId() {
+        return countryId;
+    }
+
+    /**
+     * Gets the granularity of the bucket.
+     *
+     * @return the granularity.
+     */
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * Gets the encoded period of the bucket.
+     *
+     * @return the period.
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * Gets the number of values in the bucket.
+     *
+     * @return the number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the values in milli-kt.
+     *
+     * @return the sum in milli-kt.
+     */
+    public long getSumMilli() {
+        return sumMilli;
+    }
+
+    /**
+     * Gets the smallest value in milli-kt.
+     *
+     * @return the smallest value in milli-kt.
+     */
+    public long getMinMilli() {
+        return minMilli;
+    }
+
+    /**
+     * Gets the largest value in milli-kt.
+     *
+     * @return the largest value in milli-kt.
+     */
+    public long getMaxMilli() {
+        return maxMilli;
+    }
+
+    /**
+     * Gets the total of the values in kt.
+     *
+     * @return the total in kt.
+     */
+    public double getTotal() {
+        return EmissionValueFormat.fromMilli(sumMilli);
+    }
+
+    /**
+     * Gets the average of the values in kt.
+     *
+     * @return the average in kt, or 0 if the bucket is empty.
+     */
+    public double getAverage() {
+        return 0 == count ? 0 : EmissionValueFormat.fromMilli(sumMilli) / count;
+    }
+
+    /**
+     * Gets the smallest value in kt.
+     *
+     * @return the smallest value in kt.
+     */
+    public double getMin() {
+        return EmissionValueFormat.fromMilli(minMilli);
+    }
+
+    /**
+     * Gets the largest value in kt.
+     *
+     * @return the largest value in kt.
+     */
+    public double getMax() {
+        return EmissionValueFormat.fromMilli(maxMilli);
+    }
+
+    /**
+     * Gets the timestamp when the bucket was last updated.
+     *
+     * @return the last update timestamp.
+     */
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Composite primary key of {@link EmissionRollup}.
+     */
+    public static class Key implements Serializable {
+
+        private int countryId;
+        private RollupGranularity granularity;
+        private int period;
+
+        /**
+         * Default constructor for JPA.
+         */
+        public Key() {
+        }
+
+        /**
+         * Creates a new key.
+         *
+         * @param countryId   the ID of the country.
+         * @param granularity the granularity.
+         * @param period      the encoded period.
+         */
+        public Key(int countryId, RollupGranularity granularity, int period) {
+            this.countryId = countryId;
+            this.granularity = granularity;
+            this.period = period;
+        }
+
+        /**
+         * Gets the ID of the country.
+         *
+         * @return the ID of the country.
+         */
+        public int getCountryId() {
+            return countryId;
+        }
+
+        /**
+         * Gets the granularity.
+         *
+         * @return the granularity.
+         */
+        public RollupGranularity getGranularity() {
+            return granularity;
+        }
+
+        /**
+         * Gets the encoded period.
+         *
+         * @return the period.
+         */
+        public int getPeriod() {
+            return period;
+        }
+
+        /**
+         * Checks if this key is equal to another object.
+         *
+         * @param o the object to compare with.
+         * @return true if the keys are equal, false otherwise.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Key) {
+                Key b = (Key) o;
+                return b.countryId == this.countryId && b.granularity == this.granularity && b.period == this.period;
+            }
+            return false;
+        }
+
+        /**
+         * Computes the hash code of this key.
+         *
+         * @return the hash code.
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(countryId, granularity, period);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.sustainability.likeherotozero.entity;
+
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.Date;
+
+/**
+ * Entity class representing the latest approved emission data of a country.
+ * This is a projection of {@link EmissionData} with one row per country, maintained whenever emission data
+ * is saved, approved or rejected, so the newest value of a country is a single primary key lookup.
+ */
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "latestEmissionData")
+public class LatestEmissionData {
+
+    /**
+     * The ID of the {@link Country} this entry belongs to.
+     */
+    @Id
+    private int countryId;
+
+    /**
+     * The ID of the {@link EmissionData} entry this projection was taken from.
+     */
+    @Column(nullable = false)
+    private int emissionDataId;
+
+    /**
+     * The date for which the emission data is reported.
+     */
+    @Column(nullable = false)
+    @Temporal(TemporalType.DATE)
+    private Date reportedFor;
+
+    /**
+     * The value of the emissions reported.
+     */
+    @Column(nullable = false)
+    private double value;
+
+    /**
+     * The timestamp when the underlying emission data was last updated.
+     */
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+
+    /**
+     * Default constructor for JPA.
+     */
+    public LatestEmissionData() {
+    }
+
+    /**
+     * Gets the ID of the country.
+     *
+     * @return the ID of the country.
+     */
+    public int getCountryId() {
+        return countryId;
+    }
+
+    /**
+     * Sets the ID of the country.
+     *
+     * @param countryId the ID of the country to set.
+     */
+    public void setCountryId(int countryId) {
+        this.countryId = countryId;
+    }
+
+    /**
+     * Gets the ID of the underlying emission data.
+     *
+     * @return the ID of the emission data.
+     */
+    public int getEmissionDataId() {
+        return emissionDataId;
+    }
+
+    /**
+     * Sets the ID of the underlying emission data.
+     *
+     * @param emissionDataId the ID of the emission data to set.
+     */
+    public void setEmissionDataId(int emissionDataId) {
+        this.emissionDataId = emissionDataId;
+    }
+
+    /**
+     * Gets the date for which the emission data is reported.
+     *
+     * @return the reported date.
+     */
+    public Date getReportedFor() {
+        return reportedFor;
+    }
+
+    /**
+     * Sets the date for which the emission data is reported.
+     *
+     * @param reportedFor the reported date to set.
+     */
+    public void setReportedFor(Date reportedFor) {
+        this.reportedFor = reportedFor;
+    }
+
+    /**
+     * Gets the emission value.
+     *
+     * @return the emission value.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Sets the emission value, rounded with {@link EmissionValueFormat#roundToMilli(double)} like the value of
+     * the {@link EmissionData} it is taken from.
+     *
+     * @param value the emission value to set.
+     */
+    public void setValue(double value) {
+        this.value = EmissionValueFormat.roundToMilli(value);
+    }
+
+    /**
+     * Gets the timestamp when the underlying emission data was last updated.
+     *
+     * @return the last update timestamp.
+     */
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets the timestamp when the underlying emission data was last updated.
+     *
+     * @param updatedAt the last update timestamp to set.
+     */
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Copies the values of an {@link EmissionData} entry into this projection.
+     *
+     * @param emissionData the {@link EmissionData} entry to copy.
+     */
+    public void copyFrom(EmissionData emissionData) {
+        this.emissionDataId = emissionData.getId();
+        this.reportedFor = emissionData.getReportedFor();
+        this.value = emissionData.getValue();
+        this.updatedAt = emissionData.getUpdatedAt();
+    }
+}
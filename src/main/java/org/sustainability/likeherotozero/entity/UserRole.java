@@ -1,13 +1,18 @@
 package org.sustainability.likeherotozero.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity class representing a user role in the application.
  * This class stores information about a role, including its unique name.
  * User roles are used to define access rights and permissions for users.
+ * Roles rarely change and are therefore kept in the second-level cache.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "userRole")
 public class UserRole {
 
     /**
@@ -0,0 +1,20 @@
+package org.sustainability.likeherotozero.interceptor;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records the latency of every call of the annotated method, or of all methods of the annotated class,
+ * in a histogram of the {@link org.sustainability.likeherotozero.service.MetricsService}.
+ */
+@Inherited
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface Timed {
+}
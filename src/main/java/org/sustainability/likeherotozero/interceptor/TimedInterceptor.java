@@ -0,0 +1,62 @@
+package org.sustainability.likeherotozero.interceptor;
+
+import org.sustainability.likeherotozero.service.MetricsService;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+
+/**
+ * Interceptor measuring the latency of methods annotated with {@link Timed}, including failed calls.
+ * For methods returning a stream, only the time until the stream is returned is measured.
+ * While a method runs it is the current method of its thread, so the statements it issues can be attributed to it.
+ */
+@Timed
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class TimedInterceptor implements Serializable {
+
+    private static final ThreadLocal<Method> CURRENT_METHOD = new ThreadLocal<>();
+
+    @Inject
+    private MetricsService metricsService;
+
+    /**
+     * Gets the innermost {@link Timed} method running on the current thread.
+     *
+     * @return the method, or null if none is running.
+     */
+    public static Method getCurrentMethod() {
+        return CURRENT_METHOD.get();
+    }
+
+    /**
+     * Calls the method and records its latency.
+     *
+     * @param context the invocation context.
+     * @return the result of the method.
+     * @throws Exception if the method throws an exception.
+     */
+    @AroundInvoke
+    public Object time(InvocationContext context) throws Exception {
+        Method outer = CURRENT_METHOD.get();
+        CURRENT_METHOD.set(context.getMethod());
+        long start = System.nanoTime();
+
+        try {
+            return context.proceed();
+        } finally {
+            metricsService.recordMethodCall(context.getMethod(), System.nanoTime() - start);
+
+            if (null == outer) {
+                CURRENT_METHOD.remove();
+            } else {
+                CURRENT_METHOD.set(outer);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.sustainability.likeherotozero.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Filter settings of the approval queue.
+ * Unset values (0, null or an empty string) do not restrict the queue.
+ */
+public class ApprovalQueueFilter implements Serializable {
+
+    private int countryId;
+    private String submitter;
+    private Date reportedFrom;
+    private Date reportedTo;
+
+    /**
+     * Gets the ID of the country to show.
+     *
+     * @return the ID of the country, or 0 for all countries.
+     */
+    public int getCountryId() {
+        return countryId;
+    }
+
+    /**
+     * Sets the ID of the country to show.
+     *
+     * @param countryId the ID of the country, or 0 for all countries.
+     */
+    public void setCountryId(int countryId) {
+        this.countryId = countryId;
+    }
+
+    /**
+     * Gets the username of the submitter to show.
+     *
+     * @return the username, or null for all submitters.
+     */
+    public String getSubmitter() {
+        return submitter;
+    }
+
+    /**
+     * Sets the username of the submitter to show.
+     *
+     * @param submitter the username, or null for all submitters.
+     */
+    public void setSubmitter(String submitter) {
+        this.submitter = submitter;
+    }
+
+    /**
+     * Gets the earliest reported date to show.
+     *
+     * @return the earliest reported date, or null for no lower bound.
+     */
+    public Date getReportedFrom() {
+        return reportedFrom;
+    }
+
+    /**
+     * Sets the earliest reported date to show.
+     *
+     * @param reportedFrom the earliest reported date, or null for no lower bound.
+     */
+    public void setReportedFrom(Date reportedFrom) {
+        this.reportedFrom = reportedFrom;
+    }
+
+    /**
+     * Gets the latest reported date to show.
+     *
+     * @return the latest reported date, or null for no upper bound.
+     */
+    public Date getReportedTo() {
+        return reportedTo;
+    }
+
+    /**
+     * Sets the latest reported date to show.
+     *
+     * @param reportedTo the latest reported date, or null for no upper bound.
+     */
+    public void setReportedTo(Date reportedTo) {
+        this.reportedTo = reportedTo;
+    }
+
+    /**
+     * Checks if a submitter filter is set.
+     *
+     * @return true if the queue is restricted to one submitter, false otherwise.
+     */
+    public boolean hasSubmitter() {
+        return null != submitter && !submitter.isBlank();
+    }
+
+    /**
+     * Builds a string describing the filter settings.
+     *
+     * @return the filter settings as a string.
+     */
+    @Override
+    public String toString() {
+        return countryId + "|" + submitter + "|" + reportedFrom + "|" + reportedTo;
+    }
+}
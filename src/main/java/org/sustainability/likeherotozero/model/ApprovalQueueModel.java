@@ -0,0 +1,59 @@
+package org.sustainability.likeherotozero.model;
+
+import org.sustainability.likeherotozero.dao.EmissionDataDAO;
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.SortMeta;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lazy data model for the approval queue of publishers.
+ * Only the rows of the displayed page are loaded, ordered from the newest to the oldest submission.
+ */
+public class ApprovalQueueModel extends KeysetLazyDataModel<PendingEmissionData> {
+
+    private final EmissionDataDAO emissionDataDAO;
+    private final ApprovalQueueFilter filter;
+
+    /**
+     * Creates a new model for the approval queue.
+     *
+     * @param emissionDataDAO the DAO used to load the queue.
+     * @param filter          the filter settings of the queue; changes take effect on the next load.
+     */
+    public ApprovalQueueModel(EmissionDataDAO emissionDataDAO, ApprovalQueueFilter filter) {
+        this.emissionDataDAO = emissionDataDAO;
+        this.filter = filter;
+    }
+
+    @Override
+    public int count(Map<String, FilterMeta> filterBy) {
+        return (int) emissionDataDAO.countUnapproved(filter);
+    }
+
+    @Override
+    protected List<PendingEmissionData> loadPage(PendingEmissionData after, int offset, int pageSize, SortMeta sort, Map<String, FilterMeta> filterBy) {
+        return emissionDataDAO.findUnapproved(filter, after, offset, pageSize);
+    }
+
+    @Override
+    public String getRowKey(PendingEmissionData pendingEmissionData) {
+        return String.valueOf(pendingEmissionData.getId());
+    }
+
+    @Override
+    public PendingEmissionData getRowData(String rowKey) {
+        if (null == getWrappedData()) {
+            return null;
+        }
+
+        for (PendingEmissionData pendingEmissionData : getWrappedData()) {
+            if (rowKey.equals(getRowKey(pendingEmissionData))) {
+                return pendingEmissionData;
+            }
+        }
+
+        return null;
+    }
+}
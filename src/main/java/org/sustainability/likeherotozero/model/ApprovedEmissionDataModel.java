@@ -0,0 +1,49 @@
+package org.sustainability.likeherotozero.model;
+
+import org.sustainability.likeherotozero.dao.EmissionDataDAO;
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.SortMeta;
+import org.primefaces.model.SortOrder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lazy data model for the approved emission data of one country.
+ * Only the rows of the displayed page are loaded; filtering by approval, sorting and counting happen in the database.
+ */
+public class ApprovedEmissionDataModel extends KeysetLazyDataModel<EmissionData> {
+
+    private final EmissionDataDAO emissionDataDAO;
+    private final int countryId;
+
+    /**
+     * Creates a new model for the approved emission data of a country.
+     *
+     * @param emissionDataDAO the DAO used to load the emission data.
+     * @param countryId       the ID of the country.
+     */
+    public ApprovedEmissionDataModel(EmissionDataDAO emissionDataDAO, int countryId) {
+        this.emissionDataDAO = emissionDataDAO;
+        this.countryId = countryId;
+    }
+
+    @Override
+    public int count(Map<String, FilterMeta> filterBy) {
+        return (int) emissionDataDAO.countApprovedByCountryId(countryId);
+    }
+
+    @Override
+    protected List<EmissionData> loadPage(EmissionData after, int offset, int pageSize, SortMeta sort, Map<String, FilterMeta> filterBy) {
+        String sortField = null == sort ? null : sort.getField();
+        boolean ascending = null != sort && SortOrder.ASCENDING == sort.getOrder();
+
+        return emissionDataDAO.findApprovedByCountryId(countryId, sortField, ascending, after, offset, pageSize);
+    }
+
+    @Override
+    public String getRowKey(EmissionData emissionData) {
+        return String.valueOf(emissionData.getId());
+    }
+}
@@ -0,0 +1,130 @@
+package org.sustainability.likeherotozero.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Emission values of several countries aligned on a common date axis.
+ * The values are kept in one row-major {@code double[]} with a row per country and a column per date of the axis;
+ * {@link Double#NaN} marks dates without a value for a country.
+ */
+public final class ComparisonMatrix implements Serializable {
+
+    private final int[] countryIds;
+    private final int[] epochDays;
+    private final double[] values;
+    private final long[] sourceLastModified;
+    private final int[] sourceSizes;
+
+    /**
+     * Creates a new matrix. The arrays are not copied and must not be modified afterwards.
+     *
+     * @param countryIds         the IDs of the countries, one per row.
+     * @param epochDays          the dates of the axis as epoch days in ascending order, one per column.
+     * @param values             the values in kt, row-major, with {@link Double#NaN} for missing values.
+     * @param sourceLastModified the newest update times of the {@link EmissionSeries} the rows were built from,
+     *                           as returned by {@link EmissionSeries#getLastModified()}.
+     * @param sourceSizes        the numbers of values of these series, as returned by {@link EmissionSeries#getSourceSize()}.
+     */
+    public ComparisonMatrix(int[] countryIds, int[] epochDays, double[] values, long[] sourceLastModified, int[] sourceSizes) {
+        if (values.length != countryIds.length * epochDays.length) {
+            throw new IllegalArgumentException("Expected " + countryIds.length * epochDays.length + " values, got " + values.length);
+        }
+
+        this.countryIds = countryIds;
+        this.epochDays = epochDays;
+        this.values = values;
+        this.sourceLastModified = sourceLastModified;
+        this.sourceSizes = sourceSizes;
+    }
+
+    /**
+     * Gets the number of countries (rows).
+     *
+     * @return the number of countries.
+     */
+    public int getCountryCount() {
+        return countryIds.length;
+    }
+
+    /**
+     * Gets the ID of the country of a row.
+     *
+     * @param row the row.
+     * @return the ID of the country.
+     */
+    public int getCountryId(int row) {
+        return countryIds[row];
+    }
+
+    /**
+     * Gets the number of dates on the axis (columns).
+     *
+     * @return the number of dates.
+     */
+    public int getAxisLength() {
+        return epochDays.length;
+    }
+
+    /**
+     * Gets a date of the axis.
+     *
+     * @param column the column.
+     * @return the date.
+     */
+    public LocalDate getDate(int column) {
+        return LocalDate.ofEpochDay(epochDays[column]);
+    }
+
+    /**
+     * Checks if a country has a value for a date of the axis.
+     *
+     * @param row    the row of the country.
+     * @param column the column of the date.
+     * @return true if there is a value, false otherwise.
+     */
+    public boolean hasValue(int row, int column) {
+        return !Double.isNaN(getValue(row, column));
+    }
+
+    /**
+     * Gets the value of a country for a date of the axis.
+     *
+     * @param row    the row of the country.
+     * @param column the column of the date.
+     * @return the value in kt, or {@link Double#NaN} if there is no value.
+     */
+    public double getValue(int row, int column) {
+        if (column < 0 || column >= epochDays.length) {
+            throw new IndexOutOfBoundsException("Column " + column + " out of bounds for length " + epochDays.length);
+        }
+
+        return values[row * epochDays.length + column];
+    }
+
+    /**
+     * Gets the newest update time of the series the matrix was built from.
+     *
+     * @return the time in milliseconds, or -1 if none of the countries has approved values.
+     */
+    public long getLastModified() {
+        long lastModified = -1;
+
+        for (long rowLastModified : sourceLastModified) {
+            lastModified = Math.max(lastModified, rowLastModified);
+        }
+
+        return lastModified;
+    }
+
+    /**
+     * Gets a fingerprint of the update times and numbers of values of the series the matrix was built from,
+     * which is the same on every node and changes whenever the approved values of one of the countries change.
+     *
+     * @return the fingerprint.
+     */
+    public String getSourceFingerprint() {
+        return Arrays.toString(sourceLastModified) + Arrays.toString(sourceSizes);
+    }
+}
@@ -0,0 +1,154 @@
+package org.sustainability.likeherotozero.model;
+
+import java.util.Arrays;
+
+/**
+ * Methods to reduce an {@link EmissionSeries} to a limited number of visually representative points.
+ * Both methods only select existing points, so every returned value was actually reported.
+ */
+public enum DownsamplingMethod {
+
+    /**
+     * Largest-Triangle-Three-Buckets: keeps the first and the last point and, from every bucket in between,
+     * the point that forms the largest triangle with the point selected before and the average of the next bucket.
+     * This preserves the visual shape of the series.
+     */
+    LTTB {
+        @Override
+        int[] select(int[] x, double[] y, int threshold) {
+            int size = x.length;
+            int[] selected = new int[threshold];
+            double bucketSize = (double) (size - 2) / (threshold - 2);
+            int previous = 0;
+            int count = 0;
+
+            selected[count++] = 0;
+
+            for (int bucket = 0; bucket < threshold - 2; bucket++) {
+                // Average of the next bucket, or of the last point for the last bucket
+                int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+                int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+                double averageX = 0;
+                double averageY = 0;
+
+                for (int i = nextStart; i < nextEnd; i++) {
+                    averageX += x[i];
+                    averageY += y[i];
+                }
+
+                averageX /= nextEnd - nextStart;
+                averageY /= nextEnd - nextStart;
+
+                int start = (int) Math.floor(bucket * bucketSize) + 1;
+                int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+                double maxArea = -1;
+                int maxIndex = start;
+
+                for (int i = start; i < end; i++) {
+                    double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                            - (x[previous] - x[i]) * (averageY - y[previous]));
+
+                    if (area > maxArea) {
+                        maxArea = area;
+                        maxIndex = i;
+                    }
+                }
+
+                selected[count++] = maxIndex;
+                previous = maxIndex;
+            }
+
+            selected[count++] = size - 1;
+            return Arrays.copyOf(selected, count);
+        }
+    },
+
+    /**
+     * Minimum and maximum per bucket: keeps the first and the last point, splits the points in between into half as
+     * many buckets as further points are requested and keeps the smallest and the largest value of each bucket.
+     * This preserves every peak and trough as well as the ends of the series.
+     */
+    MIN_MAX {
+        @Override
+        int[] select(int[] x, double[] y, int threshold) {
+            int size = x.length;
+            int inner = size - 2;
+            int buckets = (threshold - 2) / 2;
+            int[] selected = new int[buckets * 2 + 2];
+            int count = 0;
+
+            selected[count++] = 0;
+
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                int start = 1 + (int) ((long) bucket * inner / buckets);
+                int end = 1 + (int) ((long) (bucket + 1) * inner / buckets);
+                int minIndex = start;
+                int maxIndex = start;
+
+                for (int i = start + 1; i < end; i++) {
+                    if (y[i] < y[minIndex]) {
+                        minIndex = i;
+                    }
+                    if (y[i] > y[maxIndex]) {
+                        maxIndex = i;
+                    }
+                }
+
+                selected[count++] = Math.min(minIndex, maxIndex);
+
+                if (minIndex != maxIndex) {
+                    selected[count++] = Math.max(minIndex, maxIndex);
+                }
+            }
+
+            selected[count++] = size - 1;
+            return Arrays.copyOf(selected, count);
+        }
+    };
+
+    /**
+     * The smallest number of points a series can be reduced to.
+     */
+    public static final int MIN_POINTS = 3;
+
+    /**
+     * Reduces a series to at most the given number of points.
+     *
+     * @param series    the series.
+     * @param threshold the maximum number of points, at least {@link #MIN_POINTS}.
+     * @return a new {@link EmissionSeries} with the selected points, or the given series if it is small enough.
+     * @throws IllegalArgumentException if the threshold is smaller than {@link #MIN_POINTS}.
+     */
+    public EmissionSeries downsample(EmissionSeries series, int threshold) {
+        if (threshold < MIN_POINTS) {
+            throw new IllegalArgumentException("At least " + MIN_POINTS + " points are required, got " + threshold);
+        }
+
+        if (series.size() <= threshold) {
+            return series;
+        }
+
+        int[] epochDays = series.copyEpochDays();
+        double[] values = series.copyValues();
+        int[] selected = select(epochDays, values, threshold);
+        int[] selectedDays = new int[selected.length];
+        double[] selectedValues = new double[selected.length];
+
+        for (int i = 0; i < selected.length; i++) {
+            selectedDays[i] = epochDays[selected[i]];
+            selectedValues[i] = values[selected[i]];
+        }
+
+        return series.derive(selectedDays, selectedValues);
+    }
+
+    /**
+     * Selects the points to keep.
+     *
+     * @param x         the x coordinates (epoch days) in ascending order.
+     * @param y         the y coordinates (values).
+     * @param threshold the maximum number of points, smaller than the number of points.
+     * @return the indices of the selected points in ascending order.
+     */
+    abstract int[] select(int[] x, double[] y, int threshold);
+}
@@ -0,0 +1,249 @@
+package org.sustainability.likeherotozero.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable, columnar time series of the approved emission values of one country.
+ * Dates are kept as sorted epoch days in an {@code int[]} and values in a parallel {@code double[]},
+ * which takes 12 bytes per point instead of a full entity. Slices share the arrays of the series
+ * they were taken from, so range queries do not copy any data.
+ * <p>
+ * Besides the local {@link #getVersion() version}, which identifies a loaded series within this JVM, a series carries
+ * the newest update time and the number of the approved values it was loaded from. Both are read from the database
+ * together with the values, so they describe exactly the data of the series on every node.
+ */
+public final class EmissionSeries implements Serializable {
+
+    private static final int[] NO_DAYS = new int[0];
+    private static final double[] NO_VALUES = new double[0];
+
+    private final int countryId;
+    private final long version;
+    private final long lastModified;
+    private final int sourceSize;
+    private final int[] epochDays;
+    private final double[] values;
+    private final int start;
+    private final int end;
+
+    /**
+     * Creates a new series. The arrays are not copied and must not be modified afterwards.
+     *
+     * @param countryId    the ID of the country.
+     * @param version      the version of the series, which changes whenever the series is rebuilt.
+     * @param lastModified the newest update time of the values in milliseconds, or -1 if there are none.
+     * @param epochDays    the reported dates as epoch days, sorted in ascending order.
+     * @param values       the values in kt, parallel to the dates.
+     */
+    public EmissionSeries(int countryId, long version, long lastModified, int[] epochDays, double[] values) {
+        this(countryId, version, lastModified, epochDays.length, epochDays, values, 0, epochDays.length);
+    }
+
+    /**
+     * Creates a view of a range of the given arrays.
+     *
+     * @param countryId    the ID of the country.
+     * @param version      the version of the series.
+     * @param lastModified the newest update time of the source values in milliseconds.
+     * @param sourceSize   the number of the source values.
+     * @param epochDays    the reported dates as epoch days.
+     * @param values       the values in kt.
+     * @param start        the first index of the range (inclusive).
+     * @param end          the last index of the range (exclusive).
+     */
+    private EmissionSeries(int countryId, long version, long lastModified, int sourceSize,
+                           int[] epochDays, double[] values, int start, int end) {
+        this.countryId = countryId;
+        this.version = version;
+        this.lastModified = lastModified;
+        this.sourceSize = sourceSize;
+        this.epochDays = epochDays;
+        this.values = values;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates an empty series.
+     *
+     * @param countryId the ID of the country.
+     * @param version   the version of the series.
+     * @return the empty series.
+     */
+    public static EmissionSeries empty(int countryId, long version) {
+        return new EmissionSeries(countryId, version, -1, NO_DAYS, NO_VALUES);
+    }
+
+    /**
+     * Creates a series with other points derived from this one, such as a downsampled series.
+     * The arrays are not copied and must not be modified afterwards.
+     *
+     * @param derivedDays   the reported dates as epoch days, sorted in ascending order.
+     * @param derivedValues the values in kt, parallel to the dates.
+     * @return the derived series, which keeps the version, update time and source size of this series.
+     */
+    public EmissionSeries derive(int[] derivedDays, double[] derivedValues) {
+        return new EmissionSeries(countryId, version, lastModified, sourceSize, derivedDays, derivedValues, 0, derivedDays.length);
+    }
+
+    /**
+     * Gets the ID of the country.
+     *
+     * @return the ID of the country.
+     */
+    public int getCountryId() {
+        return countryId;
+    }
+
+    /**
+     * Gets the version of the series, which changes whenever the series is rebuilt.
+     * The version is local to this JVM and only suitable as a cache key.
+     *
+     * @return the version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the newest update time of the approved values the series was loaded from.
+     *
+     * @return the time in milliseconds, or -1 if the country has no approved values.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Gets the number of the approved values the series was loaded from, regardless of slicing or downsampling.
+     *
+     * @return the number of values.
+     */
+    public int getSourceSize() {
+        return sourceSize;
+    }
+
+    /**
+     * Gets the number of points.
+     *
+     * @return the number of points.
+     */
+    public int size() {
+        return end - start;
+    }
+
+    /**
+     * Checks if the series has no points.
+     *
+     * @return true if the series is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return start == end;
+    }
+
+    /**
+     * Gets the reported date of a point as epoch day.
+     *
+     * @param index the index of the point.
+     * @return the epoch day.
+     */
+    public int getEpochDay(int index) {
+        return epochDays[start + checkIndex(index)];
+    }
+
+    /**
+     * Gets the reported date of a point.
+     *
+     * @param index the index of the point.
+     * @return the date.
+     */
+    public LocalDate getDate(int index) {
+        return LocalDate.ofEpochDay(getEpochDay(index));
+    }
+
+    /**
+     * Gets the value of a point.
+     *
+     * @param index the index of the point.
+     * @return the value in kt.
+     */
+    public double getValue(int index) {
+        return values[start + checkIndex(index)];
+    }
+
+    /**
+     * Gets the points within a date range using binary search. The slice shares the arrays of this series.
+     *
+     * @param from the first date (inclusive), or null for no lower bound.
+     * @param to   the last date (inclusive), or null for no upper bound.
+     * @return the slice of this series.
+     */
+    public EmissionSeries slice(LocalDate from, LocalDate to) {
+        int sliceStart = null == from ? start : lowerBound((int) from.toEpochDay());
+        int sliceEnd = null == to ? end : lowerBound((int) to.toEpochDay() + 1);
+
+        if (sliceStart >= sliceEnd) {
+            return new EmissionSeries(countryId, version, lastModified, sourceSize, epochDays, values, start, start);
+        }
+
+        return new EmissionSeries(countryId, version, lastModified, sourceSize, epochDays, values, sliceStart, sliceEnd);
+    }
+
+    /**
+     * Copies the reported dates of the points.
+     *
+     * @return a new array with the epoch days.
+     */
+    public int[] copyEpochDays() {
+        return Arrays.copyOfRange(epochDays, start, end);
+    }
+
+    /**
+     * Copies the values of the points.
+     *
+     * @return a new array with the values in kt.
+     */
+    public double[] copyValues() {
+        return Arrays.copyOfRange(values, start, end);
+    }
+
+    /**
+     * Finds the first index within this series whose epoch day is not before the given day.
+     *
+     * @param epochDay the epoch day.
+     * @return the absolute index in the arrays.
+     */
+    private int lowerBound(int epochDay) {
+        int low = start;
+        int high = end;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (epochDays[middle] < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Checks that an index is within this series.
+     *
+     * @param index the index.
+     * @return the index.
+     * @throws IndexOutOfBoundsException if the index is outside of this series.
+     */
+    private int checkIndex(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + (end - start));
+        }
+
+        return index;
+    }
+}
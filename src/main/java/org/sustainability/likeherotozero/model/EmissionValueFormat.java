@@ -0,0 +1,186 @@
+package org.sustainability.likeherotozero.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe formatting and fixed-point helpers for emission values in kt.
+ * Values are kept with a precision of three decimal places (milli-kt). As a fixed-point {@code long} they can be
+ * summed and compared exactly; {@link #roundToMilli(double)} keeps stored doubles on the same grid.
+ * Formatting writes the digits into a reused per-thread buffer with the cached separators of the locale, so apart
+ * from the resulting string no objects are created per value, unlike a new {@link java.text.DecimalFormat} per call.
+ */
+public final class EmissionValueFormat {
+
+    /**
+     * The number of milli-kt per kt.
+     */
+    public static final long MILLI_PER_KT = 1000;
+
+    /**
+     * The distance to a tie in ulps of the product within which a value is rounded on its decimal value.
+     */
+    private static final int TIE_ULPS = 4;
+
+    /**
+     * Cached grouping and decimal separators per locale.
+     */
+    private static final Map<Locale, char[]> SEPARATORS = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    private EmissionValueFormat() {
+
+    }
+
+    /**
+     * Converts a value in kt to fixed-point milli-kt, rounding half away from zero.
+     * A value such as 0.5005 is stored as a double slightly below its decimal value, so its product with 1000 can
+     * fall just short of the tie. Products within a few ulps of a tie are therefore rounded on the decimal value,
+     * which gives 501 as written; all other values take the fast path without allocating.
+     *
+     * @param kt the value in kt.
+     * @return the value in milli-kt.
+     */
+    public static long toMilli(double kt) {
+        double scaled = kt * MILLI_PER_KT;
+
+        if (Math.abs(Math.abs(scaled - Math.rint(scaled)) - 0.5) <= TIE_ULPS * Math.ulp(scaled)) {
+            return BigDecimal.valueOf(kt).setScale(3, RoundingMode.HALF_UP).unscaledValue().longValue();
+        }
+
+        return Math.round(scaled);
+    }
+
+    /**
+     * Converts a fixed-point value in milli-kt to kt.
+     *
+     * @param milli the value in milli-kt.
+     * @return the value in kt.
+     */
+    public static double fromMilli(long milli) {
+        return (double) milli / MILLI_PER_KT;
+    }
+
+    /**
+     * Rounds a value in kt to three decimal places.
+     *
+     * @param kt the value in kt.
+     * @return the rounded value, or the value itself if it is not finite.
+     */
+    public static double roundToMilli(double kt) {
+        if (Double.isNaN(kt) || Double.isInfinite(kt)) {
+            return kt;
+        }
+
+        return fromMilli(toMilli(kt));
+    }
+
+    /**
+     * Formats a value in kt with three decimal places and the grouping and decimal separators of a locale,
+     * e.g. "1,234.500" for English or "1.234,500" for German.
+     *
+     * @param kt     the value in kt.
+     * @param locale the locale.
+     * @return the formatted value.
+     */
+    public static String format(double kt, Locale locale) {
+        if (Double.isNaN(kt) || Double.isInfinite(kt)) {
+            return Double.toString(kt);
+        }
+
+        char[] separators = SEPARATORS.computeIfAbsent(locale, EmissionValueFormat::loadSeparators);
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        append(buffer, toMilli(kt), separators[0], separators[1]);
+
+        return buffer.toString();
+    }
+
+    /**
+     * Formats a value in kt with three decimal places, a dot as decimal separator and no grouping,
+     * e.g. "1234.500", as used in CSV and other machine-readable output.
+     *
+     * @param kt the value in kt.
+     * @return the formatted value.
+     */
+    public static String formatPlain(double kt) {
+        if (Double.isNaN(kt) || Double.isInfinite(kt)) {
+            return Double.toString(kt);
+        }
+
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        append(buffer, toMilli(kt), (char) 0, '.');
+
+        return buffer.toString();
+    }
+
+    /**
+     * Appends a fixed-point value in milli-kt to a buffer.
+     *
+     * @param buffer    the buffer.
+     * @param milli     the value in milli-kt.
+     * @param grouping  the grouping separator, or 0 for no grouping.
+     * @param decimal   the decimal separator.
+     */
+    public static void append(StringBuilder buffer, long milli, char grouping, char decimal) {
+        if (milli < 0) {
+            buffer.append('-');
+            milli = -milli;
+        }
+
+        appendInteger(buffer, milli / MILLI_PER_KT, grouping);
+        buffer.append(decimal);
+        appendPadded(buffer, (int) (milli % MILLI_PER_KT));
+    }
+
+    /**
+     * Appends the integer part of a value, grouped in thousands.
+     *
+     * @param buffer   the buffer.
+     * @param integer  the non-negative integer part.
+     * @param grouping the grouping separator, or 0 for no grouping.
+     */
+    private static void appendInteger(StringBuilder buffer, long integer, char grouping) {
+        if (integer < 1000 || 0 == grouping) {
+            buffer.append(integer);
+            return;
+        }
+
+        appendInteger(buffer, integer / 1000, grouping);
+        buffer.append(grouping);
+        appendPadded(buffer, (int) (integer % 1000));
+    }
+
+    /**
+     * Appends a number between 0 and 999 with three digits.
+     *
+     * @param buffer the buffer.
+     * @param value  the number.
+     */
+    private static void appendPadded(StringBuilder buffer, int value) {
+        if (value < 100) {
+            buffer.append('0');
+        }
+        if (value < 10) {
+            buffer.append('0');
+        }
+        buffer.append(value);
+    }
+
+    /**
+     * Loads the grouping and decimal separators of a locale.
+     *
+     * @param locale the locale.
+     * @return an array with the grouping and the decimal separator.
+     */
+    private static char[] loadSeparators(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        return new char[] { symbols.getGroupingSeparator(), symbols.getDecimalSeparator() };
+    }
+}
@@ -0,0 +1,68 @@
+package org.sustainability.likeherotozero.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Filter settings of an export of approved emission data.
+ * An empty set of countries exports all countries; unset dates do not restrict the export.
+ */
+public class ExportFilter implements Serializable {
+
+    private final Set<Integer> countryIds;
+    private final Date reportedFrom;
+    private final Date reportedTo;
+
+    /**
+     * Creates new filter settings.
+     *
+     * @param countryIds   the IDs of the countries to export, or an empty set for all countries.
+     * @param reportedFrom the earliest reported date to export, or null for no lower bound.
+     * @param reportedTo   the latest reported date to export, or null for no upper bound.
+     */
+    public ExportFilter(Set<Integer> countryIds, Date reportedFrom, Date reportedTo) {
+        this.countryIds = Collections.unmodifiableSet(new TreeSet<>(countryIds));
+        this.reportedFrom = reportedFrom;
+        this.reportedTo = reportedTo;
+    }
+
+    /**
+     * Gets the IDs of the countries to export.
+     *
+     * @return an unmodifiable, sorted set of country IDs; empty for all countries.
+     */
+    public Set<Integer> getCountryIds() {
+        return countryIds;
+    }
+
+    /**
+     * Gets the earliest reported date to export.
+     *
+     * @return the earliest reported date, or null for no lower bound.
+     */
+    public Date getReportedFrom() {
+        return reportedFrom;
+    }
+
+    /**
+     * Gets the latest reported date to export.
+     *
+     * @return the latest reported date, or null for no upper bound.
+     */
+    public Date getReportedTo() {
+        return reportedTo;
+    }
+
+    /**
+     * Builds a string describing the filter settings.
+     *
+     * @return the filter settings as a string.
+     */
+    @Override
+    public String toString() {
+        return countryIds + "|" + (null == reportedFrom ? null : reportedFrom.getTime()) + "|" + (null == reportedTo ? null : reportedTo.getTime());
+    }
+}
@@ -0,0 +1,95 @@
+package org.sustainability.likeherotozero.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram with fixed bucket bounds for values recorded concurrently on hot paths, e.g. latencies in nanoseconds.
+ * Every bucket and the sum are {@link LongAdder}s, so recording is lock-free and threads incrementing the same bucket
+ * update different cells instead of contending on one counter.
+ */
+public final class Histogram {
+
+    private final long[] upperBounds;
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Creates a new histogram. A value falls into the first bucket whose upper bound is greater than or equal to it;
+     * larger values fall into an additional overflow bucket.
+     *
+     * @param upperBounds the inclusive upper bounds of the buckets in ascending order.
+     */
+    public Histogram(long... upperBounds) {
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new IllegalArgumentException("Upper bounds must be ascending: " + Arrays.toString(upperBounds));
+            }
+        }
+
+        this.upperBounds = upperBounds.clone();
+        this.buckets = new LongAdder[upperBounds.length + 1];
+
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value.
+     */
+    public void record(long value) {
+        int index = Arrays.binarySearch(upperBounds, value);
+        buckets[index >= 0 ? index : -index - 1].increment();
+        sum.add(value);
+    }
+
+    /**
+     * Gets the number of buckets with an upper bound, excluding the overflow bucket.
+     *
+     * @return the number of bounded buckets.
+     */
+    public int getBucketCount() {
+        return upperBounds.length;
+    }
+
+    /**
+     * Gets the upper bound of a bucket.
+     *
+     * @param bucket the index of the bucket.
+     * @return the inclusive upper bound.
+     */
+    public long getUpperBound(int bucket) {
+        return upperBounds[bucket];
+    }
+
+    /**
+     * Takes a snapshot of the cumulative counts, as they are exposed by Prometheus.
+     * Element i is the number of values less than or equal to the upper bound of bucket i;
+     * the last element is the number of all values.
+     *
+     * @return the cumulative counts, one more than {@link #getBucketCount()}.
+     */
+    public long[] getCumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            counts[i] = total;
+        }
+
+        return counts;
+    }
+
+    /**
+     * Gets the sum of all recorded values. Under concurrent recording it may not match a snapshot of the counts exactly.
+     *
+     * @return the sum.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+}
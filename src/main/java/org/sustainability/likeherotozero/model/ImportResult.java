@@ -0,0 +1,159 @@
+package org.sustainability.likeherotozero.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of an emission data import: the number of imported rows and a report of the rejected rows.
+ * At most {@link #MAX_REPORTED_ROWS} rejected rows are kept in the report, each shortened to
+ * {@link #MAX_LINE_LENGTH} characters; all of them are counted.
+ */
+public class ImportResult implements Serializable {
+
+    /**
+     * The maximum number of rejected rows kept in the report.
+     */
+    public static final int MAX_REPORTED_ROWS = 10000;
+
+    /**
+     * The maximum number of characters of a rejected line kept in the report.
+     */
+    public static final int MAX_LINE_LENGTH = 200;
+
+    private int importedCount;
+    private int rejectedCount;
+    private final List<RejectedRow> rejectedRows = new ArrayList<>();
+
+    /**
+     * Adds to the number of imported rows.
+     *
+     * @param count the number of rows that were imported.
+     */
+    public void addImported(int count) {
+        this.importedCount += count;
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param lineNumber the line number of the row in the file.
+     * @param line       the content of the line.
+     * @param reason     the reason why the row was rejected.
+     */
+    public void addRejected(long lineNumber, String line, String reason) {
+        this.rejectedCount++;
+
+        if (rejectedRows.size() < MAX_REPORTED_ROWS) {
+            String reported = line.length() > MAX_LINE_LENGTH ? line.substring(0, MAX_LINE_LENGTH) + "..." : line;
+            rejectedRows.add(new RejectedRow(lineNumber, reported, reason));
+        }
+    }
+
+    /**
+     * Gets the number of imported rows.
+     *
+     * @return the number of imported rows.
+     */
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * Gets the number of rejected rows.
+     *
+     * @return the number of rejected rows.
+     */
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Gets the reported rejected rows, ordered by line number.
+     *
+     * @return an unmodifiable list of {@link RejectedRow} instances.
+     */
+    public List<RejectedRow> getRejectedRows() {
+        List<RejectedRow> sorted = new ArrayList<>(rejectedRows);
+        sorted.sort((a, b) -> Long.compare(a.getLineNumber(), b.getLineNumber()));
+        return Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Builds the report of rejected rows as CSV with the columns line, reason and content.
+     *
+     * @return the report as CSV.
+     */
+    public String toRejectedRowReport() {
+        StringBuilder report = new StringBuilder("line,reason,content\n");
+
+        for (RejectedRow row : getRejectedRows()) {
+            report.append(row.getLineNumber()).append(',')
+                    .append(quote(row.getReason())).append(',')
+                    .append(quote(row.getLine())).append('\n');
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Quotes a value for CSV.
+     *
+     * @param value the value to quote.
+     * @return the quoted value.
+     */
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * A row of the imported file that was rejected.
+     */
+    public static class RejectedRow implements Serializable {
+
+        private final long lineNumber;
+        private final String line;
+        private final String reason;
+
+        /**
+         * Creates a new rejected row.
+         *
+         * @param lineNumber the line number of the row in the file.
+         * @param line       the content of the line.
+         * @param reason     the reason why the row was rejected.
+         */
+        public RejectedRow(long lineNumber, String line, String reason) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets the line number of the row in the file.
+         *
+         * @return the line number.
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Gets the content of the line.
+         *
+         * @return the content of the line.
+         */
+        public String getLine() {
+            return line;
+        }
+
+        /**
+         * Gets the reason why the row was rejected.
+         *
+         * @return the reason.
+         */
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.sustainability.likeherotozero.model;
+
+import org.primefaces.model.FilterMeta;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortMeta;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for lazy data models that page with keyset (seek) pagination instead of offsets.
+ * The last row of every loaded page is remembered as the cursor of the following page, so paging forward
+ * only reads the rows of the requested page. Pages without a known cursor, e.g. when jumping to the last page,
+ * fall back to an offset.
+ *
+ * @param <T> the type of the rows.
+ */
+public abstract class KeysetLazyDataModel<T> extends LazyDataModel<T> {
+
+    /**
+     * The maximum number of remembered cursors.
+     */
+    private static final int MAX_CURSORS = 64;
+
+    /**
+     * Cursors by the index of the first row of the page they lead to.
+     * The cursors are only an optimization and are not kept when the view is serialized.
+     */
+    private transient Map<Integer, T> cursors;
+
+    /**
+     * The sort and filter settings the remembered cursors belong to.
+     */
+    private String cursorSignature;
+
+    /**
+     * Loads one page of rows.
+     *
+     * @param after    the last row of the previous page, or null if unknown.
+     * @param offset   the number of rows to skip; 0 if a cursor is given.
+     * @param pageSize the maximum number of rows to load.
+     * @param sort     the sort settings, or null to use the default order.
+     * @param filterBy the filter settings.
+     * @return the rows of the page.
+     */
+    protected abstract List<T> loadPage(T after, int offset, int pageSize, SortMeta sort, Map<String, FilterMeta> filterBy);
+
+    @Override
+    public List<T> load(int first, int pageSize, Map<String, SortMeta> sortBy, Map<String, FilterMeta> filterBy) {
+        SortMeta sort = sortBy.values().stream().findFirst().orElse(null);
+        Map<Integer, T> cursors = getCursors(signature(sort, filterBy));
+
+        T after = 0 == first ? null : cursors.get(first);
+        List<T> page = loadPage(after, null == after ? first : 0, pageSize, sort, filterBy);
+
+        if (!page.isEmpty()) {
+            cursors.put(first + page.size(), page.get(page.size() - 1));
+        }
+
+        return page;
+    }
+
+    /**
+     * Forgets all remembered cursors, e.g. after rows were added or removed.
+     */
+    public void resetCursors() {
+        if (null != cursors) {
+            cursors.clear();
+        }
+    }
+
+    /**
+     * Gets the remembered cursors, discarding them if the sort or filter settings changed.
+     *
+     * @param signature the current sort and filter settings.
+     * @return the cursors for the current settings.
+     */
+    private Map<Integer, T> getCursors(String signature) {
+        if (null == cursors) {
+            cursors = new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                    return size() > MAX_CURSORS;
+                }
+            };
+        }
+
+        if (!signature.equals(cursorSignature)) {
+            cursors.clear();
+            cursorSignature = signature;
+        }
+
+        return cursors;
+    }
+
+    /**
+     * Builds a string describing the sort and filter settings.
+     *
+     * @param sort     the sort settings.
+     * @param filterBy the filter settings.
+     * @return the signature of the settings.
+     */
+    private static String signature(SortMeta sort, Map<String, FilterMeta> filterBy) {
+        StringBuilder signature = new StringBuilder();
+
+        if (null != sort) {
+            signature.append(sort.getField()).append(' ').append(sort.getOrder());
+        }
+
+        for (FilterMeta filter : filterBy.values()) {
+            signature.append('|').append(filter.getField()).append('=').append(filter.getFilterValue());
+        }
+
+        return signature.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package org.sustainability.likeherotozero.model;
+
+import java.io.Serializable;
+
+/**
+ * Position of one country in the emissions leaderboard of a window of years.
+ * The total covers the years of the window up to the newest reported date, and the previous total covers the same
+ * days of the years directly before, up to the last reported day of the country. There is no previous total if the
+ * country did not report in every year of both periods.
+ */
+public class LeaderboardEntry implements Serializable {
+
+    private final int countryId;
+    private final String countryCode;
+    private final String countryName;
+    private final long totalMilli;
+    private final Long previousTotalMilli;
+
+    /**
+     * Creates a new entry.
+     *
+     * @param countryId          the ID of the country.
+     * @param countryCode        the ISO 3166-1 alpha-3 code of the country.
+     * @param countryName        the name of the country.
+     * @param totalMilli         the total of the window in milli-kt.
+     * @param previousTotalMilli the total of the preceding window in milli-kt, or null if the windows are not comparable.
+     */
+    public LeaderboardEntry(int countryId, String countryCode, String countryName, long totalMilli, Long previousTotalMilli) {
+        this.countryId = countryId;
+        this.countryCode = countryCode;
+        this.countryName = countryName;
+        this.totalMilli = totalMilli;
+        this.previousTotalMilli = previousTotalMilli;
+    }
+
+    /**
+     * Gets the ID of the country.
+     *
+     * @return the ID of the country.
+     */
+    public int getCountryId() {
+        return countryId;
+    }
+
+    /**
+     * Gets the ISO 3166-1 alpha-3 code of the country.
+     *
+     * @return the country code.
+     */
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    /**
+     * Gets the name of the country.
+     *
+     * @return the name of the country.
+     */
+    public String getCountryName() {
+        return countryName;
+    }
+
+    /**
+     * Gets the total of the window in milli-kt.
+     *
+     * @return the total in milli-kt.
+     */
+    public long getTotalMilli() {
+        return totalMilli;
+    }
+
+    /**
+     * Gets the total of the window.
+     *
+     * @return the total in kt.
+     */
+    public double getTotal() {
+        return EmissionValueFormat.fromMilli(totalMilli);
+    }
+
+    /**
+     * Gets the total of the preceding window.
+     *
+     * @return the total in kt, or null if there is no data for the preceding window.
+     */
+    public Double getPreviousTotal() {
+        return null == previousTotalMilli ? null : EmissionValueFormat.fromMilli(previousTotalMilli);
+    }
+
+    /**
+     * Checks if the entry can be compared with the preceding window.
+     *
+     * @return true if there is data for the preceding window, false otherwise.
+     */
+    public boolean hasPreviousTotal() {
+        return null != previousTotalMilli;
+    }
+
+    /**
+     * Gets the change compared to the preceding window in milli-kt.
+     *
+     * @return the change in milli-kt, negative for a reduction, or 0 if there is no data for the preceding window.
+     */
+    public long getChangeMilli() {
+        return null == previousTotalMilli ? 0 : totalMilli - previousTotalMilli;
+    }
+
+    /**
+     * Gets the change compared to the preceding window.
+     *
+     * @return the change in kt, or null if there is no data for the preceding window.
+     */
+    public Double getChange() {
+        return null == previousTotalMilli ? null : EmissionValueFormat.fromMilli(totalMilli - previousTotalMilli);
+    }
+}
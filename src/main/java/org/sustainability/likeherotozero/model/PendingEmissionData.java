@@ -0,0 +1,124 @@
+package org.sustainability.likeherotozero.model;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Read-only projection of an unapproved {@link org.sustainability.likeherotozero.entity.EmissionData} entry
+ * for the approval queue. It carries the country name and the submitter's username, so the queue can be
+ * rendered without loading the country and user entities of every row.
+ */
+public class PendingEmissionData implements Serializable {
+
+    private final int id;
+    private final int countryId;
+    private final String countryName;
+    private final Date reportedFor;
+    private final double value;
+    private final Date createdAt;
+    private final String createdBy;
+
+    /**
+     * Creates a new entry; used by JPQL constructor expressions.
+     *
+     * @param id          the ID of the emission data.
+     * @param countryId   the ID of the country.
+     * @param countryName the name of the country.
+     * @param reportedFor the date for which the emission data is reported.
+     * @param value       the emission value.
+     * @param createdAt   the timestamp when the emission data was created.
+     * @param createdBy   the username of the submitter, or null if unknown.
+     */
+    public PendingEmissionData(int id, int countryId, String countryName, Date reportedFor, double value, Date createdAt, String createdBy) {
+        this.id = id;
+        this.countryId = countryId;
+        this.countryName = countryName;
+        this.reportedFor = reportedFor;
+        this.value = value;
+        this.createdAt = createdAt;
+        this.createdBy = createdBy;
+    }
+
+    /**
+     * Gets the ID of the emission data.
+     *
+     * @return the ID of the emission data.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the ID of the country.
+     *
+     * @return the ID of the country.
+     */
+    public int getCountryId() {
+        return countryId;
+    }
+
+    /**
+     * Gets the name of the country.
+     *
+     * @return the name of the country.
+     */
+    public String getCountryName() {
+        return countryName;
+    }
+
+    /**
+     * Gets the date for which the emission data is reported.
+     *
+     * @return the reported date.
+     */
+    public Date getReportedFor() {
+        return reportedFor;
+    }
+
+    /**
+     * Gets the emission value.
+     *
+     * @return the emission value.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the emission value as fixed-point milli-kt, e.g. for exact sums.
+     *
+     * @return the emission value in milli-kt.
+     */
+    public long getValueMilli() {
+        return EmissionValueFormat.toMilli(value);
+    }
+
+    /**
+     * Gets the emission value rounded to three decimal places as a formatted string in the default locale.
+     * Views should use the emissionValueConverter instead, which formats in the locale of the view.
+     *
+     * @return the rounded emission value as a string.
+     */
+    public String getRoundedValue() {
+        return EmissionValueFormat.format(value, Locale.getDefault());
+    }
+
+    /**
+     * Gets the timestamp when the emission data was created.
+     *
+     * @return the creation timestamp.
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Gets the username of the submitter.
+     *
+     * @return the username, or null if unknown.
+     */
+    public String getCreatedBy() {
+        return createdBy;
+    }
+}
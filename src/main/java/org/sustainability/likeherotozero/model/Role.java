@@ -0,0 +1,54 @@
+package org.sustainability.likeherotozero.model;
+
+/**
+ * Roles a user can be granted, mapped to the names of the {@link org.sustainability.likeherotozero.entity.UserRole} entries.
+ * The granted roles of a user are kept as an {@link java.util.EnumSet}, so checking a role is a single bit test.
+ */
+public enum Role {
+
+    /**
+     * Scientists create, edit and import emission data.
+     */
+    SCIENTIST("ROLE_SCIENTIST"),
+
+    /**
+     * Publishers approve or reject emission data.
+     */
+    PUBLISHER("ROLE_PUBLISHER");
+
+    private final String roleName;
+
+    /**
+     * Creates a new role.
+     *
+     * @param roleName the name of the role in the database.
+     */
+    Role(String roleName) {
+        this.roleName = roleName;
+    }
+
+    /**
+     * Gets the name of the role in the database.
+     *
+     * @return the name of the role.
+     */
+    public String getRoleName() {
+        return roleName;
+    }
+
+    /**
+     * Finds the role with the given name in the database.
+     *
+     * @param roleName the name of the role.
+     * @return the {@link Role}, or null if the name is unknown.
+     */
+    public static Role fromRoleName(String roleName) {
+        for (Role role : values()) {
+            if (role.roleName.equals(roleName)) {
+                return role;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,51 @@
+package org.sustainability.likeherotozero.model;
+
+import java.time.LocalDate;
+
+/**
+ * Granularity of the pre-aggregated emission data buckets.
+ * A period is encoded as an int: the year (e.g. 2023) for {@link #YEAR} and year * 100 + month
+ * (e.g. 202303) for {@link #MONTH}, so periods sort chronologically.
+ */
+public enum RollupGranularity {
+
+    /**
+     * One bucket per calendar year.
+     */
+    YEAR,
+
+    /**
+     * One bucket per calendar month.
+     */
+    MONTH;
+
+    /**
+     * Gets the period a date belongs to.
+     *
+     * @param date the date.
+     * @return the encoded period.
+     */
+    public int periodOf(LocalDate date) {
+        return YEAR == this ? date.getYear() : date.getYear() * 100 + date.getMonthValue();
+    }
+
+    /**
+     * Gets the first day of a period.
+     *
+     * @param period the encoded period.
+     * @return the first day.
+     */
+    public LocalDate firstDayOf(int period) {
+        return YEAR == this ? LocalDate.of(period, 1, 1) : LocalDate.of(period / 100, period % 100, 1);
+    }
+
+    /**
+     * Gets the last day of a period.
+     *
+     * @param period the encoded period.
+     * @return the last day.
+     */
+    public LocalDate lastDayOf(int period) {
+        return YEAR == this ? LocalDate.of(period, 12, 31) : firstDayOf(period).plusMonths(1).minusDays(1);
+    }
+}
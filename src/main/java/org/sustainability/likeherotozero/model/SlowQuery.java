@@ -0,0 +1,127 @@
+package org.sustainability.likeherotozero.model;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A SQL statement that took longer than the threshold of the slow-query log, with the values bound to its parameters,
+ * the DAO method that issued it and, for the first occurrence of its shape, optionally its execution plan.
+ */
+public class SlowQuery implements Serializable {
+
+    private final Date executedAt;
+    private final String sql;
+    private final String shape;
+    private final List<String> parameters;
+    private final long durationNanos;
+    private final long rows;
+    private final String caller;
+    private final String plan;
+
+    /**
+     * Creates a new slow query.
+     *
+     * @param executedAt    the time the statement was executed.
+     * @param sql           the SQL of the statement.
+     * @param shape         the shape of the statement, i.e. the SQL with literals replaced by placeholders.
+     * @param parameters    the formatted values of the parameters in order, with passwords redacted.
+     * @param durationNanos the duration of the execution and of reading the result in nanoseconds.
+     * @param rows          the number of rows read or changed, or -1 if unknown.
+     * @param caller        the DAO method that issued the statement, or null if unknown.
+     * @param plan          the execution plan, or null if none was requested.
+     */
+    public SlowQuery(Date executedAt, String sql, String shape, List<String> parameters, long durationNanos, long rows,
+                     String caller, String plan) {
+        this.executedAt = executedAt;
+        this.sql = sql;
+        this.shape = shape;
+        this.parameters = List.copyOf(parameters);
+        this.durationNanos = durationNanos;
+        this.rows = rows;
+        this.caller = caller;
+        this.plan = plan;
+    }
+
+    /**
+     * Gets the time the statement was executed.
+     *
+     * @return the time of execution.
+     */
+    public Date getExecutedAt() {
+        return executedAt;
+    }
+
+    /**
+     * Gets the SQL of the statement.
+     *
+     * @return the SQL.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Gets the shape of the statement, i.e. the SQL with literals replaced by placeholders.
+     *
+     * @return the shape.
+     */
+    public String getShape() {
+        return shape;
+    }
+
+    /**
+     * Gets the values bound to the parameters of the statement.
+     *
+     * @return an unmodifiable {@link List} of the formatted values in order, with passwords redacted.
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Gets the duration of the execution and of reading the result.
+     *
+     * @return the duration in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Gets the duration of the execution and of reading the result.
+     *
+     * @return the duration in milliseconds.
+     */
+    public double getDurationMillis() {
+        return (double) durationNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Gets the number of rows read or changed.
+     *
+     * @return the number of rows, or -1 if unknown.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the DAO method that issued the statement.
+     *
+     * @return the class and method name, or null if unknown.
+     */
+    public String getCaller() {
+        return caller;
+    }
+
+    /**
+     * Gets the execution plan of the statement.
+     *
+     * @return the output of EXPLAIN, or null if none was requested for this occurrence.
+     */
+    public String getPlan() {
+        return plan;
+    }
+}
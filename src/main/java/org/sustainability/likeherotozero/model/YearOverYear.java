@@ -0,0 +1,72 @@
+package org.sustainability.likeherotozero.model;
+
+import java.io.Serializable;
+
+/**
+ * Total emissions of a country in one year compared to the previous year.
+ */
+public class YearOverYear implements Serializable {
+
+    private final int year;
+    private final double total;
+    private final Double previousTotal;
+
+    /**
+     * Creates a new comparison.
+     *
+     * @param year          the year.
+     * @param total         the total of the year in kt.
+     * @param previousTotal the total of the previous year in kt, or null if there is no data for the previous year.
+     */
+    public YearOverYear(int year, double total, Double previousTotal) {
+        this.year = year;
+        this.total = total;
+        this.previousTotal = previousTotal;
+    }
+
+    /**
+     * Gets the year.
+     *
+     * @return the year.
+     */
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Gets the total of the year.
+     *
+     * @return the total in kt.
+     */
+    public double getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the total of the previous year.
+     *
+     * @return the total in kt, or null if there is no data for the previous year.
+     */
+    public Double getPreviousTotal() {
+        return previousTotal;
+    }
+
+    /**
+     * Gets the change compared to the previous year.
+     *
+     * @return the change in kt, or null if there is no data for the previous year.
+     */
+    public Double getDelta() {
+        return null == previousTotal ? null : EmissionValueFormat.roundToMilli(total - previousTotal);
+    }
+
+    /**
+     * Gets the relative change compared to the previous year.
+     *
+     * @return the change as a fraction of the previous total (e.g. -0.05 for a 5 % reduction),
+     * or null if there is no data for the previous year or its total is 0.
+     */
+    public Double getDeltaRatio() {
+        return null == previousTotal || 0 == previousTotal ? null : (total - previousTotal) / previousTotal;
+    }
+}
@@ -0,0 +1,169 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.model.ComparisonMatrix;
+import org.sustainability.likeherotozero.model.EmissionSeries;
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
+import org.sustainability.likeherotozero.model.RollupGranularity;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Service class responsible for comparing the approved emission data of several countries side by side.
+ * The series of all countries are taken from the {@link EmissionSeriesStore} at once, so a comparison of many
+ * countries costs no more database round trips than one of a single country, and are aligned on a common date axis.
+ */
+@ApplicationScoped
+public class ComparisonService implements Serializable {
+
+    /**
+     * The largest number of countries in one comparison.
+     */
+    public static final int MAX_COUNTRIES = 50;
+
+    @Inject
+    private EmissionSeriesStore emissionSeriesStore;
+
+    /**
+     * Compares the approved emission data of countries within a date range.
+     * Without a granularity, the axis consists of every date any of the countries reported a value for.
+     * With a granularity, the values are summed per year or month and the axis consists of the first days of the periods.
+     *
+     * @param countryIds  the IDs of the countries, in the order of the rows; at most {@link #MAX_COUNTRIES}.
+     * @param from        the first date (inclusive), or null for no lower bound.
+     * @param to          the last date (inclusive), or null for no upper bound.
+     * @param granularity the granularity to sum the values by, or null to compare the reported values.
+     * @return the {@link ComparisonMatrix}.
+     * @throws IllegalArgumentException if there are more than {@link #MAX_COUNTRIES} countries.
+     */
+    public ComparisonMatrix compare(Collection<Integer> countryIds, LocalDate from, LocalDate to, RollupGranularity granularity) {
+        Set<Integer> distinctIds = new LinkedHashSet<>(countryIds);
+
+        if (distinctIds.size() > MAX_COUNTRIES) {
+            throw new IllegalArgumentException("At most " + MAX_COUNTRIES + " countries can be compared");
+        }
+
+        Map<Integer, EmissionSeries> series = emissionSeriesStore.getSeries(distinctIds);
+        int rows = series.size();
+        int[] ids = new int[rows];
+        long[] lastModified = new long[rows];
+        int[] sourceSizes = new int[rows];
+        int[][] rowDays = new int[rows][];
+        long[][] rowValues = new long[rows][];
+        int axisCapacity = 0;
+        int row = 0;
+
+        for (EmissionSeries countrySeries : series.values()) {
+            EmissionSeries slice = countrySeries.slice(from, to);
+            ids[row] = countrySeries.getCountryId();
+            lastModified[row] = countrySeries.getLastModified();
+            sourceSizes[row] = countrySeries.getSourceSize();
+            rowDays[row] = slice.copyEpochDays();
+            rowValues[row] = toMilli(slice);
+
+            if (null != granularity) {
+                bucket(rowDays, rowValues, row, granularity);
+            }
+
+            axisCapacity += rowDays[row].length;
+            row++;
+        }
+
+        int[] axis = mergeAxis(rowDays, axisCapacity);
+        double[] values = new double[rows * axis.length];
+        Arrays.fill(values, Double.NaN);
+
+        for (row = 0; row < rows; row++) {
+            int[] days = rowDays[row];
+            int column = 0;
+
+            // Both the row and the axis are sorted, so one pass places every value in its column
+            for (int i = 0; i < days.length; i++) {
+                while (axis[column] != days[i]) {
+                    column++;
+                }
+                values[row * axis.length + column] = EmissionValueFormat.fromMilli(rowValues[row][i]);
+            }
+        }
+
+        return new ComparisonMatrix(ids, axis, values, lastModified, sourceSizes);
+    }
+
+    /**
+     * Converts the values of a series to milli-kt, so sums do not drift.
+     *
+     * @param series the series.
+     * @return the values in milli-kt.
+     */
+    private static long[] toMilli(EmissionSeries series) {
+        long[] milli = new long[series.size()];
+
+        for (int i = 0; i < milli.length; i++) {
+            milli[i] = EmissionValueFormat.toMilli(series.getValue(i));
+        }
+
+        return milli;
+    }
+
+    /**
+     * Sums the values of a row per period, replacing the dates with the first days of the periods.
+     * Values reported for the same date are summed as well.
+     *
+     * @param rowDays     the dates of all rows as epoch days.
+     * @param rowValues   the values of all rows in milli-kt.
+     * @param row         the row to bucket.
+     * @param granularity the granularity.
+     */
+    private static void bucket(int[][] rowDays, long[][] rowValues, int row, RollupGranularity granularity) {
+        int[] days = rowDays[row];
+        long[] values = rowValues[row];
+        int size = 0;
+
+        for (int i = 0; i < days.length; i++) {
+            LocalDate date = LocalDate.ofEpochDay(days[i]);
+            int periodStart = (int) granularity.firstDayOf(granularity.periodOf(date)).toEpochDay();
+
+            if (size > 0 && days[size - 1] == periodStart) {
+                values[size - 1] += values[i];
+            } else {
+                days[size] = periodStart;
+                values[size] = values[i];
+                size++;
+            }
+        }
+
+        rowDays[row] = Arrays.copyOf(days, size);
+        rowValues[row] = Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Merges the sorted dates of all rows into one sorted axis without duplicates.
+     *
+     * @param rowDays  the dates of all rows as epoch days.
+     * @param capacity the total number of dates of all rows.
+     * @return the dates of the axis as epoch days.
+     */
+    private static int[] mergeAxis(int[][] rowDays, int capacity) {
+        int[] all = new int[capacity];
+        int offset = 0;
+
+        for (int[] days : rowDays) {
+            System.arraycopy(days, 0, all, offset, days.length);
+            offset += days.length;
+        }
+
+        Arrays.sort(all);
+        int size = 0;
+
+        for (int i = 0; i < all.length; i++) {
+            if (0 == size || all[size - 1] != all[i]) {
+                all[size++] = all[i];
+            }
+        }
+
+        return Arrays.copyOf(all, size);
+    }
+}
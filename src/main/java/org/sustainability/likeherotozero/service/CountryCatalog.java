@@ -0,0 +1,138 @@
+package org.sustainability.likeherotozero.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Named;
+
+import java.io.Serializable;
+import java.text.Collator;
+import java.util.*;
+
+/**
+ * Immutable catalog of the countries a user can select, built once when the application starts.
+ * Each country is represented by one {@link Locale} of the JDK. The display names of the countries are precomputed
+ * and sorted for every supported UI language, so the country picker does not compute anything per request
+ * and the views only reference this application-scoped bean instead of holding their own copy.
+ */
+@Named
+@ApplicationScoped
+public class CountryCatalog implements Serializable {
+
+    /**
+     * The UI languages display names are precomputed for. Other languages fall back to the first one.
+     */
+    public static final List<Locale> SUPPORTED_LANGUAGES = List.of(Locale.ENGLISH, Locale.GERMAN);
+
+    private Map<String, Locale> localesByCountry;
+    private Map<String, List<Entry>> entriesByLanguage;
+
+    /**
+     * Builds the catalog from the available locales of the JDK.
+     */
+    @PostConstruct
+    public void init() {
+        // One locale per country; sorting by tag picks the same one on every start
+        Map<String, Locale> locales = new HashMap<>();
+        Arrays.stream(Locale.getAvailableLocales())
+                .filter(locale -> !locale.getCountry().isEmpty()) // Filter out locales without countries
+                .sorted(Comparator.comparing(Locale::toLanguageTag))
+                .forEach(locale -> locales.putIfAbsent(locale.getCountry(), locale));
+
+        Map<String, List<Entry>> entries = new HashMap<>();
+
+        for (Locale language : SUPPORTED_LANGUAGES) {
+            Collator collator = Collator.getInstance(language);
+            List<Entry> languageEntries = new ArrayList<>(locales.size());
+
+            for (Locale locale : locales.values()) {
+                languageEntries.add(new Entry(locale.getCountry(), locale.getDisplayCountry(language)));
+            }
+
+            languageEntries.sort((a, b) -> collator.compare(a.getDisplayName(), b.getDisplayName()));
+            entries.put(language.getLanguage(), Collections.unmodifiableList(languageEntries));
+        }
+
+        this.localesByCountry = Collections.unmodifiableMap(locales);
+        this.entriesByLanguage = Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Initializes the catalog when the application starts instead of on the first request.
+     *
+     * @param event the application context initialization event.
+     */
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        // Delivering the event creates the bean, which builds the catalog in init()
+    }
+
+    /**
+     * Gets the countries with their display names in a UI language, sorted by display name.
+     *
+     * @param uiLocale the locale of the UI; unsupported languages fall back to English.
+     * @return an unmodifiable list of {@link Entry} instances.
+     */
+    public List<Entry> getEntries(Locale uiLocale) {
+        List<Entry> entries = null == uiLocale ? null : entriesByLanguage.get(uiLocale.getLanguage());
+        return null == entries ? entriesByLanguage.get(SUPPORTED_LANGUAGES.get(0).getLanguage()) : entries;
+    }
+
+    /**
+     * Finds the locale representing a country.
+     *
+     * @param countryCode the ISO 3166-1 alpha-2 code of the country.
+     * @return the {@link Locale}, or null if the country is not in the catalog.
+     */
+    public Locale findLocale(String countryCode) {
+        return null == countryCode ? null : localesByCountry.get(countryCode);
+    }
+
+    /**
+     * Checks if a country is in the catalog.
+     *
+     * @param countryCode the ISO 3166-1 alpha-2 code of the country.
+     * @return true if the country can be selected, false otherwise.
+     */
+    public boolean contains(String countryCode) {
+        return null != findLocale(countryCode);
+    }
+
+    /**
+     * Immutable entry of the catalog: a country and its display name in one UI language.
+     */
+    public static final class Entry implements Serializable {
+
+        private final String countryCode;
+        private final String displayName;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param countryCode the ISO 3166-1 alpha-2 code of the country.
+         * @param displayName the display name of the country.
+         */
+        public Entry(String countryCode, String displayName) {
+            this.countryCode = countryCode;
+            this.displayName = displayName;
+        }
+
+        /**
+         * Gets the ISO 3166-1 alpha-2 code of the country.
+         *
+         * @return the country code.
+         */
+        public String getCountryCode() {
+            return countryCode;
+        }
+
+        /**
+         * Gets the display name of the country.
+         *
+         * @return the display name.
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+}
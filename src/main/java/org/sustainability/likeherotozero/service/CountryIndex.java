@@ -0,0 +1,239 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.entity.Country;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Immutable snapshot of all countries, indexed by ID, ISO 3166-1 alpha-3 code and
+ * ISO 3166-1 alpha-2 code (the country of a {@link Locale}).
+ * A snapshot is never modified after it was built; changes are published by building a new one.
+ */
+public final class CountryIndex implements Serializable {
+
+    /**
+     * An index without any countries.
+     */
+    public static final CountryIndex EMPTY = new CountryIndex(Collections.emptyList());
+
+    /**
+     * Maps ISO 3166-1 alpha-3 codes to alpha-2 codes for all countries known to the JDK.
+     */
+    private static final Map<String, String> ISO3_TO_ISO2 = createIso3ToIso2Map();
+
+    private final List<Entry> entries;
+    private final Map<Integer, Entry> byId;
+    private final Map<String, Entry> byCode;
+    private final Map<String, Entry> byLocaleCountry;
+    private final long fingerprint;
+
+    /**
+     * Creates an index for the given entries.
+     *
+     * @param entries the entries to index.
+     */
+    private CountryIndex(List<Entry> entries) {
+        Map<Integer, Entry> byId = new HashMap<>();
+        Map<String, Entry> byCode = new HashMap<>();
+        Map<String, Entry> byLocaleCountry = new HashMap<>();
+
+        for (Entry entry : entries) {
+            byId.put(entry.getId(), entry);
+            byCode.put(entry.getCode(), entry);
+
+            if (null != entry.getLocaleCountry()) {
+                byLocaleCountry.put(entry.getLocaleCountry(), entry);
+            }
+        }
+
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+        this.byId = Collections.unmodifiableMap(byId);
+        this.byCode = Collections.unmodifiableMap(byCode);
+        this.byLocaleCountry = Collections.unmodifiableMap(byLocaleCountry);
+        this.fingerprint = fingerprint(entries);
+    }
+
+    /**
+     * Builds a new index from the given countries.
+     *
+     * @param countries the countries to index.
+     * @return the new {@link CountryIndex}.
+     */
+    public static CountryIndex of(Collection<Country> countries) {
+        List<Entry> entries = new ArrayList<>(countries.size());
+
+        for (Country country : countries) {
+            entries.add(new Entry(country.getId(), country.getName(), country.getCode(), ISO3_TO_ISO2.get(country.getCode())));
+        }
+
+        return new CountryIndex(entries);
+    }
+
+    /**
+     * Gets the entry of the country with the given ID.
+     *
+     * @param id the ID of the country.
+     * @return the {@link Entry}, or null if no country with the ID exists.
+     */
+    public Entry findById(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Gets the entry of the country with the given ISO 3166-1 alpha-3 code.
+     *
+     * @param code the code of the country.
+     * @return the {@link Entry}, or null if no country with the code exists.
+     */
+    public Entry findByCode(String code) {
+        return null == code ? null : byCode.get(code);
+    }
+
+    /**
+     * Gets the entry of the country with the given ISO 3166-1 alpha-2 code, as returned by {@link Locale#getCountry()}.
+     *
+     * @param localeCountry the alpha-2 code of the country.
+     * @return the {@link Entry}, or null if no country with the code exists.
+     */
+    public Entry findByLocaleCountry(String localeCountry) {
+        return null == localeCountry ? null : byLocaleCountry.get(localeCountry);
+    }
+
+    /**
+     * Checks if a country with the given ID exists.
+     *
+     * @param id the ID of the country.
+     * @return true if the country exists, false otherwise.
+     */
+    public boolean containsId(int id) {
+        return byId.containsKey(id);
+    }
+
+    /**
+     * Gets all entries of the index.
+     *
+     * @return an unmodifiable list of {@link Entry} instances.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets the number of countries in the index.
+     *
+     * @return the number of countries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets a fingerprint of the content of the index. Indexes with the same countries have the same fingerprint,
+     * so it can be used to validate cached responses.
+     *
+     * @return the fingerprint.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Computes the fingerprint of the given entries from their IDs, names and codes.
+     *
+     * @param entries the entries.
+     * @return the fingerprint.
+     */
+    private static long fingerprint(List<Entry> entries) {
+        long fingerprint = entries.size();
+
+        for (Entry entry : entries) {
+            fingerprint = 31 * fingerprint + entry.getId();
+            fingerprint = 31 * fingerprint + Objects.hashCode(entry.getName());
+            fingerprint = 31 * fingerprint + Objects.hashCode(entry.getCode());
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Builds the mapping of ISO 3166-1 alpha-3 codes to alpha-2 codes.
+     *
+     * @return the mapping.
+     */
+    private static Map<String, String> createIso3ToIso2Map() {
+        Map<String, String> map = new HashMap<>();
+
+        for (String iso2 : Locale.getISOCountries()) {
+            try {
+                map.put(new Locale("", iso2).getISO3Country(), iso2);
+            } catch (MissingResourceException e) {
+                // No alpha-3 code available for this country
+            }
+        }
+
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Immutable entry of the index describing one country.
+     */
+    public static final class Entry implements Serializable {
+
+        private final int id;
+        private final String name;
+        private final String code;
+        private final String localeCountry;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param id            the ID of the country.
+         * @param name          the name of the country.
+         * @param code          the ISO 3166-1 alpha-3 code of the country.
+         * @param localeCountry the ISO 3166-1 alpha-2 code of the country, or null if unknown.
+         */
+        public Entry(int id, String name, String code, String localeCountry) {
+            this.id = id;
+            this.name = name;
+            this.code = code;
+            this.localeCountry = localeCountry;
+        }
+
+        /**
+         * Gets the ID of the country.
+         *
+         * @return the ID of the country.
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Gets the name of the country.
+         *
+         * @return the name of the country.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the ISO 3166-1 alpha-3 code of the country.
+         *
+         * @return the code of the country.
+         */
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * Gets the ISO 3166-1 alpha-2 code of the country.
+         *
+         * @return the alpha-2 code, or null if unknown.
+         */
+        public String getLocaleCountry() {
+            return localeCountry;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.entity.Country;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Service class holding the application-wide {@link CountryIndex}.
+ * The index is loaded on first use and replaced as a whole by {@link #rebuild()},
+ * so readers always see a consistent snapshot without any locking.
+ */
+@ApplicationScoped
+public class CountryIndexService implements Serializable {
+
+    @Inject
+    private EntityManagerService entityManagerService;
+
+    private volatile CountryIndex index;
+
+    /**
+     * Gets the current snapshot of the country index, loading it on first use.
+     *
+     * @return the current {@link CountryIndex}.
+     */
+    public CountryIndex getIndex() {
+        CountryIndex current = this.index;
+
+        if (null == current) {
+            synchronized (this) {
+                if (null == this.index) {
+                    this.index = load();
+                }
+                current = this.index;
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Reloads all countries from the database and atomically replaces the current snapshot.
+     * Must be called whenever country data has changed.
+     */
+    public void rebuild() {
+        CountryIndex rebuilt = load();
+
+        synchronized (this) {
+            this.index = rebuilt;
+        }
+    }
+
+    /**
+     * Loads all countries from the database into a new {@link CountryIndex}.
+     *
+     * @return the new {@link CountryIndex}.
+     */
+    private CountryIndex load() {
+        EntityManager entityManager = entityManagerService.createEntityManager();
+
+        try {
+            List<Country> countries = entityManager.createQuery("SELECT c FROM Country c", Country.class).getResultList();
+            return CountryIndex.of(countries);
+        } finally {
+            entityManager.close();
+        }
+    }
+}
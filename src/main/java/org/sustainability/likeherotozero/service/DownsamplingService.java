@@ -0,0 +1,136 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.model.DownsamplingMethod;
+import org.sustainability.likeherotozero.model.EmissionSeries;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Service class responsible for reducing long emission series to a limited number of points for charts and the API.
+ * Downsampled series are cached per country, date range, number of points and method. The key contains the version
+ * of the source series, so a reloaded series is never answered from the cache; outdated entries are evicted
+ * as the least recently used ones.
+ */
+@ApplicationScoped
+public class DownsamplingService implements Serializable {
+
+    /**
+     * The largest number of points a series can be downsampled to.
+     */
+    public static final int MAX_POINTS = 5000;
+
+    /**
+     * The maximum number of downsampled series kept in the cache.
+     */
+    private static final int MAX_CACHE_ENTRIES = 1000;
+
+    private final Map<Key, EmissionSeries> cache = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, EmissionSeries> eldest) {
+            return size() > MAX_CACHE_ENTRIES;
+        }
+    });
+
+    @Inject
+    private EmissionSeriesStore emissionSeriesStore;
+
+    /**
+     * Gets the approved emission data of a country within a date range, reduced to at most the given number of points.
+     *
+     * @param countryId the ID of the country.
+     * @param from      the first date (inclusive), or null for no lower bound.
+     * @param to        the last date (inclusive), or null for no upper bound.
+     * @param points    the maximum number of points, between {@link DownsamplingMethod#MIN_POINTS} and {@link #MAX_POINTS}.
+     * @param method    the downsampling method.
+     * @return the downsampled {@link EmissionSeries}, with the version of the source series.
+     * @throws IllegalArgumentException if the number of points is out of range.
+     */
+    public EmissionSeries downsample(int countryId, LocalDate from, LocalDate to, int points, DownsamplingMethod method) {
+        if (points < DownsamplingMethod.MIN_POINTS || points > MAX_POINTS) {
+            throw new IllegalArgumentException("Points must be between " + DownsamplingMethod.MIN_POINTS + " and " + MAX_POINTS);
+        }
+
+        EmissionSeries series = emissionSeriesStore.getSeries(countryId);
+        EmissionSeries slice = series.slice(from, to);
+
+        if (slice.size() <= points) {
+            return slice;
+        }
+
+        Key key = new Key(countryId, series.getVersion(), from, to, points, method);
+        EmissionSeries downsampled = cache.get(key);
+
+        if (null == downsampled) {
+            // Computed outside of the lock; concurrent requests for the same key compute the same result
+            downsampled = method.downsample(slice, points);
+            cache.put(key, downsampled);
+        }
+
+        return downsampled;
+    }
+
+    /**
+     * Key of a downsampled series in the cache.
+     */
+    private static final class Key {
+
+        private final int countryId;
+        private final long version;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final int points;
+        private final DownsamplingMethod method;
+
+        /**
+         * Creates a new key.
+         *
+         * @param countryId the ID of the country.
+         * @param version   the version of the source series.
+         * @param from      the first date, or null.
+         * @param to        the last date, or null.
+         * @param points    the maximum number of points.
+         * @param method    the downsampling method.
+         */
+        private Key(int countryId, long version, LocalDate from, LocalDate to, int points, DownsamplingMethod method) {
+            this.countryId = countryId;
+            this.version = version;
+            this.from = from;
+            this.to = to;
+            this.points = points;
+            this.method = method;
+        }
+
+        /**
+         * Checks if this key is equal to another object.
+         *
+         * @param o the object to compare with.
+         * @return true if the keys are equal, false otherwise.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Key) {
+                Key b = (Key) o;
+                return b.countryId == this.countryId && b.version == this.version && Objects.equals(b.from, this.from)
+                        && Objects.equals(b.to, this.to) && b.points == this.points && b.method == this.method;
+            }
+            return false;
+        }
+
+        /**
+         * Computes the hash code of this key.
+         *
+         * @return the hash code.
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(countryId, version, from, to, points, method);
+        }
+    }
+}
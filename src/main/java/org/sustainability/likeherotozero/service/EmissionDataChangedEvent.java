@@ -0,0 +1,33 @@
+package org.sustainability.likeherotozero.service;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * CDI event fired by {@link EmissionDataService} once per committed change of emission data.
+ * Observers use it to invalidate or update everything derived from the emission data of the affected countries
+ * in a single step, no matter how many rows the change touched.
+ */
+public class EmissionDataChangedEvent {
+
+    private final Set<Integer> countryIds;
+
+    /**
+     * Creates a new event.
+     *
+     * @param countryIds the IDs of the countries whose emission data changed.
+     */
+    public EmissionDataChangedEvent(Set<Integer> countryIds) {
+        this.countryIds = Collections.unmodifiableSet(new HashSet<>(countryIds));
+    }
+
+    /**
+     * Gets the IDs of the countries whose emission data changed.
+     *
+     * @return an unmodifiable set of country IDs.
+     */
+    public Set<Integer> getCountryIds() {
+        return countryIds;
+    }
+}
@@ -0,0 +1,393 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.entity.User;
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
+import org.sustainability.likeherotozero.model.ImportResult;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.Session;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Service class responsible for importing {@link EmissionData} from CSV files with the columns
+ * country code (ISO 3166-1 alpha-3), date (yyyy-MM-dd) and value (kt).
+ * The file is streamed in chunks of the configured JDBC batch size. Each chunk is validated in parallel,
+ * checked for duplicates and written with one JDBC batch in its own transaction. Only the current chunk is kept
+ * in memory: duplicates of rows of earlier chunks are found in the database, where those rows were already
+ * committed, and the report keeps at most {@link ImportResult#MAX_REPORTED_ROWS} shortened rejected rows.
+ * Imported rows are unapproved and attributed to the uploading user.
+ */
+@ApplicationScoped
+public class EmissionDataImportService implements Serializable {
+
+    /**
+     * The number of rows per chunk if hibernate.jdbc.batch_size is not configured.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO EmissionData (approved, country_id, createdAt, createdBy_id, reportedFor, updatedAt, value) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Inject
+    private EntityManagerService entityManagerService;
+
+    @Inject
+    private CountryIndexService countryIndexService;
+
+    /**
+     * Imports emission data from a CSV file. A header line is skipped.
+     *
+     * @param input the CSV file.
+     * @param user  the user who uploaded the file.
+     * @return the {@link ImportResult} with the number of imported rows and the rejected rows.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportResult importCsv(InputStream input, User user) throws IOException {
+        ImportResult result = new ImportResult();
+        EntityManager entityManager = entityManagerService.createEntityManager();
+        int batchSize = getBatchSize();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<Row> chunk = new ArrayList<>(batchSize);
+            String line;
+            long lineNumber = 0;
+
+            while (null != (line = reader.readLine())) {
+                lineNumber++;
+
+                if (line.isBlank() || (1 == lineNumber && isHeader(line))) {
+                    continue;
+                }
+
+                chunk.add(new Row(lineNumber, line));
+
+                if (chunk.size() == batchSize) {
+                    importChunk(entityManager, chunk, user, result);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                importChunk(entityManager, chunk, user, result);
+            }
+        } finally {
+            entityManager.close();
+        }
+
+        return result;
+    }
+
+    /**
+     * Validates and imports one chunk of rows.
+     *
+     * @param entityManager the {@link EntityManager} of the import.
+     * @param chunk         the rows of the chunk.
+     * @param user          the user who uploaded the file.
+     * @param result        the result to record imported and rejected rows.
+     */
+    private void importChunk(EntityManager entityManager, List<Row> chunk, User user, ImportResult result) {
+        CountryIndex countryIndex = countryIndexService.getIndex();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        // Parsing and validating single rows is independent, so it runs in parallel
+        chunk.parallelStream().forEach(row -> row.parse(countryIndex, today));
+
+        List<Row> valid = new ArrayList<>(chunk.size());
+        Set<Long> keysInChunk = new HashSet<>();
+
+        for (Row row : chunk) {
+            if (null != row.error) {
+                result.addRejected(row.lineNumber, row.line, row.error);
+            } else if (!keysInChunk.add(row.key())) {
+                result.addRejected(row.lineNumber, row.line, "Duplicate entry in file!");
+            } else {
+                valid.add(row);
+            }
+        }
+
+        Set<Long> existingKeys = findExistingKeys(entityManager, valid);
+        List<Row> rows = new ArrayList<>(valid.size());
+
+        for (Row row : valid) {
+            if (existingKeys.contains(row.key())) {
+                result.addRejected(row.lineNumber, row.line, "There is already an entry for this date!");
+            } else {
+                rows.add(row);
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            insert(entityManager, rows, user, result);
+        }
+
+        entityManager.clear();
+    }
+
+    /**
+     * Finds which of the given rows already exist in the database.
+     *
+     * @param entityManager the {@link EntityManager} of the import.
+     * @param rows          the rows to check.
+     * @return the keys (country and date) of the rows that already exist.
+     */
+    private Set<Long> findExistingKeys(EntityManager entityManager, List<Row> rows) {
+        if (rows.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<Integer> countryIds = rows.stream().map(row -> row.countryId).collect(Collectors.toSet());
+        LocalDate from = rows.stream().map(row -> row.reportedFor).min(LocalDate::compareTo).get();
+        LocalDate to = rows.stream().map(row -> row.reportedFor).max(LocalDate::compareTo).get();
+
+        List<Object[]> existing = entityManager.createQuery("SELECT e.country.id, e.reportedFor FROM EmissionData e " +
+                        "WHERE e.country.id IN :countryIds AND e.reportedFor BETWEEN :from AND :to", Object[].class)
+                .setParameter("countryIds", countryIds)
+                .setParameter("from", java.sql.Date.valueOf(from))
+                .setParameter("to", java.sql.Date.valueOf(to))
+                .getResultList();
+
+        Set<Long> keys = new HashSet<>();
+
+        for (Object[] entry : existing) {
+            LocalDate reportedFor = new java.sql.Date(((Date) entry[1]).getTime()).toLocalDate();
+            keys.add(key((Integer) entry[0], reportedFor));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Inserts rows with one JDBC batch in a transaction. If the batch fails, all of its rows are rejected.
+     *
+     * @param entityManager the {@link EntityManager} of the import.
+     * @param rows          the rows to insert.
+     * @param user          the user who uploaded the file.
+     * @param result        the result to record imported and rejected rows.
+     */
+    private void insert(EntityManager entityManager, List<Row> rows, User user, ImportResult result) {
+        EntityTransaction t = entityManager.getTransaction();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        t.begin();
+        try {
+            entityManager.unwrap(Session.class).doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                    for (Row row : rows) {
+                        statement.setBoolean(1, false);
+                        statement.setInt(2, row.countryId);
+                        statement.setTimestamp(3, now);
+                        if (null == user) {
+                            statement.setNull(4, Types.INTEGER);
+                        } else {
+                            statement.setInt(4, user.getId());
+                        }
+                        statement.setDate(5, java.sql.Date.valueOf(row.reportedFor));
+                        statement.setTimestamp(6, now);
+                        statement.setDouble(7, row.value);
+                        statement.addBatch();
+                    }
+
+                    statement.executeBatch();
+                }
+            });
+            t.commit();
+            result.addImported(rows.size());
+        } catch (RuntimeException e) {
+            if (t.isActive()) {
+                t.rollback();
+            }
+
+            for (Row row : rows) {
+                result.addRejected(row.lineNumber, row.line, "Could not be saved: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks if a line is a header line, i.e. its date column does not start with a digit.
+     *
+     * @param line the line to check.
+     * @return true if the line is a header, false otherwise.
+     */
+    private static boolean isHeader(String line) {
+        String[] columns = line.split("[,;]");
+        return columns.length > 1 && !columns[1].trim().replace("\"", "").matches("\\d.*");
+    }
+
+    /**
+     * Builds the key of a row from its country and date, used to detect duplicates.
+     *
+     * @param countryId   the ID of the country.
+     * @param reportedFor the reported date.
+     * @return the key.
+     */
+    private static long key(int countryId, LocalDate reportedFor) {
+        return ((long) countryId << 32) | (reportedFor.toEpochDay() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the configured JDBC batch size (hibernate.jdbc.batch_size).
+     *
+     * @return the batch size.
+     */
+    private int getBatchSize() {
+        Object configured = entityManagerService.getEntityManagerFactory().getProperties().get("hibernate.jdbc.batch_size");
+        return null == configured ? DEFAULT_BATCH_SIZE : Integer.parseInt(configured.toString());
+    }
+
+    /**
+     * A row of the imported file.
+     */
+    static final class Row {
+
+        private final long lineNumber;
+        private final String line;
+        private int countryId;
+        private LocalDate reportedFor;
+        private double value;
+        private String error;
+
+        /**
+         * Creates a new, not yet parsed row.
+         *
+         * @param lineNumber the line number of the row in the file.
+         * @param line       the content of the line.
+         */
+        Row(long lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+
+        /**
+         * Parses and validates the row. If the row is invalid, the error is set.
+         *
+         * @param countryIndex the index used to resolve the country code.
+         * @param today        the current date.
+         */
+        void parse(CountryIndex countryIndex, LocalDate today) {
+            String[] columns = line.split("[,;]");
+
+            if (3 != columns.length) {
+                this.error = "Expected 3 columns: country code, date, value!";
+                return;
+            }
+
+            CountryIndex.Entry country = countryIndex.findByCode(unquote(columns[0]).toUpperCase(Locale.ROOT));
+
+            if (null == country) {
+                this.error = "Unknown country code!";
+                return;
+            }
+
+            try {
+                this.reportedFor = LocalDate.parse(unquote(columns[1]));
+            } catch (DateTimeParseException e) {
+                this.error = "Invalid date, expected yyyy-MM-dd!";
+                return;
+            }
+
+            if (reportedFor.isAfter(today)) {
+                this.error = "Date must not be in the future!";
+                return;
+            }
+
+            try {
+                this.value = Double.parseDouble(unquote(columns[2]));
+            } catch (NumberFormatException e) {
+                this.error = "Invalid emission value!";
+                return;
+            }
+
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                this.error = "Invalid emission value!";
+                return;
+            }
+
+            if (value < 0) {
+                this.error = "Emission value must not be negative!";
+                return;
+            }
+
+            this.value = EmissionValueFormat.roundToMilli(value);
+            this.countryId = country.getId();
+        }
+
+        /**
+         * Gets the reason why the row is invalid.
+         *
+         * @return the error, or null if the row is valid.
+         */
+        String getError() {
+            return error;
+        }
+
+        /**
+         * Gets the ID of the country of a valid row.
+         *
+         * @return the ID of the country.
+         */
+        int getCountryId() {
+            return countryId;
+        }
+
+        /**
+         * Gets the reported date of a valid row.
+         *
+         * @return the reported date.
+         */
+        LocalDate getReportedFor() {
+            return reportedFor;
+        }
+
+        /**
+         * Gets the value of a valid row, rounded to three decimal places.
+         *
+         * @return the value in kt.
+         */
+        double getValue() {
+            return value;
+        }
+
+        /**
+         * Gets the key of the row from its country and date.
+         *
+         * @return the key.
+         */
+        private long key() {
+            return EmissionDataImportService.key(countryId, reportedFor);
+        }
+
+        /**
+         * Removes surrounding whitespace and quotes from a column.
+         *
+         * @param column the column.
+         * @return the unquoted column.
+         */
+        private static String unquote(String column) {
+            String trimmed = column.trim();
+
+            if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                return trimmed.substring(1, trimmed.length() - 1).trim();
+            }
+
+            return trimmed;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.dao.EmissionDataDAO;
+import org.sustainability.likeherotozero.dao.LatestEmissionDataDAO;
+import org.sustainability.likeherotozero.dao.SchemaMigrator;
+import org.sustainability.likeherotozero.entity.Country;
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.entity.User;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service class responsible for all changes to {@link EmissionData}.
+ * Every change runs in its own transaction and keeps the derived data, such as the
+ * {@link org.sustainability.likeherotozero.entity.LatestEmissionData} projection and the
+ * {@link org.sustainability.likeherotozero.entity.EmissionRollup} buckets, in sync.
+ * Every transaction first locks the latest emission data of the affected countries in ascending order, so changes
+ * of the same country are applied one after the other, and only then changes the emission data and its derived data.
+ * After a change was committed, one {@link EmissionDataChangedEvent} is fired for all affected countries.
+ */
+@ApplicationScoped
+public class EmissionDataService implements Serializable {
+
+    private static final Logger LOGGER = Logger.getLogger(EmissionDataService.class.getName());
+
+    @Inject
+    private EntityManager entityManager;
+
+    @Inject
+    private EmissionDataDAO emissionDataDAO;
+
+    @Inject
+    private LatestEmissionDataDAO latestEmissionDataDAO;
+
+    @Inject
+    private RollupService rollupService;
+
+    @Inject
+    private Event<EmissionDataChangedEvent> emissionDataChangedEvent;
+
+    /**
+     * Fills the latest emission data projection and the rollup buckets when the application starts with
+     * empty tables, e.g. after the tables were created. Each rebuild locks the row of the schema migration lock, so
+     * nodes starting at the same time rebuild once: a node that waited for the lock finds the table filled.
+     *
+     * @param event the application context initialization event.
+     */
+    @ActivateRequestContext
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        try {
+            if (latestEmissionDataDAO.isEmpty()) {
+                inTransaction(() -> {
+                    lockMigrations();
+
+                    if (latestEmissionDataDAO.isEmpty()) {
+                        latestEmissionDataDAO.rebuildAll();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not initialize the latest emission data projection", e);
+        }
+
+        try {
+            if (rollupService.isEmpty()) {
+                inTransaction(() -> {
+                    lockMigrations();
+
+                    if (rollupService.isEmpty()) {
+                        rollupService.rebuildAll();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not initialize the emission rollups", e);
+        }
+    }
+
+    /**
+     * Saves an EmissionData instance as unapproved.
+     * If the data is new, it sets the creator, the creation date and the country.
+     *
+     * @param emissionData the EmissionData instance to save.
+     * @param country      the country of new emission data.
+     * @param user         the user who saves the emission data.
+     */
+    public void save(EmissionData emissionData, Country country, User user) {
+        Date now = new Date();
+
+        if (0 == emissionData.getId()) {
+            emissionData.setCreatedBy(user);
+            emissionData.setCreatedAt(now);
+            emissionData.setCountry(country);
+        }
+
+        emissionData.setUpdatedAt(now);
+        emissionData.setApproved(false); // Set new entries as unapproved
+
+        inTransaction(() -> {
+            latestEmissionDataDAO.lock(emissionData.getCountry().getId());
+            // An approved entry becomes unapproved when it is edited, so its buckets lose the old value
+            List<Object[]> previouslyApproved = 0 == emissionData.getId()
+                    ? Collections.emptyList()
+                    : emissionDataDAO.findValuesByIds(Collections.singleton(emissionData.getId()), true);
+            EmissionData merged = entityManager.merge(emissionData);
+            latestEmissionDataDAO.refresh(merged.getCountry().getId());
+            rollupService.recompute(previouslyApproved);
+        });
+
+        emissionDataChangedEvent.fire(new EmissionDataChangedEvent(Collections.singleton(emissionData.getCountry().getId())));
+    }
+
+    /**
+     * Approves an EmissionData entry.
+     *
+     * @param emissionDataId the ID of the EmissionData entry to approve.
+     */
+    public void approve(int emissionDataId) {
+        approveAll(Collections.singleton(emissionDataId));
+    }
+
+    /**
+     * Approves EmissionData entries in one transaction with set-based updates.
+     *
+     * @param emissionDataIds the IDs of the EmissionData entries to approve.
+     */
+    public void approveAll(Collection<Integer> emissionDataIds) {
+        if (emissionDataIds.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> countryIds = inTransaction(() -> {
+            Set<Integer> affected = emissionDataDAO.findCountryIdsByIds(emissionDataIds);
+            lockLatest(affected);
+            List<Object[]> newlyApproved = emissionDataDAO.findValuesByIds(emissionDataIds, false);
+            emissionDataDAO.approveAll(emissionDataIds, new Date());
+            entityManager.clear(); // Bulk statements bypass the persistence context
+            affected.forEach(latestEmissionDataDAO::refresh);
+            rollupService.addApproved(newlyApproved);
+            return affected;
+        });
+
+        emissionDataChangedEvent.fire(new EmissionDataChangedEvent(countryIds));
+    }
+
+    /**
+     * Rejects (deletes) an EmissionData entry.
+     *
+     * @param emissionDataId the ID of the EmissionData entry to reject.
+     */
+    public void reject(int emissionDataId) {
+        rejectAll(Collections.singleton(emissionDataId));
+    }
+
+    /**
+     * Rejects (deletes) EmissionData entries in one transaction with set-based deletes.
+     *
+     * @param emissionDataIds the IDs of the EmissionData entries to reject.
+     */
+    public void rejectAll(Collection<Integer> emissionDataIds) {
+        if (emissionDataIds.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> countryIds = inTransaction(() -> {
+            Set<Integer> affected = emissionDataDAO.findCountryIdsByIds(emissionDataIds);
+            lockLatest(affected);
+            List<Object[]> previouslyApproved = emissionDataDAO.findValuesByIds(emissionDataIds, true);
+            emissionDataDAO.deleteAll(emissionDataIds);
+            entityManager.clear(); // Bulk statements bypass the persistence context
+            affected.forEach(latestEmissionDataDAO::refresh);
+            rollupService.recompute(previouslyApproved);
+            return affected;
+        });
+
+        emissionDataChangedEvent.fire(new EmissionDataChangedEvent(countryIds));
+    }
+
+    /**
+     * Locks the latest emission data of countries in ascending order of their IDs, the same in every transaction.
+     *
+     * @param countryIds the IDs of the countries.
+     */
+    private void lockLatest(Collection<Integer> countryIds) {
+        new TreeSet<>(countryIds).forEach(latestEmissionDataDAO::lock);
+    }
+
+    /**
+     * Locks the row of the schema migration lock until the end of the transaction, so one-off work at startup does
+     * not run on several nodes at once.
+     */
+    private void lockMigrations() {
+        entityManager.createNativeQuery(SchemaMigrator.LOCK_ROW_QUERY).getResultList();
+    }
+
+    /**
+     * Runs an action inside a transaction, which is rolled back if the action fails.
+     *
+     * @param action the action to run.
+     */
+    private void inTransaction(Runnable action) {
+        inTransaction(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs an action inside a transaction, which is rolled back if the action fails.
+     *
+     * @param action the action to run.
+     * @param <T>    the type of the result.
+     * @return the result of the action.
+     */
+    private <T> T inTransaction(Supplier<T> action) {
+        EntityTransaction t = entityManager.getTransaction();
+
+        t.begin();
+        try {
+            T result = action.get();
+            t.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (t.isActive()) {
+                t.rollback();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.dao.EmissionDataDAO;
+import org.sustainability.likeherotozero.dao.EmissionRollupDAO;
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.model.EmissionSeries;
+import org.sustainability.likeherotozero.model.RollupGranularity;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory store of the approved emission data of all countries as columnar {@link EmissionSeries}.
+ * The store is loaded once when the application starts and afterwards reloads the series of the countries named
+ * in every {@link EmissionDataChangedEvent}, so read-only time series queries do not hit the database or
+ * hydrate {@link EmissionData} entities. Series are immutable and replaced as a whole, so readers need no locking.
+ * <p>
+ * Changes made on other nodes raise no event here. Therefore, at most once per refresh interval, a read compares
+ * the version of every country's yearly rollups, which change in the transaction of every change of approved data,
+ * with the versions seen before and fires an {@link EmissionDataChangedEvent} for the countries that differ, so the
+ * store and everything computed from it catch up within the interval.
+ */
+@ApplicationScoped
+public class EmissionSeriesStore implements Serializable {
+
+    private static final Logger LOGGER = Logger.getLogger(EmissionSeriesStore.class.getName());
+
+    /**
+     * The number of rows fetched from the database at once while loading.
+     */
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * System property with the interval in seconds at which the store checks for changes made on other nodes;
+     * 0 disables the check.
+     */
+    public static final String REFRESH_PROPERTY = "likeherotozero.series.refreshSeconds";
+
+    private static final long DEFAULT_REFRESH_SECONDS = 30;
+
+    /**
+     * The version given to the next loaded series. It starts at the startup time, so versions are not reused
+     * across restarts and ETags derived from them stay unique.
+     */
+    private final AtomicLong nextVersion = new AtomicLong(System.currentTimeMillis());
+
+    private final Map<Integer, EmissionSeries> series = new ConcurrentHashMap<>();
+
+    /**
+     * The time in milliseconds at which the next check for changes is due.
+     */
+    private final AtomicLong nextRefresh = new AtomicLong();
+
+    private long refreshMillis;
+    private volatile Map<Integer, String> rollupVersions = Collections.emptyMap();
+
+    @Inject
+    private EmissionDataDAO emissionDataDAO;
+
+    @Inject
+    private EmissionRollupDAO emissionRollupDAO;
+
+    @Inject
+    private Event<EmissionDataChangedEvent> emissionDataChangedEvent;
+
+    /**
+     * Reads the configured refresh interval.
+     */
+    @PostConstruct
+    public void init() {
+        this.refreshMillis = Math.max(0, Long.getLong(REFRESH_PROPERTY, DEFAULT_REFRESH_SECONDS)) * 1000;
+        this.nextRefresh.set(System.currentTimeMillis() + refreshMillis);
+    }
+
+    /**
+     * Loads the series of all countries when the application starts.
+     *
+     * @param event the application context initialization event.
+     */
+    @ActivateRequestContext
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        try {
+            long start = System.nanoTime();
+            // The versions are read before the series, so a change in between is reloaded at the first check
+            rollupVersions = readRollupVersions();
+            int points = load(null);
+            LOGGER.info(() -> String.format("Loaded %d emission values of %d countries in %d ms",
+                    points, series.size(), (System.nanoTime() - start) / 1_000_000));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not load the emission series, they will be loaded on demand", e);
+        }
+    }
+
+    /**
+     * Reloads the series of the countries whose emission data changed.
+     *
+     * @param event the event naming the affected countries.
+     */
+    @ActivateRequestContext
+    public void onEmissionDataChanged(@Observes EmissionDataChangedEvent event) {
+        if (!event.getCountryIds().isEmpty()) {
+            load(event.getCountryIds());
+        }
+    }
+
+    /**
+     * Checks for changes made on other nodes if the refresh interval has passed since the last check.
+     * Only one caller performs a due check; all others return immediately. A {@link EmissionDataChangedEvent}
+     * is fired for the countries whose rollup version differs from the one seen at the last check.
+     */
+    @ActivateRequestContext
+    public void refreshIfDue() {
+        long now = System.currentTimeMillis();
+        long due = nextRefresh.get();
+
+        if (0 == refreshMillis || now < due || !nextRefresh.compareAndSet(due, now + refreshMillis)) {
+            return;
+        }
+
+        try {
+            Map<Integer, String> previous = rollupVersions;
+            Map<Integer, String> current = readRollupVersions();
+            Set<Integer> changed = new HashSet<>();
+
+            for (Map.Entry<Integer, String> entry : current.entrySet()) {
+                if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                    changed.add(entry.getKey());
+                }
+            }
+
+            for (Integer countryId : previous.keySet()) {
+                if (!current.containsKey(countryId)) {
+                    changed.add(countryId);
+                }
+            }
+
+            rollupVersions = current;
+
+            if (!changed.isEmpty()) {
+                LOGGER.fine(() -> String.format("Reloading the emission series of %d changed countries", changed.size()));
+                emissionDataChangedEvent.fire(new EmissionDataChangedEvent(changed));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not check the emission series for changes", e);
+        }
+    }
+
+    /**
+     * Gets the series of a country. A series that is not in the store yet is loaded on demand.
+     *
+     * @param countryId the ID of the country.
+     * @return the {@link EmissionSeries}, which is empty if the country has no approved emission data.
+     */
+    public EmissionSeries getSeries(int countryId) {
+        refreshIfDue();
+        EmissionSeries countrySeries = series.get(countryId);
+
+        if (null == countrySeries) {
+            load(Collections.singleton(countryId));
+            countrySeries = series.get(countryId);
+        }
+
+        return countrySeries;
+    }
+
+    /**
+     * Gets the series of several countries. Series that are not in the store yet are loaded together in one query.
+     *
+     * @param countryIds the IDs of the countries.
+     * @return a {@link Map} of the {@link EmissionSeries} by country ID, in the iteration order of the given IDs.
+     */
+    public Map<Integer, EmissionSeries> getSeries(Collection<Integer> countryIds) {
+        refreshIfDue();
+        Set<Integer> missing = new HashSet<>();
+
+        for (Integer countryId : countryIds) {
+            if (!series.containsKey(countryId)) {
+                missing.add(countryId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            load(missing);
+        }
+
+        Map<Integer, EmissionSeries> result = new LinkedHashMap<>();
+
+        for (Integer countryId : countryIds) {
+            result.put(countryId, series.get(countryId));
+        }
+
+        return result;
+    }
+
+    /**
+     * Loads the series of the given countries and replaces them in the store.
+     * A series is only replaced by a newer one, so concurrent reloads cannot bring back outdated data.
+     *
+     * @param countryIds the IDs of the countries, or null for all countries.
+     * @return the number of loaded values.
+     */
+    private int load(Set<Integer> countryIds) {
+        // The version is taken before reading, so a later load always sees at least the same commits
+        long version = nextVersion.incrementAndGet();
+        Map<Integer, EmissionSeries> loaded = new HashMap<>();
+        int points = 0;
+
+        try (Stream<Object[]> rows = emissionDataDAO.streamApprovedValues(countryIds, FETCH_SIZE)) {
+            SeriesBuilder builder = null;
+
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                int countryId = (Integer) row[0];
+
+                if (null == builder || builder.countryId != countryId) {
+                    if (null != builder) {
+                        loaded.put(builder.countryId, builder.build(version));
+                    }
+                    builder = new SeriesBuilder(countryId);
+                }
+
+                builder.add(toEpochDay((Date) row[1]), (Double) row[2], ((Date) row[3]).getTime());
+                points++;
+            }
+
+            if (null != builder) {
+                loaded.put(builder.countryId, builder.build(version));
+            }
+        }
+
+        // Countries without approved data get an empty series, so they are not loaded again on every request
+        if (null != countryIds) {
+            for (Integer countryId : countryIds) {
+                loaded.putIfAbsent(countryId, EmissionSeries.empty(countryId, version));
+            }
+        }
+
+        for (EmissionSeries countrySeries : loaded.values()) {
+            series.merge(countrySeries.getCountryId(), countrySeries,
+                    (current, replacement) -> replacement.getVersion() > current.getVersion() ? replacement : current);
+        }
+
+        return points;
+    }
+
+    /**
+     * Reads the version of the yearly rollups of every country.
+     *
+     * @return a {@link Map} of the newest update time and the number of values, joined to a string, by country ID.
+     */
+    private Map<Integer, String> readRollupVersions() {
+        Map<Integer, String> versions = new HashMap<>();
+
+        for (Object[] row : emissionRollupDAO.findVersions(RollupGranularity.YEAR)) {
+            versions.put((Integer) row[0], ((Date) row[1]).getTime() + "/" + row[2]);
+        }
+
+        return versions;
+    }
+
+    /**
+     * Converts a reported date read from the database to an epoch day.
+     *
+     * @param date the date.
+     * @return the epoch day.
+     */
+    private static int toEpochDay(Date date) {
+        java.sql.Date sqlDate = date instanceof java.sql.Date ? (java.sql.Date) date : new java.sql.Date(date.getTime());
+        return (int) sqlDate.toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Collects the values of one country into growing primitive arrays.
+     */
+    private static class SeriesBuilder {
+
+        private final int countryId;
+        private int[] epochDays = new int[16];
+        private double[] values = new double[16];
+        private int size;
+        private long lastModified = -1;
+
+        /**
+         * Creates a new builder.
+         *
+         * @param countryId the ID of the country.
+         */
+        SeriesBuilder(int countryId) {
+            this.countryId = countryId;
+        }
+
+        /**
+         * Adds a value. Values must be added in ascending order of their dates.
+         *
+         * @param epochDay  the reported date as epoch day.
+         * @param value     the value in kt.
+         * @param updatedAt the update time of the value in milliseconds.
+         */
+        void add(int epochDay, double value, long updatedAt) {
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            epochDays[size] = epochDay;
+            values[size] = value;
+            size++;
+            lastModified = Math.max(lastModified, updatedAt);
+        }
+
+        /**
+         * Builds the series with arrays trimmed to the number of values.
+         *
+         * @param version the version of the series.
+         * @return the {@link EmissionSeries}.
+         */
+        EmissionSeries build(long version) {
+            return new EmissionSeries(countryId, version, lastModified, Arrays.copyOf(epochDays, size), Arrays.copyOf(values, size));
+        }
+    }
+}
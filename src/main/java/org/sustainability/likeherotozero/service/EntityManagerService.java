@@ -1,42 +1,132 @@
 package org.sustainability.likeherotozero.service;
 
+import org.sustainability.likeherotozero.dao.SchemaMigrator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Service class responsible for managing the {@link EntityManager} instances used in the application.
- * This class provides a centralized way to obtain an {@link EntityManager} for database operations.
- * It is scoped to the application, meaning it will be available throughout the application's lifecycle.
+ * It owns the single {@link EntityManagerFactory} (and therefore the JDBC connection pool configured in
+ * persistence.xml) and produces one {@link EntityManager} per HTTP request, which is closed when the request ends.
+ * Before the factory is created, the {@link SchemaMigrator} brings the schema up to date.
  */
 @ApplicationScoped
 public class EntityManagerService implements Serializable {
 
-    private final EntityManagerFactory emf;
+    /**
+     * Prefixes of system properties that are passed to the persistence unit as overrides,
+     * e.g. {@code -Dhibernate.hikari.maximumPoolSize=50} or {@code -Djakarta.persistence.jdbc.url=...}.
+     */
+    private static final String[] OVERRIDE_PREFIXES = { "hibernate.", "jakarta.persistence." };
+
+    /**
+     * System property disabling the schema migration at startup, e.g. where the schema is managed otherwise.
+     */
+    public static final String MIGRATE_PROPERTY = "likeherotozero.migration.enabled";
+
+    private EntityManagerFactory emf;
+
+    /**
+     * Initializes the EntityManagerService by migrating the schema and creating an {@link EntityManagerFactory} with
+     * the "default" persistence unit. Settings from persistence.xml can be overridden by system properties.
+     */
+    @PostConstruct
+    public void init() {
+        Map<String, Object> overrides = getOverrides();
+
+        if (Boolean.parseBoolean(System.getProperty(MIGRATE_PROPERTY, "true"))) {
+            new SchemaMigrator(overrides).migrate();
+        }
+
+        this.emf = Persistence.createEntityManagerFactory("default", overrides);
+    }
+
+    /**
+     * Closes the {@link EntityManagerFactory} and with it the connection pool when the application shuts down.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (null != emf && emf.isOpen()) {
+            emf.close();
+        }
+    }
+
+    /**
+     * Produces the {@link EntityManager} for the current request.
+     * Every request gets its own persistence context, so concurrent requests never share one.
+     *
+     * @return a new {@link EntityManager} bound to the current request.
+     */
+    @Produces
+    @RequestScoped
+    public EntityManager produceEntityManager() {
+        return emf.createEntityManager();
+    }
+
+    /**
+     * Closes the request's {@link EntityManager} at the end of the request and rolls back a
+     * transaction that was left open, so the connection is returned to the pool.
+     *
+     * @param entityManager the {@link EntityManager} to close.
+     */
+    public void closeEntityManager(@Disposes EntityManager entityManager) {
+        if (!entityManager.isOpen()) {
+            return;
+        }
 
-    private EntityManager em;
+        if (entityManager.getTransaction().isActive()) {
+            entityManager.getTransaction().rollback();
+        }
+
+        entityManager.close();
+    }
 
     /**
-     * Initializes the EntityManagerService by creating an {@link EntityManagerFactory} with the "default" persistence unit.
+     * Creates a new {@link EntityManager} that is not bound to a request, e.g. for work done at startup
+     * or in background threads. The caller is responsible for closing it.
+     *
+     * @return a new {@link EntityManager}.
      */
-    public EntityManagerService() {
-        this.emf = Persistence.createEntityManagerFactory("default");
+    public EntityManager createEntityManager() {
+        return emf.createEntityManager();
     }
 
     /**
-     * Provides an {@link EntityManager} for interacting with the database.
-     * If the current EntityManager is null or closed, a new instance is created.
+     * Gets the {@link EntityManagerFactory} of the "default" persistence unit.
      *
-     * @return the current {@link EntityManager} instance.
+     * @return the {@link EntityManagerFactory}.
      */
-    public EntityManager getEntityManager() {
-        if (null == em || !em.isOpen()) {
-            this.em = emf.createEntityManager();
+    public EntityManagerFactory getEntityManagerFactory() {
+        return emf;
+    }
+
+    /**
+     * Collects the system properties that override settings of the persistence unit.
+     *
+     * @return a map of property overrides.
+     */
+    private static Map<String, Object> getOverrides() {
+        Map<String, Object> overrides = new HashMap<>();
+
+        for (String name : System.getProperties().stringPropertyNames()) {
+            for (String prefix : OVERRIDE_PREFIXES) {
+                if (name.startsWith(prefix)) {
+                    overrides.put(name, System.getProperty(name));
+                }
+            }
         }
 
-        return this.em;
+        return overrides;
     }
-}
\ No newline at end of file
+}
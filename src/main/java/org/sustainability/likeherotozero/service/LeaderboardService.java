@@ -0,0 +1,460 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.model.EmissionSeries;
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
+import org.sustainability.likeherotozero.model.LeaderboardEntry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service class responsible for the emissions leaderboard: the top emitters and the biggest reducers of all countries
+ * for windows of years ending with the newest reported date. The latest year is usually still in progress, so each
+ * country is compared with the same days of the preceding window, up to the day it last reported, and only countries
+ * that reported in every year of both windows are compared at all. Every window keeps its rankings in sorted skip
+ * lists, so reading the top entries does not compute anything, and a change of one country only moves that country's
+ * entries in O(log n). Everything is rebuilt only when the newest reported date changes.
+ * The rankings are computed from the {@link EmissionSeriesStore} and updated on every {@link EmissionDataChangedEvent}.
+ * Reads let the store check for changes made on other nodes first, which fires such an event when it finds one.
+ */
+@ApplicationScoped
+public class LeaderboardService implements Serializable {
+
+    private static final Logger LOGGER = Logger.getLogger(LeaderboardService.class.getName());
+
+    /**
+     * System property with the comma-separated window lengths in years, e.g. {@code 1,5,10}.
+     */
+    public static final String WINDOWS_PROPERTY = "likeherotozero.leaderboard.windows";
+
+    /**
+     * The largest number of entries returned by one request.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    private static final List<Integer> DEFAULT_WINDOWS = List.of(1, 5, 10);
+
+    /**
+     * Observers of this service run after those of {@link EmissionSeriesStore}, which have the default priority,
+     * so they see the reloaded series.
+     */
+    private static final int OBSERVER_PRIORITY = Interceptor.Priority.APPLICATION + 600;
+
+    private static final Comparator<LeaderboardEntry> BY_TOTAL = Comparator.comparingLong(LeaderboardEntry::getTotalMilli)
+            .reversed()
+            .thenComparingInt(LeaderboardEntry::getCountryId);
+
+    private static final Comparator<LeaderboardEntry> BY_CHANGE = Comparator.comparingLong(LeaderboardEntry::getChangeMilli)
+            .thenComparingInt(LeaderboardEntry::getCountryId);
+
+    private final Map<Integer, LocalDate> latestDates = new ConcurrentHashMap<>();
+    private final Map<Integer, EmissionSeries> sources = new ConcurrentHashMap<>();
+
+    private List<Integer> windows;
+    private volatile Map<Integer, Ranking> rankings = Collections.emptyMap();
+    private volatile LocalDate latestDate;
+    private volatile long lastModified = -1;
+    private volatile String version = "";
+
+    @Inject
+    private EmissionSeriesStore emissionSeriesStore;
+
+    @Inject
+    private CountryIndexService countryIndexService;
+
+    /**
+     * Reads the configured windows.
+     */
+    @PostConstruct
+    public void init() {
+        this.windows = parseWindows(System.getProperty(WINDOWS_PROPERTY));
+    }
+
+    /**
+     * Builds the rankings when the application starts.
+     *
+     * @param event the application context initialization event.
+     */
+    @ActivateRequestContext
+    public void onStartup(@Observes @Priority(OBSERVER_PRIORITY) @Initialized(ApplicationScoped.class) Object event) {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not build the leaderboard", e);
+        }
+    }
+
+    /**
+     * Moves the entries of the countries whose emission data changed.
+     * If the change moves the newest reported date, all rankings are rebuilt instead.
+     *
+     * @param event the event naming the affected countries.
+     */
+    @ActivateRequestContext
+    public synchronized void onEmissionDataChanged(@Observes @Priority(OBSERVER_PRIORITY) EmissionDataChangedEvent event) {
+        Map<Integer, EmissionSeries> changed = new HashMap<>();
+
+        for (Integer countryId : event.getCountryIds()) {
+            EmissionSeries series = emissionSeriesStore.getSeries(countryId);
+            changed.put(countryId, series);
+            updateCountry(countryId, series);
+        }
+
+        if (!Objects.equals(computeLatestDate(), latestDate)) {
+            rebuild();
+            return;
+        }
+
+        CountryIndex index = countryIndexService.getIndex();
+
+        for (Ranking ranking : rankings.values()) {
+            for (Map.Entry<Integer, EmissionSeries> entry : changed.entrySet()) {
+                ranking.put(entry.getKey(), createEntry(index.findById(entry.getKey()), entry.getValue(), ranking.window, latestDate));
+            }
+        }
+
+        updateVersion();
+    }
+
+    /**
+     * Rebuilds all rankings from the series of all countries.
+     */
+    public synchronized void rebuild() {
+        CountryIndex index = countryIndexService.getIndex();
+        Map<Integer, EmissionSeries> allSeries = new HashMap<>();
+        latestDates.clear();
+        sources.clear();
+
+        for (CountryIndex.Entry country : index.getEntries()) {
+            EmissionSeries series = emissionSeriesStore.getSeries(country.getId());
+            allSeries.put(country.getId(), series);
+            updateCountry(country.getId(), series);
+        }
+
+        LocalDate date = computeLatestDate();
+        Map<Integer, Ranking> rebuilt = new LinkedHashMap<>();
+
+        for (int window : windows) {
+            Ranking ranking = new Ranking(window);
+
+            for (CountryIndex.Entry country : index.getEntries()) {
+                ranking.put(country.getId(), createEntry(country, allSeries.get(country.getId()), window, date));
+            }
+
+            rebuilt.put(window, ranking);
+        }
+
+        this.latestDate = date;
+        this.rankings = Collections.unmodifiableMap(rebuilt);
+        updateVersion();
+    }
+
+    /**
+     * Gets the configured windows.
+     *
+     * @return an unmodifiable list of window lengths in years, in ascending order.
+     */
+    public List<Integer> getWindows() {
+        return windows;
+    }
+
+    /**
+     * Checks if a window is configured.
+     *
+     * @param window the window length in years.
+     * @return true if the window is configured, false otherwise.
+     */
+    public boolean hasWindow(int window) {
+        return windows.contains(window);
+    }
+
+    /**
+     * Gets the latest year with approved emission data of any country, which is the last year of every window.
+     *
+     * @return the latest year, or 0 if there is no approved emission data.
+     */
+    public int getLatestYear() {
+        LocalDate date = latestDate;
+        return null == date ? 0 : date.getYear();
+    }
+
+    /**
+     * Gets the newest reported date of any country, which is the last day of every window.
+     *
+     * @return the newest reported date, or null if there is no approved emission data.
+     */
+    public LocalDate getLatestDate() {
+        return latestDate;
+    }
+
+    /**
+     * Gets the version of the rankings, built from the newest update time and the number of the approved values
+     * they were computed from. It is the same on every node with the same data and changes whenever the values change.
+     *
+     * @return the version.
+     */
+    public String getVersion() {
+        emissionSeriesStore.refreshIfDue();
+        return version;
+    }
+
+    /**
+     * Gets the newest update time of the approved values the rankings were computed from.
+     *
+     * @return the time in milliseconds, or -1 if there is no approved emission data.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Gets the countries with the highest total emissions within a window.
+     *
+     * @param window the window length in years.
+     * @param limit  the maximum number of entries, capped at {@link #MAX_LIMIT}.
+     * @return a {@link List} of {@link LeaderboardEntry} instances, highest total first; empty for unknown windows.
+     */
+    public List<LeaderboardEntry> getTopEmitters(int window, int limit) {
+        emissionSeriesStore.refreshIfDue();
+        Ranking ranking = rankings.get(window);
+        return null == ranking ? Collections.emptyList() : head(ranking.emitters, limit);
+    }
+
+    /**
+     * Gets the countries whose emissions decreased most compared to the preceding window of the same length.
+     *
+     * @param window the window length in years.
+     * @param limit  the maximum number of entries, capped at {@link #MAX_LIMIT}.
+     * @return a {@link List} of {@link LeaderboardEntry} instances, biggest reduction first; empty for unknown windows.
+     */
+    public List<LeaderboardEntry> getBiggestReducers(int window, int limit) {
+        emissionSeriesStore.refreshIfDue();
+        Ranking ranking = rankings.get(window);
+        return null == ranking ? Collections.emptyList() : head(ranking.reducers, limit);
+    }
+
+    /**
+     * Remembers the series and the newest reported date of a country.
+     *
+     * @param countryId the ID of the country.
+     * @param series    the series of the country.
+     */
+    private void updateCountry(int countryId, EmissionSeries series) {
+        sources.put(countryId, series);
+
+        if (series.isEmpty()) {
+            latestDates.remove(countryId);
+        } else {
+            latestDates.put(countryId, series.getDate(series.size() - 1));
+        }
+    }
+
+    /**
+     * Computes the version and the last modification time from the series of all countries.
+     */
+    private void updateVersion() {
+        long newest = -1;
+        long size = 0;
+
+        for (EmissionSeries series : sources.values()) {
+            newest = Math.max(newest, series.getLastModified());
+            size += series.getSourceSize();
+        }
+
+        this.lastModified = newest;
+        this.version = newest + "/" + size;
+    }
+
+    /**
+     * Computes the newest reported date of all countries.
+     *
+     * @return the newest reported date, or null if there is no approved emission data.
+     */
+    private LocalDate computeLatestDate() {
+        LocalDate date = null;
+
+        for (LocalDate countryDate : latestDates.values()) {
+            if (null == date || countryDate.isAfter(date)) {
+                date = countryDate;
+            }
+        }
+
+        return date;
+    }
+
+    /**
+     * Creates the entry of a country for a window. The total covers the years of the window up to the newest reported
+     * date. The previous total covers the same days of the preceding window, i.e. it ends the window length before the
+     * last value of the country, so a year in progress or a country reporting later than others is compared with the
+     * same part of the earlier years. It is left out if the country did not report in every year of both windows,
+     * e.g. because it stopped or started reporting within them, which keeps the country out of the biggest reducers.
+     *
+     * @param country    the country, or null if it is not in the country index.
+     * @param series     the series of the country.
+     * @param window     the window length in years.
+     * @param latestDate the last day of the window, or null if there is no approved emission data.
+     * @return the {@link LeaderboardEntry}, or null if the country has no values within the window.
+     */
+    private static LeaderboardEntry createEntry(CountryIndex.Entry country, EmissionSeries series, int window, LocalDate latestDate) {
+        if (null == country || null == latestDate) {
+            return null;
+        }
+
+        int latestYear = latestDate.getYear();
+        EmissionSeries current = series.slice(LocalDate.of(latestYear - window + 1, 1, 1), latestDate);
+
+        if (current.isEmpty()) {
+            return null;
+        }
+
+        Long previousTotal = null;
+
+        if (reportsEveryYear(series, latestYear - 2 * window + 1, latestYear)) {
+            LocalDate countryDate = current.getDate(current.size() - 1);
+            previousTotal = sumMilli(series.slice(LocalDate.of(latestYear - 2 * window + 1, 1, 1), countryDate.minusYears(window)));
+        }
+
+        return new LeaderboardEntry(country.getId(), country.getCode(), country.getName(), sumMilli(current), previousTotal);
+    }
+
+    /**
+     * Checks if a series has at least one value in every year of a range.
+     *
+     * @param series   the series.
+     * @param fromYear the first year (inclusive).
+     * @param toYear   the last year (inclusive).
+     * @return true if every year has a value, false otherwise.
+     */
+    private static boolean reportsEveryYear(EmissionSeries series, int fromYear, int toYear) {
+        for (int year = fromYear; year <= toYear; year++) {
+            if (series.slice(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31)).isEmpty()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Sums the values of a series in milli-kt.
+     *
+     * @param series the series.
+     * @return the sum in milli-kt.
+     */
+    private static long sumMilli(EmissionSeries series) {
+        long sum = 0;
+
+        for (int i = 0; i < series.size(); i++) {
+            sum += EmissionValueFormat.toMilli(series.getValue(i));
+        }
+
+        return sum;
+    }
+
+    /**
+     * Copies the first entries of a ranking.
+     *
+     * @param ranking the ranking.
+     * @param limit   the maximum number of entries, capped at {@link #MAX_LIMIT}.
+     * @return a {@link List} of the first entries.
+     */
+    private static List<LeaderboardEntry> head(NavigableSet<LeaderboardEntry> ranking, int limit) {
+        int size = Math.max(0, Math.min(limit, MAX_LIMIT));
+        List<LeaderboardEntry> entries = new ArrayList<>(size);
+        Iterator<LeaderboardEntry> iterator = ranking.iterator();
+
+        while (entries.size() < size && iterator.hasNext()) {
+            entries.add(iterator.next());
+        }
+
+        return entries;
+    }
+
+    /**
+     * Parses the configured window lengths.
+     *
+     * @param value the comma-separated window lengths in years, or null for the default windows.
+     * @return an unmodifiable list of distinct, positive window lengths in ascending order.
+     */
+    private static List<Integer> parseWindows(String value) {
+        if (null == value || value.isBlank()) {
+            return DEFAULT_WINDOWS;
+        }
+
+        try {
+            SortedSet<Integer> parsed = new TreeSet<>();
+
+            for (String window : value.split(",")) {
+                int years = Integer.parseInt(window.trim());
+
+                if (years <= 0) {
+                    throw new NumberFormatException("Window must be positive: " + years);
+                }
+
+                parsed.add(years);
+            }
+
+            return List.copyOf(parsed);
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Invalid leaderboard windows \"" + value + "\", using " + DEFAULT_WINDOWS, e);
+            return DEFAULT_WINDOWS;
+        }
+    }
+
+    /**
+     * Rankings of one window. Each country has at most one entry, which is in the emitters ranking and,
+     * if its emissions decreased, in the reducers ranking.
+     */
+    private static final class Ranking {
+
+        private final int window;
+        private final NavigableSet<LeaderboardEntry> emitters = new ConcurrentSkipListSet<>(BY_TOTAL);
+        private final NavigableSet<LeaderboardEntry> reducers = new ConcurrentSkipListSet<>(BY_CHANGE);
+        private final Map<Integer, LeaderboardEntry> entries = new ConcurrentHashMap<>();
+
+        /**
+         * Creates empty rankings.
+         *
+         * @param window the window length in years.
+         */
+        private Ranking(int window) {
+            this.window = window;
+        }
+
+        /**
+         * Replaces the entry of a country.
+         *
+         * @param countryId the ID of the country.
+         * @param entry     the new entry, or null to remove the country from the rankings.
+         */
+        private void put(int countryId, LeaderboardEntry entry) {
+            LeaderboardEntry previous = null == entry ? entries.remove(countryId) : entries.put(countryId, entry);
+
+            if (null != previous) {
+                emitters.remove(previous);
+                reducers.remove(previous);
+            }
+
+            if (null != entry) {
+                emitters.add(entry);
+
+                if (entry.getChangeMilli() < 0) {
+                    reducers.add(entry);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.interceptor.Timed;
+import org.sustainability.likeherotozero.model.Histogram;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Service class collecting the metrics of the application: the latencies of {@link Timed} methods, the duration and
+ * number of queries of HTTP requests by path, the requests exceeding their query budget, and access to the Hibernate
+ * statistics and the connection pool.
+ * All histograms are lock-free, so recording adds no contention to the measured code.
+ */
+@ApplicationScoped
+public class MetricsService implements Serializable {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsService.class.getName());
+
+    /**
+     * Upper bounds of the latency buckets of methods, from 100 µs to 10 s.
+     */
+    private static final long[] METHOD_LATENCY_BOUNDS = nanos(0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025,
+            0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10);
+
+    /**
+     * Upper bounds of the duration buckets of HTTP requests, from 1 ms to 30 s.
+     */
+    private static final long[] REQUEST_LATENCY_BOUNDS = nanos(0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5,
+            1, 2.5, 5, 10, 30);
+
+    /**
+     * Upper bounds of the buckets of the number of queries per HTTP request.
+     */
+    private static final long[] QUERY_COUNT_BOUNDS = { 0, 1, 2, 3, 5, 10, 20, 50, 100, 200, 500 };
+
+    /**
+     * System property with the largest number of SQL statements a request may issue before a warning is logged.
+     * The budget of a single path is configured by appending the path, e.g.
+     * {@code likeherotozero.queryBudget./emissionData.xhtml=10}.
+     */
+    public static final String QUERY_BUDGET_PROPERTY = "likeherotozero.queryBudget";
+
+    /**
+     * Requests to paths beyond this number of distinct paths, e.g. scans for non-existent pages,
+     * are recorded under {@link #OTHER_PATH}, so the number of metrics stays bounded.
+     */
+    private static final int MAX_PATHS = 100;
+
+    /**
+     * The path under which requests beyond {@link #MAX_PATHS} are recorded.
+     */
+    public static final String OTHER_PATH = "other";
+
+    private final Map<Method, Histogram> methodLatencies = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> requestLatencies = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> requestQueries = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> exceededQueryBudgets = new ConcurrentHashMap<>();
+    private final Map<String, Integer> queryBudgets = new ConcurrentHashMap<>();
+
+    @Inject
+    private EntityManagerService entityManagerService;
+
+    /**
+     * Records a call of a {@link Timed} method.
+     *
+     * @param method the called method.
+     * @param nanos  the latency in nanoseconds.
+     */
+    public void recordMethodCall(Method method, long nanos) {
+        methodLatencies.computeIfAbsent(method, m -> new Histogram(METHOD_LATENCY_BOUNDS)).record(nanos);
+    }
+
+    /**
+     * Records a completed HTTP request.
+     *
+     * @param path    the servlet path of the request, e.g. {@code /emissionData.xhtml}.
+     * @param nanos   the duration in nanoseconds.
+     * @param queries the number of SQL statements the request issued.
+     * @return true if the request stayed within the query budget of its path, otherwise false.
+     */
+    public boolean recordRequest(String path, long nanos, int queries) {
+        String key = requestLatencies.containsKey(path) || requestLatencies.size() < MAX_PATHS ? path : OTHER_PATH;
+        requestLatencies.computeIfAbsent(key, p -> new Histogram(REQUEST_LATENCY_BOUNDS)).record(nanos);
+        requestQueries.computeIfAbsent(key, p -> new Histogram(QUERY_COUNT_BOUNDS)).record(queries);
+
+        if (queries <= getQueryBudget(path)) {
+            return true;
+        }
+
+        exceededQueryBudgets.computeIfAbsent(key, p -> new LongAdder()).increment();
+        return false;
+    }
+
+    /**
+     * Gets the query budget of a path, configured by {@link #QUERY_BUDGET_PROPERTY}.
+     *
+     * @param path the servlet path, e.g. {@code /emissionData.xhtml}.
+     * @return the largest number of SQL statements a request to the path may issue,
+     * or {@link Integer#MAX_VALUE} if no budget is configured.
+     */
+    public int getQueryBudget(String path) {
+        Integer budget = queryBudgets.get(path);
+
+        if (null == budget) {
+            budget = parseQueryBudget(System.getProperty(QUERY_BUDGET_PROPERTY + "." + path,
+                    System.getProperty(QUERY_BUDGET_PROPERTY)));
+
+            if (queryBudgets.size() < MAX_PATHS) {
+                queryBudgets.put(path, budget);
+            }
+        }
+
+        return budget;
+    }
+
+    /**
+     * Gets the latency histograms of all {@link Timed} methods called so far.
+     *
+     * @return an unmodifiable {@link Map} of the histograms (in nanoseconds) by method.
+     */
+    public Map<Method, Histogram> getMethodLatencies() {
+        return Collections.unmodifiableMap(methodLatencies);
+    }
+
+    /**
+     * Gets the duration histograms of HTTP requests.
+     *
+     * @return an unmodifiable {@link Map} of the histograms (in nanoseconds) by servlet path.
+     */
+    public Map<String, Histogram> getRequestLatencies() {
+        return Collections.unmodifiableMap(requestLatencies);
+    }
+
+    /**
+     * Gets the histograms of the number of queries per HTTP request.
+     *
+     * @return an unmodifiable {@link Map} of the histograms by servlet path.
+     */
+    public Map<String, Histogram> getRequestQueries() {
+        return Collections.unmodifiableMap(requestQueries);
+    }
+
+    /**
+     * Gets the number of HTTP requests that exceeded their query budget.
+     *
+     * @return a {@link Map} of the number of requests by servlet path.
+     */
+    public Map<String, Long> getExceededQueryBudgets() {
+        Map<String, Long> exceeded = new TreeMap<>();
+        exceededQueryBudgets.forEach((path, count) -> exceeded.put(path, count.sum()));
+        return exceeded;
+    }
+
+    /**
+     * Gets the statistics of the persistence unit, e.g. entity loads and cache hits.
+     *
+     * @return the Hibernate {@link Statistics}.
+     */
+    public Statistics getStatistics() {
+        return getSessionFactory().getStatistics();
+    }
+
+    /**
+     * Gets the connection pool of the persistence unit.
+     *
+     * @return the {@link HikariDataSource}, or null if the persistence unit does not use HikariCP.
+     */
+    public HikariDataSource getDataSource() {
+        ConnectionProvider connectionProvider = getSessionFactory().getServiceRegistry().getService(ConnectionProvider.class);
+
+        if (null == connectionProvider || !connectionProvider.isUnwrappableAs(HikariDataSource.class)) {
+            return null;
+        }
+
+        return connectionProvider.unwrap(HikariDataSource.class);
+    }
+
+    /**
+     * Gets the session factory of the persistence unit.
+     *
+     * @return the {@link SessionFactoryImplementor}.
+     */
+    private SessionFactoryImplementor getSessionFactory() {
+        return entityManagerService.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+    }
+
+    /**
+     * Parses a query budget.
+     *
+     * @param value the configured budget, or null if there is none.
+     * @return the budget, or {@link Integer#MAX_VALUE} if none or an invalid one is configured.
+     */
+    private static int parseQueryBudget(String value) {
+        if (null == value || value.isBlank()) {
+            return Integer.MAX_VALUE;
+        }
+
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Ignoring invalid query budget " + value);
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Converts bucket bounds from seconds to nanoseconds.
+     *
+     * @param seconds the bounds in seconds.
+     * @return the bounds in nanoseconds.
+     */
+    private static long[] nanos(double... seconds) {
+        long[] nanos = new long[seconds.length];
+
+        for (int i = 0; i < seconds.length; i++) {
+            nanos[i] = Math.round(seconds[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+
+        return nanos;
+    }
+}
@@ -0,0 +1,137 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.entity.Country;
+import org.sustainability.likeherotozero.entity.UserRole;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class responsible for the second-level and query cache of the reference data
+ * ({@link Country} and {@link UserRole}).
+ * It provides the hooks to invalidate the cached data after administrative changes and exposes
+ * the hit and miss counts of the cache regions configured in ehcache.xml.
+ */
+@Named
+@ApplicationScoped
+public class ReferenceDataCacheService implements Serializable {
+
+    /**
+     * The cache region holding {@link Country} entities.
+     */
+    public static final String COUNTRY_REGION = "country";
+
+    /**
+     * The cache region holding the results of {@link Country} queries.
+     */
+    public static final String COUNTRY_QUERY_REGION = "query.country";
+
+    /**
+     * The cache region holding {@link UserRole} entities.
+     */
+    public static final String USER_ROLE_REGION = "userRole";
+
+    /**
+     * The cache region holding the results of {@link UserRole} queries.
+     */
+    public static final String USER_ROLE_QUERY_REGION = "query.userRole";
+
+    @Inject
+    private EntityManagerService entityManagerService;
+
+    @Inject
+    private CountryIndexService countryIndexService;
+
+    private final AtomicLong userRoleVersion = new AtomicLong();
+
+    /**
+     * Removes all countries and country query results from the cache and rebuilds the {@link CountryIndex}.
+     * Must be called after countries were changed, e.g. by an administrator.
+     */
+    public void evictCountries() {
+        getSessionFactory().getCache().evictEntityData(Country.class);
+        getSessionFactory().getCache().evictQueryRegion(COUNTRY_QUERY_REGION);
+        countryIndexService.rebuild();
+    }
+
+    /**
+     * Removes all user roles and user role query results from the cache and increments the user role version,
+     * so the sessions reload the permissions of their users.
+     * Must be called after user roles or their assignments were changed outside of JPA, e.g. by an administrator.
+     */
+    public void evictUserRoles() {
+        getSessionFactory().getCache().evictEntityData(UserRole.class);
+        getSessionFactory().getCache().evictQueryRegion(USER_ROLE_QUERY_REGION);
+        userRoleVersion.incrementAndGet();
+    }
+
+    /**
+     * Gets the version of the user roles, which changes every time the user roles are evicted.
+     *
+     * @return the user role version.
+     */
+    public long getUserRoleVersion() {
+        return userRoleVersion.get();
+    }
+
+    /**
+     * Removes all reference data from the cache.
+     */
+    public void evictAll() {
+        evictCountries();
+        evictUserRoles();
+    }
+
+    /**
+     * Gets the number of cache hits of a region.
+     *
+     * @param regionName the name of the cache region.
+     * @return the number of hits, or 0 if the region is unknown.
+     */
+    public long getHitCount(String regionName) {
+        CacheRegionStatistics statistics = getRegionStatistics(regionName);
+        return null == statistics ? 0 : statistics.getHitCount();
+    }
+
+    /**
+     * Gets the number of cache misses of a region.
+     *
+     * @param regionName the name of the cache region.
+     * @return the number of misses, or 0 if the region is unknown.
+     */
+    public long getMissCount(String regionName) {
+        CacheRegionStatistics statistics = getRegionStatistics(regionName);
+        return null == statistics ? 0 : statistics.getMissCount();
+    }
+
+    /**
+     * Gets the statistics of a cache region.
+     *
+     * @param regionName the name of the cache region.
+     * @return the {@link CacheRegionStatistics}, or null if the region is unknown.
+     */
+    public CacheRegionStatistics getRegionStatistics(String regionName) {
+        Statistics statistics = getSessionFactory().getStatistics();
+
+        if (regionName.startsWith("query.")) {
+            return statistics.getQueryRegionStatistics(regionName);
+        }
+
+        return statistics.getDomainDataRegionStatistics(regionName);
+    }
+
+    /**
+     * Gets the Hibernate {@link SessionFactory} behind the application's EntityManagerFactory.
+     *
+     * @return the {@link SessionFactory}.
+     */
+    private SessionFactory getSessionFactory() {
+        return entityManagerService.getEntityManagerFactory().unwrap(SessionFactory.class);
+    }
+}
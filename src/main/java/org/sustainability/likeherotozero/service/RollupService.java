@@ -0,0 +1,244 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.dao.EmissionRollupDAO;
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.entity.EmissionRollup;
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
+import org.sustainability.likeherotozero.model.RollupGranularity;
+import org.sustainability.likeherotozero.model.YearOverYear;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Service class responsible for the yearly and monthly {@link EmissionRollup} buckets of the approved emission data.
+ * Newly approved values are added to their buckets incrementally by atomic statements. When approved values are
+ * changed or removed, only the affected buckets are recomputed while their rows are locked, since a minimum or maximum
+ * cannot be taken back. Buckets are updated in the order of their keys, so concurrent transactions do not deadlock.
+ * The update methods are called by {@link EmissionDataService} inside its transactions, after it locked the latest
+ * emission data of the affected countries; the locking reads of a recompute therefore never wait for a transaction
+ * that in turn waits for one of the buckets.
+ */
+@ApplicationScoped
+public class RollupService implements Serializable {
+
+    /**
+     * The number of buckets written before the persistence context is flushed and cleared during a rebuild.
+     */
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    /**
+     * The order in which buckets are written, the same in every transaction.
+     */
+    private static final Comparator<EmissionRollup.Key> KEY_ORDER = Comparator.comparingInt(EmissionRollup.Key::getCountryId)
+            .thenComparing(EmissionRollup.Key::getGranularity)
+            .thenComparingInt(EmissionRollup.Key::getPeriod);
+
+    @Inject
+    private EmissionRollupDAO emissionRollupDAO;
+
+    /**
+     * Adds newly approved values to their yearly and monthly buckets. The values are combined per bucket first,
+     * so every bucket is written once.
+     *
+     * @param values arrays with the country ID, reported date and value of the approved {@link EmissionData} entries.
+     */
+    public void addApproved(List<Object[]> values) {
+        Date now = new Date();
+        Map<EmissionRollup.Key, EmissionRollup> additions = new TreeMap<>(KEY_ORDER);
+
+        for (Object[] value : values) {
+            int countryId = (Integer) value[0];
+            LocalDate reportedFor = toLocalDate((Date) value[1]);
+            long valueMilli = EmissionValueFormat.toMilli((Double) value[2]);
+
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                int period = granularity.periodOf(reportedFor);
+                additions.computeIfAbsent(new EmissionRollup.Key(countryId, granularity, period),
+                        key -> new EmissionRollup(countryId, granularity, period)).add(valueMilli, now);
+            }
+        }
+
+        for (EmissionRollup addition : additions.values()) {
+            emissionRollupDAO.add(addition.getCountryId(), addition.getGranularity(), addition.getPeriod(), addition.getCount(),
+                    addition.getSumMilli(), addition.getMinMilli(), addition.getMaxMilli(), now);
+        }
+    }
+
+    /**
+     * Recomputes the yearly and monthly buckets of values that are no longer approved or were removed.
+     *
+     * @param values arrays with the country ID, reported date and value of the previously approved entries.
+     */
+    public void recompute(List<Object[]> values) {
+        Set<EmissionRollup.Key> keys = new TreeSet<>(KEY_ORDER);
+        Date now = new Date();
+
+        for (Object[] value : values) {
+            int countryId = (Integer) value[0];
+            LocalDate reportedFor = toLocalDate((Date) value[1]);
+
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                keys.add(new EmissionRollup.Key(countryId, granularity, granularity.periodOf(reportedFor)));
+            }
+        }
+
+        for (EmissionRollup.Key key : keys) {
+            recomputeBucket(key.getCountryId(), key.getGranularity(), key.getPeriod(), now);
+        }
+    }
+
+    /**
+     * Rebuilds all buckets from the approved emission data.
+     */
+    public void rebuildAll() {
+        emissionRollupDAO.deleteAll();
+
+        Date now = new Date();
+        Map<EmissionRollup.Key, EmissionRollup> years = new HashMap<>();
+        int pending = 0;
+
+        for (Object[] month : emissionRollupDAO.aggregateAllApprovedByMonth()) {
+            int countryId = (Integer) month[0];
+            int year = (Integer) month[1];
+            long count = (Long) month[3];
+            long sumMilli = EmissionValueFormat.toMilli((Double) month[4]);
+            long minMilli = EmissionValueFormat.toMilli((Double) month[5]);
+            long maxMilli = EmissionValueFormat.toMilli((Double) month[6]);
+
+            EmissionRollup monthly = new EmissionRollup(countryId, RollupGranularity.MONTH, year * 100 + (Integer) month[2]);
+            monthly.set(count, sumMilli, minMilli, maxMilli, now);
+            emissionRollupDAO.persist(monthly);
+
+            EmissionRollup yearly = years.computeIfAbsent(new EmissionRollup.Key(countryId, RollupGranularity.YEAR, year),
+                    key -> new EmissionRollup(countryId, RollupGranularity.YEAR, year));
+            yearly.set(yearly.getCount() + count, yearly.getSumMilli() + sumMilli,
+                    0 == yearly.getCount() ? minMilli : Math.min(yearly.getMinMilli(), minMilli),
+                    0 == yearly.getCount() ? maxMilli : Math.max(yearly.getMaxMilli(), maxMilli), now);
+
+            if (++pending % REBUILD_BATCH_SIZE == 0) {
+                emissionRollupDAO.flushAndClear();
+            }
+        }
+
+        for (EmissionRollup yearly : years.values()) {
+            emissionRollupDAO.persist(yearly);
+
+            if (++pending % REBUILD_BATCH_SIZE == 0) {
+                emissionRollupDAO.flushAndClear();
+            }
+        }
+
+        emissionRollupDAO.flushAndClear();
+    }
+
+    /**
+     * Gets the buckets of a country within a date range, ordered by period.
+     *
+     * @param countryId   the ID of the country.
+     * @param granularity the granularity.
+     * @param from        the first day of the range, or null for no lower bound.
+     * @param to          the last day of the range, or null for no upper bound.
+     * @return a {@link List} of {@link EmissionRollup} buckets.
+     */
+    public List<EmissionRollup> findBuckets(int countryId, RollupGranularity granularity, LocalDate from, LocalDate to) {
+        int fromPeriod = null == from ? Integer.MIN_VALUE : granularity.periodOf(from);
+        int toPeriod = null == to ? Integer.MAX_VALUE : granularity.periodOf(to);
+
+        return emissionRollupDAO.findByCountryId(countryId, granularity, fromPeriod, toPeriod);
+    }
+
+    /**
+     * Compares the yearly totals of a country with the respective previous year.
+     *
+     * @param countryId the ID of the country.
+     * @param from      the first day of the range, or null for no lower bound.
+     * @param to        the last day of the range, or null for no upper bound.
+     * @return a {@link List} of {@link YearOverYear} comparisons, ordered by year.
+     */
+    public List<YearOverYear> getYearOverYear(int countryId, LocalDate from, LocalDate to) {
+        // Include the year before the range so the first year can be compared as well
+        List<EmissionRollup> years = findBuckets(countryId, RollupGranularity.YEAR, null == from ? null : from.minusYears(1), to);
+        List<YearOverYear> comparisons = new ArrayList<>(years.size());
+        int fromYear = null == from ? Integer.MIN_VALUE : from.getYear();
+        EmissionRollup previous = null;
+
+        for (EmissionRollup year : years) {
+            if (year.getPeriod() >= fromYear) {
+                boolean consecutive = null != previous && previous.getPeriod() == year.getPeriod() - 1;
+                comparisons.add(new YearOverYear(year.getPeriod(), year.getTotal(), consecutive ? previous.getTotal() : null));
+            }
+
+            previous = year;
+        }
+
+        return comparisons;
+    }
+
+    /**
+     * Gets the version of the buckets of a country, i.e. the newest update timestamp and the number of buckets.
+     *
+     * @param countryId   the ID of the country.
+     * @param granularity the granularity.
+     * @return an array with the newest update timestamp (null if there are no buckets) and the number of buckets.
+     */
+    public Object[] getVersion(int countryId, RollupGranularity granularity) {
+        return emissionRollupDAO.findVersion(countryId, granularity);
+    }
+
+    /**
+     * Checks if there are no buckets.
+     *
+     * @return true if there are no buckets, false otherwise.
+     */
+    public boolean isEmpty() {
+        return emissionRollupDAO.isEmpty();
+    }
+
+    /**
+     * Recomputes one bucket from the approved emission data and removes it if it has no values anymore.
+     * The bucket is locked first, and inserted empty if it does not exist, so a concurrent {@link #addApproved(List)}
+     * waits for this transaction. The values are then read with a locking read, which includes values approved and
+     * committed by other transactions since this one started, so no such value is overwritten by a stale total.
+     *
+     * @param countryId   the ID of the country.
+     * @param granularity the granularity.
+     * @param period      the encoded period.
+     * @param now         the timestamp of the update.
+     */
+    private void recomputeBucket(int countryId, RollupGranularity granularity, int period, Date now) {
+        EmissionRollup rollup = emissionRollupDAO.lock(countryId, granularity, period, now);
+        List<Double> values = emissionRollupDAO.findApprovedValues(countryId,
+                java.sql.Date.valueOf(granularity.firstDayOf(period)), java.sql.Date.valueOf(granularity.lastDayOf(period)));
+
+        if (values.isEmpty()) {
+            emissionRollupDAO.remove(rollup);
+            return;
+        }
+
+        EmissionRollup recomputed = new EmissionRollup(countryId, granularity, period);
+
+        for (double value : values) {
+            recomputed.add(EmissionValueFormat.toMilli(value), now);
+        }
+
+        rollup.set(recomputed.getCount(), recomputed.getSumMilli(), recomputed.getMinMilli(), recomputed.getMaxMilli(), now);
+    }
+
+    /**
+     * Converts a reported date read from the database to a {@link LocalDate}.
+     *
+     * @param date the date.
+     * @return the date as {@link LocalDate}.
+     */
+    private static LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
+        }
+
+        return new java.sql.Date(date.getTime()).toLocalDate();
+    }
+}
@@ -1,23 +1,38 @@
 package org.sustainability.likeherotozero.service;
 
+import org.sustainability.likeherotozero.dao.UserDAO;
 import org.sustainability.likeherotozero.entity.User;
+import org.sustainability.likeherotozero.model.Role;
 import jakarta.enterprise.context.SessionScoped;
 import jakarta.faces.context.FacesContext;
+import jakarta.inject.Inject;
 import jakarta.inject.Named;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * Service class responsible for managing session-specific data such as the logged-in user and locale.
  * This class is session-scoped, meaning the data it holds is specific to the user's session.
+ * The roles of the user are resolved once at login and only reloaded when the user roles were changed.
  */
 @Named
 @SessionScoped
 public class SessionService implements Serializable {
 
+    @Inject
+    private UserDAO userDAO;
+
+    @Inject
+    private ReferenceDataCacheService referenceDataCacheService;
+
     private User user;
     private Locale locale;
+    private Set<Role> roles = Collections.unmodifiableSet(EnumSet.noneOf(Role.class));
+    private long roleVersion;
 
     /**
      * Retrieves the locale for the current session.
@@ -42,12 +57,56 @@ public class SessionService implements Serializable {
     }
 
     /**
-     * Sets the user for the current session.
+     * Sets the user for the current session and resolves the roles granted to the user.
      *
-     * @param user the {@link User} to set as the logged-in user.
+     * @param user the {@link User} to set as the logged-in user, or null to log out.
      */
     public void setUser(User user) {
         this.user = user;
+        this.loadRoles();
+    }
+
+    /**
+     * Checks if the logged-in user has been granted a role.
+     *
+     * @param role the role to check.
+     * @return true if a user is logged in and has the role, false otherwise.
+     */
+    public boolean hasRole(Role role) {
+        if (roleVersion != referenceDataCacheService.getUserRoleVersion()) {
+            this.loadRoles();
+        }
+
+        return roles.contains(role);
+    }
+
+    /**
+     * Gets the roles granted to the logged-in user.
+     *
+     * @return an unmodifiable set of {@link Role} values; empty if no user is logged in.
+     */
+    public Set<Role> getRoles() {
+        return roles;
+    }
+
+    /**
+     * Loads the roles of the logged-in user into an immutable set.
+     */
+    private void loadRoles() {
+        this.roleVersion = referenceDataCacheService.getUserRoleVersion();
+        EnumSet<Role> loaded = EnumSet.noneOf(Role.class);
+
+        if (null != user) {
+            for (String roleName : userDAO.findRoleNamesByUserId(user.getId())) {
+                Role role = Role.fromRoleName(roleName);
+
+                if (null != role) {
+                    loaded.add(role);
+                }
+            }
+        }
+
+        this.roles = Collections.unmodifiableSet(loaded);
     }
 
     /**
@@ -0,0 +1,602 @@
+package org.sustainability.likeherotozero.servlet;
+
+import org.sustainability.likeherotozero.dao.LatestEmissionDataDAO;
+import org.sustainability.likeherotozero.entity.EmissionRollup;
+import org.sustainability.likeherotozero.entity.LatestEmissionData;
+import org.sustainability.likeherotozero.model.ComparisonMatrix;
+import org.sustainability.likeherotozero.model.DownsamplingMethod;
+import org.sustainability.likeherotozero.model.EmissionSeries;
+import org.sustainability.likeherotozero.model.LeaderboardEntry;
+import org.sustainability.likeherotozero.model.RollupGranularity;
+import org.sustainability.likeherotozero.model.YearOverYear;
+import org.sustainability.likeherotozero.service.ComparisonService;
+import org.sustainability.likeherotozero.service.CountryIndex;
+import org.sustainability.likeherotozero.service.CountryIndexService;
+import org.sustainability.likeherotozero.service.DownsamplingService;
+import org.sustainability.likeherotozero.service.EmissionSeriesStore;
+import org.sustainability.likeherotozero.service.LeaderboardService;
+import org.sustainability.likeherotozero.service.RollupService;
+import jakarta.inject.Inject;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Stateless, read-only JSON API for emission data.
+ * <ul>
+ *     <li>{@code GET /api/countries} - all countries</li>
+ *     <li>{@code GET /api/countries/{code}} - one country</li>
+ *     <li>{@code GET /api/latest} - the latest approved value of every country</li>
+ *     <li>{@code GET /api/countries/{code}/latest} - the latest approved value of one country</li>
+ *     <li>{@code GET /api/countries/{code}/emissions?from=yyyy-MM-dd&amp;to=yyyy-MM-dd&amp;points=n&amp;method=lttb|min-max} - the approved
+ *     time series of one country, served from the {@link EmissionSeriesStore} and optionally downsampled to at most n points</li>
+ *     <li>{@code GET /api/countries/{code}/rollups?granularity=year|month&amp;from=yyyy-MM-dd&amp;to=yyyy-MM-dd} - yearly or monthly
+ *     totals, averages, minimums and maximums of one country, with the change to the previous year for yearly rollups</li>
+ *     <li>{@code GET /api/leaderboard?window=years&amp;limit=n} - the top emitters and biggest reducers of a window of years
+ *     ending with the newest reported date, compared with the same days of the preceding window</li>
+ *     <li>{@code GET /api/compare?countries=DEU,FRA&amp;from=yyyy-MM-dd&amp;to=yyyy-MM-dd&amp;granularity=year|month} - the approved
+ *     values of up to 50 countries aligned on a common date axis, optionally summed per year or month</li>
+ * </ul>
+ * Every response carries an ETag derived from the data it contains, which is the same on every node, and a
+ * Last-Modified date wherever the data has update times, i.e. everything but the countries. Conditional requests
+ * are answered with 304 before the response is written, and Cache-Control allows shared caches to keep responses
+ * briefly.
+ */
+@WebServlet("/api/*")
+public class ApiServlet extends HttpServlet {
+
+    /**
+     * Cache-Control of all successful responses: browsers revalidate after a minute, shared caches after five.
+     */
+    static final String CACHE_CONTROL = "public, max-age=60, s-maxage=300";
+
+    /**
+     * The number of leaderboard entries returned when no limit is requested.
+     */
+    private static final int DEFAULT_LEADERBOARD_LIMIT = 10;
+
+    @Inject
+    private CountryIndexService countryIndexService;
+
+    @Inject
+    private LatestEmissionDataDAO latestEmissionDataDAO;
+
+    @Inject
+    private RollupService rollupService;
+
+    @Inject
+    private EmissionSeriesStore emissionSeriesStore;
+
+    @Inject
+    private LeaderboardService leaderboardService;
+
+    @Inject
+    private ComparisonService comparisonService;
+
+    @Inject
+    private DownsamplingService downsamplingService;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String[] path = null == request.getPathInfo() ? new String[0] : request.getPathInfo().replaceAll("^/+|/+$", "").split("/+");
+
+        if (1 == path.length && "countries".equals(path[0])) {
+            writeCountries(request, response);
+        } else if (1 == path.length && "latest".equals(path[0])) {
+            writeAllLatest(request, response);
+        } else if (1 == path.length && "leaderboard".equals(path[0])) {
+            writeLeaderboard(request, response);
+        } else if (1 == path.length && "compare".equals(path[0])) {
+            writeComparison(request, response);
+        } else if (path.length >= 2 && path.length <= 3 && "countries".equals(path[0])) {
+            CountryIndex.Entry country = countryIndexService.getIndex().findByCode(path[1].toUpperCase(Locale.ROOT));
+
+            if (null == country) {
+                writeError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown country code: " + path[1]);
+            } else if (2 == path.length) {
+                writeCountry(request, response, country);
+            } else if ("latest".equals(path[2])) {
+                writeLatest(request, response, country);
+            } else if ("emissions".equals(path[2])) {
+                writeEmissions(request, response, country);
+            } else if ("rollups".equals(path[2])) {
+                writeRollups(request, response, country);
+            } else {
+                writeError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown resource");
+            }
+        } else {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown resource");
+        }
+    }
+
+    /**
+     * Writes all countries.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @throws IOException if writing fails.
+     */
+    private void writeCountries(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CountryIndex index = countryIndexService.getIndex();
+
+        if (HttpCaching.checkNotModified(request, response, HttpCaching.etag("countries", index.getFingerprint()), -1, CACHE_CONTROL)) {
+            return;
+        }
+
+        try (Writer out = openJson(request, response)) {
+            JsonWriter json = new JsonWriter(out);
+            json.beginArray();
+            for (CountryIndex.Entry country : index.getEntries()) {
+                writeCountry(json, country);
+            }
+            json.endArray();
+        }
+    }
+
+    /**
+     * Writes one country.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param country  the country.
+     * @throws IOException if writing fails.
+     */
+    private void writeCountry(HttpServletRequest request, HttpServletResponse response, CountryIndex.Entry country) throws IOException {
+        String etag = HttpCaching.etag("country", country.getId(), country.getCode(), country.getName());
+
+        if (HttpCaching.checkNotModified(request, response, etag, -1, CACHE_CONTROL)) {
+            return;
+        }
+
+        try (Writer out = openJson(request, response)) {
+            writeCountry(new JsonWriter(out), country);
+        }
+    }
+
+    /**
+     * Writes the latest approved value of every country.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @throws IOException if writing fails.
+     */
+    private void writeAllLatest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Object[] version = latestEmissionDataDAO.findVersion();
+        long lastModified = toMillis((Date) version[0]);
+        String etag = HttpCaching.etag("latest", lastModified, version[1], version[2]);
+
+        if (HttpCaching.checkNotModified(request, response, etag, lastModified, CACHE_CONTROL)) {
+            return;
+        }
+
+        CountryIndex index = countryIndexService.getIndex();
+        List<LatestEmissionData> latest = latestEmissionDataDAO.findAll();
+
+        try (Writer out = openJson(request, response)) {
+            JsonWriter json = new JsonWriter(out);
+            json.beginArray();
+            for (LatestEmissionData data : latest) {
+                CountryIndex.Entry country = index.findById(data.getCountryId());
+                if (null != country) {
+                    writeLatest(json, country, data);
+                }
+            }
+            json.endArray();
+        }
+    }
+
+    /**
+     * Writes the latest approved value of one country.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param country  the country.
+     * @throws IOException if writing fails.
+     */
+    private void writeLatest(HttpServletRequest request, HttpServletResponse response, CountryIndex.Entry country) throws IOException {
+        LatestEmissionData latest = latestEmissionDataDAO.findOneByCountryId(country.getId());
+
+        if (null == latest) {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "No approved emission data for " + country.getCode());
+            return;
+        }
+
+        long lastModified = toMillis(latest.getUpdatedAt());
+        String etag = HttpCaching.etag("latest", country.getId(), latest.getEmissionDataId(), lastModified);
+
+        if (HttpCaching.checkNotModified(request, response, etag, lastModified, CACHE_CONTROL)) {
+            return;
+        }
+
+        try (Writer out = openJson(request, response)) {
+            writeLatest(new JsonWriter(out), country, latest);
+        }
+    }
+
+    /**
+     * Writes the approved time series of one country, optionally restricted to a date range and downsampled.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param country  the country.
+     * @throws IOException if writing fails.
+     */
+    private void writeEmissions(HttpServletRequest request, HttpServletResponse response, CountryIndex.Entry country) throws IOException {
+        LocalDate from;
+        LocalDate to;
+        EmissionSeries series;
+        String pointsParameter = request.getParameter("points");
+        String methodParameter = request.getParameter("method");
+
+        try {
+            from = ServletSupport.parseLocalDate(request, "from");
+            to = ServletSupport.parseLocalDate(request, "to");
+
+            if (null == pointsParameter) {
+                series = emissionSeriesStore.getSeries(country.getId()).slice(from, to);
+            } else {
+                DownsamplingMethod method = null == methodParameter
+                        ? DownsamplingMethod.LTTB
+                        : DownsamplingMethod.valueOf(methodParameter.toUpperCase(Locale.ROOT).replace('-', '_'));
+                series = downsamplingService.downsample(country.getId(), from, to, Integer.parseInt(pointsParameter.trim()), method);
+            }
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid parameter: " + e.getMessage());
+            return;
+        }
+
+        // Derived from the update times and the number of the values the series was loaded from, so every node
+        // computes the same ETag for the same data
+        String etag = HttpCaching.etag("emissions", country.getId(), from, to, pointsParameter, methodParameter,
+                series.getLastModified(), series.getSourceSize());
+
+        if (HttpCaching.checkNotModified(request, response, etag, series.getLastModified(), CACHE_CONTROL)) {
+            return;
+        }
+
+        try (Writer out = openJson(request, response)) {
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            json.name("countryCode").value(country.getCode());
+            json.name("countryName").value(country.getName());
+            json.name("emissions").beginArray();
+            for (int i = 0; i < series.size(); i++) {
+                json.beginObject()
+                        .name("reportedFor").value(series.getDate(i).toString())
+                        .name("value").value(series.getValue(i))
+                        .endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    /**
+     * Writes the yearly or monthly rollups of one country, optionally restricted to a date range.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param country  the country.
+     * @throws IOException if writing fails.
+     */
+    private void writeRollups(HttpServletRequest request, HttpServletResponse response, CountryIndex.Entry country) throws IOException {
+        RollupGranularity granularity;
+        Date from;
+        Date to;
+
+        try {
+            String granularityParameter = request.getParameter("granularity");
+            granularity = null == granularityParameter ? RollupGranularity.YEAR : RollupGranularity.valueOf(granularityParameter.toUpperCase(Locale.ROOT));
+            from = ServletSupport.parseDate(request, "from");
+            to = ServletSupport.parseDate(request, "to");
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid parameter: " + e.getMessage());
+            return;
+        }
+
+        Object[] version = rollupService.getVersion(country.getId(), granularity);
+        long lastModified = toMillis((Date) version[0]);
+        String etag = HttpCaching.etag("rollups", country.getId(), granularity, toMillis(from), toMillis(to), lastModified, version[1]);
+
+        if (HttpCaching.checkNotModified(request, response, etag, lastModified, CACHE_CONTROL)) {
+            return;
+        }
+
+        List<EmissionRollup> buckets = rollupService.findBuckets(country.getId(), granularity,
+                null == from ? null : ServletSupport.toLocalDate(from), null == to ? null : ServletSupport.toLocalDate(to));
+        List<YearOverYear> yearOverYear = RollupGranularity.YEAR == granularity
+                ? rollupService.getYearOverYear(country.getId(), null == from ? null : ServletSupport.toLocalDate(from), null == to ? null : ServletSupport.toLocalDate(to))
+                : Collections.emptyList();
+
+        try (Writer out = openJson(request, response)) {
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            json.name("countryCode").value(country.getCode());
+            json.name("granularity").value(granularity.name().toLowerCase(Locale.ROOT));
+            json.name("rollups").beginArray();
+            for (int i = 0; i < buckets.size(); i++) {
+                EmissionRollup bucket = buckets.get(i);
+                json.beginObject()
+                        .name("period").value(granularity.firstDayOf(bucket.getPeriod()).toString())
+                        .name("count").value(bucket.getCount())
+                        .name("total").value(bucket.getTotal())
+                        .name("average").value(bucket.getAverage())
+                        .name("min").value(bucket.getMin())
+                        .name("max").value(bucket.getMax());
+                if (i < yearOverYear.size() && yearOverYear.get(i).getYear() == bucket.getPeriod()) {
+                    YearOverYear comparison = yearOverYear.get(i);
+                    writeNullable(json.name("previousTotal"), comparison.getPreviousTotal());
+                    writeNullable(json.name("delta"), comparison.getDelta());
+                    writeNullable(json.name("deltaRatio"), comparison.getDeltaRatio());
+                }
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    /**
+     * Writes the top emitters and biggest reducers of a window. The rankings are kept in memory,
+     * so neither the 304 check nor the response touches the database.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @throws IOException if writing fails.
+     */
+    private void writeLeaderboard(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int window;
+        int limit;
+
+        try {
+            String windowParameter = request.getParameter("window");
+            String limitParameter = request.getParameter("limit");
+            window = null == windowParameter ? leaderboardService.getWindows().get(0) : Integer.parseInt(windowParameter.trim());
+            limit = null == limitParameter ? DEFAULT_LEADERBOARD_LIMIT : Integer.parseInt(limitParameter.trim());
+        } catch (NumberFormatException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid number: " + e.getMessage());
+            return;
+        }
+
+        if (!leaderboardService.hasWindow(window)) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Unknown window, expected one of " + leaderboardService.getWindows());
+            return;
+        }
+
+        if (limit < 1 || limit > LeaderboardService.MAX_LIMIT) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Limit must be between 1 and " + LeaderboardService.MAX_LIMIT);
+            return;
+        }
+
+        // The version is read first, so a concurrent change can only make the ETag older than the body
+        String etag = HttpCaching.etag("leaderboard", window, limit, leaderboardService.getVersion());
+
+        if (HttpCaching.checkNotModified(request, response, etag, leaderboardService.getLastModified(), CACHE_CONTROL)) {
+            return;
+        }
+
+        LocalDate latestDate = leaderboardService.getLatestDate();
+
+        try (Writer out = openJson(request, response)) {
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            json.name("latestYear").value(leaderboardService.getLatestYear());
+            json.name("latestDate").value(null == latestDate ? null : latestDate.toString());
+            json.name("window").value(window);
+            json.name("topEmitters").beginArray();
+            for (LeaderboardEntry entry : leaderboardService.getTopEmitters(window, limit)) {
+                writeLeaderboardEntry(json, entry);
+            }
+            json.endArray();
+            json.name("biggestReducers").beginArray();
+            for (LeaderboardEntry entry : leaderboardService.getBiggestReducers(window, limit)) {
+                writeLeaderboardEntry(json, entry);
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    /**
+     * Writes the approved values of several countries aligned on a common date axis.
+     * Every country is written with one value per date of the axis, which is null where the country has no value.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @throws IOException if writing fails.
+     */
+    private void writeComparison(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String countriesParameter = request.getParameter("countries");
+
+        if (null == countriesParameter || countriesParameter.isBlank()) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Missing parameter: countries");
+            return;
+        }
+
+        CountryIndex index = countryIndexService.getIndex();
+        Set<Integer> countryIds = new LinkedHashSet<>();
+
+        for (String code : countriesParameter.split(",")) {
+            CountryIndex.Entry country = index.findByCode(code.trim().toUpperCase(Locale.ROOT));
+
+            if (null == country) {
+                writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Unknown country code: " + code.trim());
+                return;
+            }
+
+            countryIds.add(country.getId());
+        }
+
+        RollupGranularity granularity;
+        ComparisonMatrix matrix;
+
+        try {
+            String granularityParameter = request.getParameter("granularity");
+            granularity = null == granularityParameter ? null : RollupGranularity.valueOf(granularityParameter.toUpperCase(Locale.ROOT));
+            matrix = comparisonService.compare(countryIds, ServletSupport.parseLocalDate(request, "from"),
+                    ServletSupport.parseLocalDate(request, "to"), granularity);
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid parameter: " + e.getMessage());
+            return;
+        }
+
+        String etag = HttpCaching.etag("compare", countryIds, request.getParameter("from"), request.getParameter("to"),
+                granularity, matrix.getSourceFingerprint());
+
+        if (HttpCaching.checkNotModified(request, response, etag, matrix.getLastModified(), CACHE_CONTROL)) {
+            return;
+        }
+
+        try (Writer out = openJson(request, response)) {
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            if (null == granularity) {
+                json.name("granularity").nullValue();
+            } else {
+                json.name("granularity").value(granularity.name().toLowerCase(Locale.ROOT));
+            }
+            json.name("axis").beginArray();
+            for (int column = 0; column < matrix.getAxisLength(); column++) {
+                json.value(matrix.getDate(column).toString());
+            }
+            json.endArray();
+            json.name("countries").beginArray();
+            for (int row = 0; row < matrix.getCountryCount(); row++) {
+                CountryIndex.Entry country = index.findById(matrix.getCountryId(row));
+                json.beginObject()
+                        .name("countryCode").value(country.getCode())
+                        .name("countryName").value(country.getName());
+                json.name("values").beginArray();
+                for (int column = 0; column < matrix.getAxisLength(); column++) {
+                    json.value(matrix.getValue(row, column)); // Missing values are NaN and written as null
+                }
+                json.endArray();
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    /**
+     * Writes a leaderboard entry as JSON object.
+     *
+     * @param json  the JSON writer.
+     * @param entry the entry.
+     * @throws IOException if writing fails.
+     */
+    private void writeLeaderboardEntry(JsonWriter json, LeaderboardEntry entry) throws IOException {
+        json.beginObject()
+                .name("countryCode").value(entry.getCountryCode())
+                .name("countryName").value(entry.getCountryName())
+                .name("total").value(entry.getTotal());
+        writeNullable(json.name("previousTotal"), entry.getPreviousTotal());
+        writeNullable(json.name("change"), entry.getChange());
+        json.endObject();
+    }
+
+    /**
+     * Writes a number that may be null.
+     *
+     * @param json  the JSON writer.
+     * @param value the value, or null.
+     * @throws IOException if writing fails.
+     */
+    private void writeNullable(JsonWriter json, Double value) throws IOException {
+        if (null == value) {
+            json.nullValue();
+        } else {
+            json.value((double) value);
+        }
+    }
+
+    /**
+     * Writes a country as JSON object.
+     *
+     * @param json    the JSON writer.
+     * @param country the country.
+     * @throws IOException if writing fails.
+     */
+    private void writeCountry(JsonWriter json, CountryIndex.Entry country) throws IOException {
+        json.beginObject()
+                .name("id").value(country.getId())
+                .name("code").value(country.getCode())
+                .name("name").value(country.getName())
+                .endObject();
+    }
+
+    /**
+     * Writes the latest approved value of a country as JSON object.
+     *
+     * @param json    the JSON writer.
+     * @param country the country.
+     * @param latest  the latest approved value.
+     * @throws IOException if writing fails.
+     */
+    private void writeLatest(JsonWriter json, CountryIndex.Entry country, LatestEmissionData latest) throws IOException {
+        json.beginObject()
+                .name("countryCode").value(country.getCode())
+                .name("countryName").value(country.getName())
+                .name("reportedFor").value(ServletSupport.toLocalDate(latest.getReportedFor()).toString())
+                .name("value").value(latest.getValue())
+                .endObject();
+    }
+
+    /**
+     * Writes an error as JSON object. Errors are not cached.
+     *
+     * @param response the response.
+     * @param status   the HTTP status.
+     * @param message  the error message.
+     * @throws IOException if writing fails.
+     */
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setHeader("Cache-Control", "no-store");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType("application/json");
+
+        JsonWriter json = new JsonWriter(response.getWriter());
+        json.beginObject().name("error").value(message).endObject();
+        json.flush();
+    }
+
+    /**
+     * Opens the body of a JSON response.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @return the writer to write the JSON document to.
+     * @throws IOException if the response cannot be opened.
+     */
+    private Writer openJson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType("application/json");
+        return new BufferedWriter(new OutputStreamWriter(HttpCaching.openBody(request, response), StandardCharsets.UTF_8), 8192);
+    }
+
+
+    /**
+     * Converts a timestamp to milliseconds.
+     *
+     * @param date the timestamp, or null.
+     * @return the milliseconds, or -1 if the timestamp is null.
+     */
+    private static long toMillis(Date date) {
+        return null == date ? -1 : date.getTime();
+    }
+}
@@ -0,0 +1,181 @@
+package org.sustainability.likeherotozero.servlet;
+
+import org.sustainability.likeherotozero.dao.EmissionDataDAO;
+import org.sustainability.likeherotozero.model.EmissionValueFormat;
+import org.sustainability.likeherotozero.model.ExportFilter;
+import org.sustainability.likeherotozero.service.CountryIndex;
+import org.sustainability.likeherotozero.service.CountryIndexService;
+import jakarta.inject.Inject;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Servlet exporting approved emission data as CSV or JSON.
+ * Supported parameters are {@code country} (ISO 3166-1 alpha-3 codes, repeated or comma-separated; all countries if missing),
+ * {@code from} and {@code to} (yyyy-MM-dd) and {@code format} ({@code csv} or {@code json}).
+ * The rows are streamed from a database cursor straight into the (gzip compressed) response, so memory use does not
+ * depend on the size of the export. Unchanged exports are answered with 304 based on the newest update and the row count.
+ */
+@WebServlet("/export")
+public class EmissionDataExportServlet extends HttpServlet {
+
+    /**
+     * The number of rows fetched from the database at once.
+     */
+    private static final int FETCH_SIZE = 500;
+
+    @Inject
+    private EmissionDataDAO emissionDataDAO;
+
+    @Inject
+    private CountryIndexService countryIndexService;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String format = null == request.getParameter("format") ? "csv" : request.getParameter("format").toLowerCase(Locale.ROOT);
+
+        if (!"csv".equals(format) && !"json".equals(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported format: " + format);
+            return;
+        }
+
+        ExportFilter filter;
+
+        try {
+            filter = parseFilter(request);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        Object[] version = emissionDataDAO.findExportVersion(filter);
+        Date lastUpdate = (Date) version[0];
+        long lastModified = null == lastUpdate ? -1 : lastUpdate.getTime();
+        String etag = HttpCaching.etag(format, filter, lastModified, version[1]);
+
+        if (HttpCaching.checkNotModified(request, response, etag, lastModified, "public, no-cache")) {
+            return;
+        }
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType("csv".equals(format) ? "text/csv" : "application/json");
+        response.setHeader("Content-Disposition", "attachment; filename=\"emissions." + format + "\"");
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(HttpCaching.openBody(request, response), StandardCharsets.UTF_8), 16384);
+             Stream<Object[]> rows = emissionDataDAO.streamApproved(filter, FETCH_SIZE)) {
+            if ("csv".equals(format)) {
+                writeCsv(out, rows);
+            } else {
+                writeJson(out, rows);
+            }
+        }
+    }
+
+    /**
+     * Writes the rows as CSV with a header line.
+     *
+     * @param out  the writer of the response.
+     * @param rows the rows to write.
+     * @throws IOException if writing fails.
+     */
+    private void writeCsv(Writer out, Stream<Object[]> rows) throws IOException {
+        out.write("country_code,country_name,reported_for,value\n");
+
+        for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+            out.write((String) row[0]);
+            out.write(',');
+            writeCsvValue(out, (String) row[1]);
+            out.write(',');
+            out.write(ServletSupport.toLocalDate((Date) row[2]).toString());
+            out.write(',');
+            out.write(EmissionValueFormat.formatPlain((Double) row[3]));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Writes the rows as a JSON array of objects.
+     *
+     * @param out  the writer of the response.
+     * @param rows the rows to write.
+     * @throws IOException if writing fails.
+     */
+    private void writeJson(Writer out, Stream<Object[]> rows) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.beginArray();
+
+        for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+            json.beginObject()
+                    .name("countryCode").value((String) row[0])
+                    .name("countryName").value((String) row[1])
+                    .name("reportedFor").value(ServletSupport.toLocalDate((Date) row[2]).toString())
+                    .name("value").value((double) (Double) row[3])
+                    .endObject();
+        }
+
+        json.endArray();
+    }
+
+    /**
+     * Writes a CSV value, quoted if necessary.
+     *
+     * @param out   the writer of the response.
+     * @param value the value.
+     * @throws IOException if writing fails.
+     */
+    private void writeCsvValue(Writer out, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            out.write(value);
+        } else {
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    /**
+     * Builds the export filter from the request parameters.
+     *
+     * @param request the request.
+     * @return the {@link ExportFilter}.
+     * @throws IllegalArgumentException if a country code or date is invalid.
+     */
+    private ExportFilter parseFilter(HttpServletRequest request) {
+        CountryIndex countryIndex = countryIndexService.getIndex();
+        Set<Integer> countryIds = new HashSet<>();
+        String[] countryParameters = request.getParameterValues("country");
+
+        if (null != countryParameters) {
+            for (String parameter : countryParameters) {
+                for (String code : parameter.split(",")) {
+                    if (code.isBlank()) {
+                        continue;
+                    }
+
+                    CountryIndex.Entry country = countryIndex.findByCode(code.trim().toUpperCase(Locale.ROOT));
+
+                    if (null == country) {
+                        throw new IllegalArgumentException("Unknown country code: " + code.trim());
+                    }
+
+                    countryIds.add(country.getId());
+                }
+            }
+        }
+
+        return new ExportFilter(countryIds, ServletSupport.parseDate(request, "from"), ServletSupport.parseDate(request, "to"));
+    }
+}
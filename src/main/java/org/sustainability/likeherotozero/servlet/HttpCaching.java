@@ -0,0 +1,156 @@
+package org.sustainability.likeherotozero.servlet;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Helpers for conditional requests and compressed responses of the read-only servlets.
+ * Responses carry a weak ETag and a Last-Modified date derived from the data they contain, so clients,
+ * reverse proxies and CDNs can revalidate them and receive a 304 instead of the whole response.
+ */
+public final class HttpCaching {
+
+    private HttpCaching() {
+
+    }
+
+    /**
+     * Builds a weak ETag from the parts that identify the content of a response.
+     *
+     * @param parts the parts, e.g. the request parameters and the version of the data.
+     * @return the ETag including quotes.
+     */
+    public static String etag(Object... parts) {
+        StringBuilder source = new StringBuilder();
+
+        for (Object part : parts) {
+            source.append(part).append('|');
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder etag = new StringBuilder("W/\"");
+
+            for (int i = 0; i < 16; i++) {
+                etag.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Sets the validators and the Cache-Control header of a response and checks the conditional headers of the request.
+     * If-None-Match takes precedence over If-Modified-Since. If the client's copy is still valid,
+     * the response status is set to 304 and no body must be written.
+     *
+     * @param request      the request.
+     * @param response     the response.
+     * @param etag         the ETag of the response.
+     * @param lastModified the time of the last modification in milliseconds, or a negative value if unknown.
+     * @param cacheControl the value of the Cache-Control header.
+     * @return true if the response is not modified and was answered with 304, false otherwise.
+     */
+    public static boolean checkNotModified(HttpServletRequest request, HttpServletResponse response,
+                                           String etag, long lastModified, String cacheControl) {
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", cacheControl);
+        response.addHeader("Vary", "Accept-Encoding");
+
+        if (lastModified >= 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified;
+
+        if (null != ifNoneMatch) {
+            notModified = matches(ifNoneMatch, etag);
+        } else {
+            long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+            // HTTP dates have a precision of seconds
+            notModified = ifModifiedSince >= 0 && lastModified >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+        }
+
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        }
+
+        return notModified;
+    }
+
+    /**
+     * Opens the body of a response, compressed with gzip if the client accepts it.
+     * The returned stream must be closed to finish the compression.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @return the stream to write the body to.
+     * @throws IOException if the response cannot be opened.
+     */
+    public static OutputStream openBody(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+
+        if (null != acceptEncoding && acceptEncoding.toLowerCase().contains("gzip")) {
+            response.setHeader("Content-Encoding", "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 8192);
+        }
+
+        return response.getOutputStream();
+    }
+
+    /**
+     * Checks if an If-None-Match header matches an ETag, using the weak comparison.
+     *
+     * @param ifNoneMatch the value of the If-None-Match header.
+     * @param etag        the ETag of the response.
+     * @return true if one of the listed ETags matches, false otherwise.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+
+            if ("*".equals(trimmed) || opaque.equals(stripWeak(trimmed))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the weak indicator from an ETag.
+     *
+     * @param etag the ETag.
+     * @return the ETag without the weak indicator.
+     */
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Reads a date header, ignoring malformed values.
+     *
+     * @param request the request.
+     * @param name    the name of the header.
+     * @return the date in milliseconds, or -1 if the header is missing or malformed.
+     */
+    private static long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
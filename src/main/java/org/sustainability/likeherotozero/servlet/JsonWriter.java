@@ -0,0 +1,258 @@
+package org.sustainability.likeherotozero.servlet;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal streaming JSON writer.
+ * Values are written directly to the underlying {@link Writer}, so documents of any size can be produced
+ * without building them in memory. Separators between values are inserted automatically.
+ */
+public class JsonWriter {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final Writer out;
+    private final boolean[] hasValue = new boolean[MAX_DEPTH];
+    private int depth = 0;
+    private boolean afterName = false;
+
+    /**
+     * Creates a new JSON writer.
+     *
+     * @param out the writer to write the JSON document to.
+     */
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Begins a JSON array.
+     *
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /**
+     * Ends the current JSON array.
+     *
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Begins a JSON object.
+     *
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /**
+     * Ends the current JSON object.
+     *
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    /**
+     * Writes the name of the next member of the current object.
+     *
+     * @param name the name of the member.
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        writeString(name);
+        out.write(':');
+        this.afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string value, or null.
+     *
+     * @param value the value.
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter value(String value) throws IOException {
+        if (null == value) {
+            return nullValue();
+        }
+
+        separate();
+        writeString(value);
+        return this;
+    }
+
+    /**
+     * Writes a number value. Values that are not finite are written as null.
+     *
+     * @param value the value.
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+
+        separate();
+        out.write(Double.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a number value.
+     *
+     * @param value the value.
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a boolean value.
+     *
+     * @param value the value.
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes a null value.
+     *
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    public JsonWriter nullValue() throws IOException {
+        separate();
+        out.write("null");
+        return this;
+    }
+
+    /**
+     * Flushes the underlying writer.
+     *
+     * @throws IOException if flushing fails.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Opens an array or object.
+     *
+     * @param bracket the opening bracket.
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    private JsonWriter open(char bracket) throws IOException {
+        separate();
+        out.write(bracket);
+
+        if (++depth >= MAX_DEPTH) {
+            throw new IllegalStateException("JSON nesting too deep");
+        }
+
+        hasValue[depth] = false;
+        return this;
+    }
+
+    /**
+     * Closes an array or object.
+     *
+     * @param bracket the closing bracket.
+     * @return this writer.
+     * @throws IOException if writing fails.
+     */
+    private JsonWriter close(char bracket) throws IOException {
+        if (0 == depth) {
+            throw new IllegalStateException("No open JSON array or object");
+        }
+
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+
+    /**
+     * Writes a comma if the current value is not the first one of its array or object.
+     *
+     * @throws IOException if writing fails.
+     */
+    private void separate() throws IOException {
+        if (afterName) {
+            this.afterName = false;
+            return;
+        }
+
+        if (hasValue[depth]) {
+            out.write(',');
+        }
+
+        hasValue[depth] = true;
+    }
+
+    /**
+     * Writes a quoted and escaped string.
+     *
+     * @param value the string.
+     * @throws IOException if writing fails.
+     */
+    private void writeString(String value) throws IOException {
+        out.write('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || 0x2028 == c || 0x2029 == c) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+
+        out.write('"');
+    }
+}
@@ -0,0 +1,332 @@
+package org.sustainability.likeherotozero.servlet;
+
+import org.sustainability.likeherotozero.model.Histogram;
+import org.sustainability.likeherotozero.service.MetricsService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.inject.Inject;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the metrics of the {@link MetricsService} in the Prometheus text format on {@code GET /metrics}:
+ * <ul>
+ *     <li>latency histograms of every DAO method</li>
+ *     <li>duration and number of queries of HTTP requests by path, and requests exceeding their query budget</li>
+ *     <li>entity and collection loads and fetches, executed queries and prepared statements</li>
+ *     <li>hits, misses and hit ratios of the second-level and the query cache</li>
+ *     <li>active, idle and waiting connections and the utilization of the connection pool</li>
+ * </ul>
+ */
+@WebServlet(MetricsServlet.PATH)
+public class MetricsServlet extends HttpServlet {
+
+    /**
+     * The path of the servlet within the application.
+     */
+    static final String PATH = "/metrics";
+
+    private static final String PREFIX = "likeherotozero_";
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    @Inject
+    private MetricsService metricsService;
+
+    /**
+     * Writes all metrics.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain; version=0.0.4");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Cache-Control", "no-store");
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8))) {
+            writeMethodLatencies(out);
+            writeRequests(out);
+            writeStatistics(out, metricsService.getStatistics());
+            writePool(out, metricsService.getDataSource());
+        }
+    }
+
+    /**
+     * Writes the latency histograms of the DAO methods.
+     *
+     * @param out the writer.
+     * @throws IOException if writing fails.
+     */
+    private void writeMethodLatencies(Writer out) throws IOException {
+        String name = PREFIX + "dao_method_duration_seconds";
+        writeHeader(out, name, "histogram", "Latency of DAO method calls.");
+
+        for (Map.Entry<Method, Histogram> entry : metricsService.getMethodLatencies().entrySet()) {
+            Method method = entry.getKey();
+            String labels = "dao=\"" + escape(method.getDeclaringClass().getSimpleName()) + "\",method=\"" + escape(method.getName()) + "\"";
+            writeHistogram(out, name, labels, entry.getValue(), NANOS_PER_SECOND);
+        }
+    }
+
+    /**
+     * Writes the histograms of the HTTP requests and the requests exceeding their query budget.
+     *
+     * @param out the writer.
+     * @throws IOException if writing fails.
+     */
+    private void writeRequests(Writer out) throws IOException {
+        String name = PREFIX + "http_request_duration_seconds";
+        writeHeader(out, name, "histogram", "Duration of HTTP requests to pages and the API.");
+
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(metricsService.getRequestLatencies()).entrySet()) {
+            writeHistogram(out, name, pathLabel(entry.getKey()), entry.getValue(), NANOS_PER_SECOND);
+        }
+
+        name = PREFIX + "http_request_queries";
+        writeHeader(out, name, "histogram", "Number of SQL statements per HTTP request to pages and the API.");
+
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(metricsService.getRequestQueries()).entrySet()) {
+            writeHistogram(out, name, pathLabel(entry.getKey()), entry.getValue(), 1);
+        }
+
+        name = PREFIX + "http_request_query_budget_exceeded_total";
+        writeHeader(out, name, "counter", "HTTP requests issuing more SQL statements than the query budget of their path.");
+
+        for (Map.Entry<String, Long> entry : metricsService.getExceededQueryBudgets().entrySet()) {
+            writeSample(out, name, pathLabel(entry.getKey()), entry.getValue());
+        }
+    }
+
+    /**
+     * Writes the Hibernate statistics.
+     *
+     * @param out        the writer.
+     * @param statistics the statistics.
+     * @throws IOException if writing fails.
+     */
+    private static void writeStatistics(Writer out, Statistics statistics) throws IOException {
+        writeCounter(out, "hibernate_entity_loads_total", "Entities loaded from the database.", statistics.getEntityLoadCount());
+        writeCounter(out, "hibernate_entity_fetches_total", "Entities fetched lazily or by an additional select.",
+                statistics.getEntityFetchCount());
+        writeCounter(out, "hibernate_collection_loads_total", "Collections loaded from the database.", statistics.getCollectionLoadCount());
+        writeCounter(out, "hibernate_collection_fetches_total", "Collections fetched lazily or by an additional select.",
+                statistics.getCollectionFetchCount());
+        writeCounter(out, "hibernate_queries_total", "Executed HQL and native queries.", statistics.getQueryExecutionCount());
+        writeCounter(out, "hibernate_statements_prepared_total", "Prepared JDBC statements.", statistics.getPrepareStatementCount());
+        writeCounter(out, "hibernate_query_cache_hits_total", "Hits of the query cache.", statistics.getQueryCacheHitCount());
+        writeCounter(out, "hibernate_query_cache_misses_total", "Misses of the query cache.", statistics.getQueryCacheMissCount());
+        writeGauge(out, "hibernate_query_cache_hit_ratio", "Hit ratio of the query cache.",
+                ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+
+        Map<String, CacheRegionStatistics> regions = new TreeMap<>();
+
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+
+            if (null != regionStatistics) {
+                regions.put(region, regionStatistics);
+            }
+        }
+
+        writeRegions(out, "hibernate_cache_hits_total", "counter", "Hits of a second-level cache region.",
+                regions, CacheRegionStatistics::getHitCount);
+        writeRegions(out, "hibernate_cache_misses_total", "counter", "Misses of a second-level cache region.",
+                regions, CacheRegionStatistics::getMissCount);
+        writeRegions(out, "hibernate_cache_puts_total", "counter", "Puts into a second-level cache region.",
+                regions, CacheRegionStatistics::getPutCount);
+        writeRegions(out, "hibernate_cache_hit_ratio", "gauge", "Hit ratio of a second-level cache region.",
+                regions, r -> ratio(r.getHitCount(), r.getMissCount()));
+    }
+
+    /**
+     * Writes a metric with a sample per second-level cache region.
+     *
+     * @param out     the writer.
+     * @param name    the name of the metric without prefix.
+     * @param type    the type of the metric.
+     * @param help    the description.
+     * @param regions the statistics by region name.
+     * @param value   the function extracting the value from the statistics of a region.
+     * @throws IOException if writing fails.
+     */
+    private static void writeRegions(Writer out, String name, String type, String help, Map<String, CacheRegionStatistics> regions,
+                                     ToDoubleFunction<CacheRegionStatistics> value) throws IOException {
+        writeHeader(out, PREFIX + name, type, help);
+
+        for (Map.Entry<String, CacheRegionStatistics> region : regions.entrySet()) {
+            writeSample(out, PREFIX + name, "region=\"" + escape(region.getKey()) + "\"", value.applyAsDouble(region.getValue()));
+        }
+    }
+
+    /**
+     * Writes the state of the connection pool.
+     *
+     * @param out        the writer.
+     * @param dataSource the connection pool, or null if there is none.
+     * @throws IOException if writing fails.
+     */
+    private static void writePool(Writer out, HikariDataSource dataSource) throws IOException {
+        HikariPoolMXBean pool = null == dataSource ? null : dataSource.getHikariPoolMXBean();
+
+        if (null == pool) {
+            return;
+        }
+
+        int active = pool.getActiveConnections();
+        int maximum = dataSource.getMaximumPoolSize();
+        String connections = PREFIX + "pool_connections";
+
+        writeHeader(out, connections, "gauge", "Connections of the pool by state.");
+        writeSample(out, connections, "state=\"active\"", active);
+        writeSample(out, connections, "state=\"idle\"", pool.getIdleConnections());
+        writeGauge(out, "pool_connections_max", "Maximum size of the pool.", maximum);
+        writeGauge(out, "pool_threads_awaiting", "Threads waiting for a connection.", pool.getThreadsAwaitingConnection());
+        writeGauge(out, "pool_utilization", "Share of the maximum pool size in use.", (double) active / maximum);
+    }
+
+    /**
+     * Writes the samples of a histogram.
+     *
+     * @param out       the writer.
+     * @param name      the name of the metric.
+     * @param labels    the labels, or an empty string.
+     * @param histogram the histogram.
+     * @param divisor   the divisor converting the recorded values to the unit of the metric.
+     * @throws IOException if writing fails.
+     */
+    private static void writeHistogram(Writer out, String name, String labels, Histogram histogram, double divisor) throws IOException {
+        long[] counts = histogram.getCumulativeCounts();
+        String separator = labels.isEmpty() ? "" : labels + ",";
+
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            writeSample(out, name + "_bucket", separator + "le=\"" + format(histogram.getUpperBound(i) / divisor) + "\"", counts[i]);
+        }
+
+        writeSample(out, name + "_bucket", separator + "le=\"+Inf\"", counts[counts.length - 1]);
+        writeSample(out, name + "_sum", labels, histogram.getSum() / divisor);
+        writeSample(out, name + "_count", labels, counts[counts.length - 1]);
+    }
+
+    /**
+     * Writes a counter without labels.
+     *
+     * @param out   the writer.
+     * @param name  the name of the metric without prefix.
+     * @param help  the description.
+     * @param value the value.
+     * @throws IOException if writing fails.
+     */
+    private static void writeCounter(Writer out, String name, String help, double value) throws IOException {
+        writeHeader(out, PREFIX + name, "counter", help);
+        writeSample(out, PREFIX + name, "", value);
+    }
+
+    /**
+     * Writes a gauge without labels.
+     *
+     * @param out   the writer.
+     * @param name  the name of the metric without prefix.
+     * @param help  the description.
+     * @param value the value.
+     * @throws IOException if writing fails.
+     */
+    private static void writeGauge(Writer out, String name, String help, double value) throws IOException {
+        writeHeader(out, PREFIX + name, "gauge", help);
+        writeSample(out, PREFIX + name, "", value);
+    }
+
+    /**
+     * Writes the HELP and TYPE lines of a metric.
+     *
+     * @param out  the writer.
+     * @param name the name of the metric.
+     * @param type the type of the metric.
+     * @param help the description.
+     * @throws IOException if writing fails.
+     */
+    private static void writeHeader(Writer out, String name, String type, String help) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    /**
+     * Writes a sample.
+     *
+     * @param out    the writer.
+     * @param name   the name of the metric.
+     * @param labels the labels, or an empty string.
+     * @param value  the value.
+     * @throws IOException if writing fails.
+     */
+    private static void writeSample(Writer out, String name, String labels, double value) throws IOException {
+        out.write(name);
+
+        if (!labels.isEmpty()) {
+            out.write("{" + labels + "}");
+        }
+
+        out.write(" " + format(value) + "\n");
+    }
+
+    /**
+     * Computes a hit ratio.
+     *
+     * @param hits   the number of hits.
+     * @param misses the number of misses.
+     * @return the ratio of hits to all lookups, or NaN if there were no lookups.
+     */
+    private static double ratio(long hits, long misses) {
+        return 0 == hits + misses ? Double.NaN : (double) hits / (hits + misses);
+    }
+
+    /**
+     * Formats a value without exponent and trailing zeros.
+     *
+     * @param value the value.
+     * @return the formatted value.
+     */
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Builds the label of a servlet path.
+     *
+     * @param path the servlet path.
+     * @return the label.
+     */
+    private static String pathLabel(String path) {
+        return "path=\"" + escape(path) + "\"";
+    }
+
+    /**
+     * Escapes a label value.
+     *
+     * @param value the value.
+     * @return the escaped value.
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,96 @@
+package org.sustainability.likeherotozero.servlet;
+
+import org.sustainability.likeherotozero.dao.QueryCountingStatementInspector;
+import org.sustainability.likeherotozero.dao.RecordedQueries;
+import org.sustainability.likeherotozero.service.MetricsService;
+import jakarta.inject.Inject;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Measures the duration and the number of SQL statements of every request to a page or the API.
+ * Requests for Faces resources (stylesheets, scripts, images) and for the metrics themselves are not measured,
+ * so they do not dilute the distributions.
+ * A request issuing more statements than the query budget of its path is logged with the shapes of its statements,
+ * the most frequent first, so N+1 patterns show up with the query that is repeated.
+ *
+ * @see MetricsService#QUERY_BUDGET_PROPERTY
+ */
+@WebFilter("/*")
+public class RequestMetricsFilter extends HttpFilter {
+
+    private static final Logger LOGGER = Logger.getLogger(RequestMetricsFilter.class.getName());
+
+    /**
+     * The number of query shapes listed when a request exceeds its query budget.
+     */
+    private static final int LOGGED_SHAPES = 5;
+
+    @Inject
+    private MetricsService metricsService;
+
+    /**
+     * Passes the request on, records its duration and number of queries and logs it if it exceeds its query budget.
+     *
+     * @param request  the request.
+     * @param response the response.
+     * @param chain    the filter chain.
+     * @throws IOException      if the request fails.
+     * @throws ServletException if the request fails.
+     */
+    @Override
+    protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (path.startsWith("/jakarta.faces.resource/") || path.equals(MetricsServlet.PATH)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        QueryCountingStatementInspector.begin();
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RecordedQueries queries = QueryCountingStatementInspector.end();
+
+            if (!metricsService.recordRequest(request.getServletPath(), System.nanoTime() - start, queries.getCount())) {
+                logExceededBudget(request, queries);
+            }
+        }
+    }
+
+    /**
+     * Logs a request that exceeded its query budget.
+     *
+     * @param request the request.
+     * @param queries the statements of the request.
+     */
+    private void logExceededBudget(HttpServletRequest request, RecordedQueries queries) {
+        StringBuilder message = new StringBuilder(String.format("%s %s issued %d SQL statements, budget %d:",
+                request.getMethod(), request.getRequestURI(), queries.getCount(),
+                metricsService.getQueryBudget(request.getServletPath())));
+        int listed = 0;
+
+        for (Map.Entry<String, Integer> shape : queries.getShapes().entrySet()) {
+            if (LOGGED_SHAPES == listed++) {
+                message.append(String.format("%n  ... %d more shapes", queries.getShapes().size() - LOGGED_SHAPES));
+                break;
+            }
+
+            message.append(String.format("%n  %5d x %s", shape.getValue(), shape.getKey()));
+        }
+
+        LOGGER.warning(message.toString());
+    }
+}
@@ -0,0 +1,66 @@
+package org.sustainability.likeherotozero.servlet;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ * Helpers shared by the servlets for reading request parameters and converting values read from the database.
+ */
+final class ServletSupport {
+
+    private ServletSupport() {
+
+    }
+
+    /**
+     * Parses a date parameter in the format yyyy-MM-dd.
+     *
+     * @param request the request.
+     * @param name    the name of the parameter.
+     * @return the date, or null if the parameter is missing.
+     * @throws IllegalArgumentException if the date is invalid.
+     */
+    static Date parseDate(HttpServletRequest request, String name) {
+        LocalDate date = parseLocalDate(request, name);
+        return null == date ? null : java.sql.Date.valueOf(date);
+    }
+
+    /**
+     * Parses a date parameter in the format yyyy-MM-dd as {@link LocalDate}.
+     *
+     * @param request the request.
+     * @param name    the name of the parameter.
+     * @return the date, or null if the parameter is missing.
+     * @throws IllegalArgumentException if the date is invalid.
+     */
+    static LocalDate parseLocalDate(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+
+        if (null == value || value.isBlank()) {
+            return null;
+        }
+
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date for " + name + ", expected yyyy-MM-dd: " + value);
+        }
+    }
+
+    /**
+     * Converts a reported date read from the database to a {@link LocalDate}.
+     *
+     * @param date the date.
+     * @return the date as {@link LocalDate}.
+     */
+    static LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
+        }
+
+        return new java.sql.Date(date.getTime()).toLocalDate();
+    }
+}
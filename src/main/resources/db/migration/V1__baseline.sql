@@ -0,0 +1,52 @@
+-- Schema of the original application (countries, emission data, users and roles) as created by hbm2ddl.
+-- Databases created that way are baselined at this version instead of running the script; the later scripts
+-- are applied to them.
+
+create table Country (
+    id integer not null auto_increment,
+    code varchar(3) not null,
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table EmissionData (
+    id integer not null auto_increment,
+    approved bit default false not null,
+    createdAt datetime(6) not null,
+    reportedFor date not null,
+    updatedAt datetime(6) not null,
+    value float(53) not null,
+    country_id integer not null,
+    createdBy_id integer,
+    primary key (id)
+) engine=InnoDB;
+
+create table User (
+    id integer not null auto_increment,
+    isActive bit not null,
+    password varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table User_UserRole (
+    user_id integer not null,
+    userRole_id integer not null
+) engine=InnoDB;
+
+create table UserRole (
+    id integer not null auto_increment,
+    role varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table Country add constraint UK_qyh4l70f9l5k5jcv876rb4j89 unique (code);
+alter table Country add constraint UK_t81fgsgaq5hcgbixtau1ptk3 unique (name);
+alter table EmissionData add constraint UK6c80yl5lyx6fk4ii0bsr9313i unique (reportedFor, country_id);
+alter table User add constraint UK_jreodf78a7pl5qidfh43axdfb unique (username);
+alter table UserRole add constraint UK_a2shm4fx4ubol078nk8txb6jy unique (role);
+
+alter table EmissionData add constraint FKfi6aegu8n8ov6bwwo48ckfv5 foreign key (country_id) references Country (id);
+alter table EmissionData add constraint FKg2tnomw3klt75qeb0bc8viieg foreign key (createdBy_id) references User (id);
+alter table User_UserRole add constraint FKb76rkc29cmjlu6wxko5qwgr2k foreign key (userRole_id) references UserRole (id);
+alter table User_UserRole add constraint FKouhf7evplwwpuhc17gv3q9akr foreign key (user_id) references User (id);
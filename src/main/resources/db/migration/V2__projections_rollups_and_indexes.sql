@@ -0,0 +1,26 @@
+-- Projection of the latest approved value per country, rollup buckets and the indexes of the hot queries
+-- on emission data.
+
+create table LatestEmissionData (
+    countryId integer not null,
+    emissionDataId integer not null,
+    reportedFor date not null,
+    updatedAt datetime(6) not null,
+    value float(53) not null,
+    primary key (countryId)
+) engine=InnoDB;
+
+create table EmissionRollup (
+    countryId integer not null,
+    granularity varchar(8) not null,
+    period integer not null,
+    count bigint not null,
+    maxMilli bigint not null,
+    minMilli bigint not null,
+    sumMilli bigint not null,
+    updatedAt datetime(6) not null,
+    primary key (countryId, granularity, period)
+) engine=InnoDB;
+
+create index idx_emissiondata_country_approved_reported on EmissionData (country_id, approved, reportedFor, value, updatedAt);
+create index idx_emissiondata_approved_created on EmissionData (approved, createdAt);
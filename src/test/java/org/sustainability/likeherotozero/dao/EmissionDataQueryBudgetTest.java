@@ -0,0 +1,109 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.model.ApprovedEmissionDataModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the data access behind the emission data page issues at most {@link #BUDGET} SQL statements when a
+ * country is selected, counted by the {@link QueryCountingStatementInspector} like the request metrics do, so an
+ * N+1 pattern in the DAOs fails the default build and not only the load test. The caches are cold, so the budget
+ * holds without the second-level cache.
+ */
+class EmissionDataQueryBudgetTest {
+
+    /**
+     * The largest number of statements, the same as the default of the page budget in the load test.
+     */
+    private static final int BUDGET = 5;
+
+    private static final int PAGE_SIZE = 25;
+
+    private static EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Creates the persistence unit on the test database.
+     */
+    @BeforeAll
+    static void setUp() {
+        entityManagerFactory = TestDatabase.createEntityManagerFactory();
+    }
+
+    /**
+     * Closes the persistence unit.
+     */
+    @AfterAll
+    static void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    /**
+     * Selecting a country counts the approved values, loads the first page of the table and reads the series
+     * of the chart.
+     */
+    @Test
+    void selectingACountryStaysWithinTheBudget() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+
+        try {
+            int countryId = TestDatabase.getCountryId(0);
+            EmissionDataDAO emissionDataDAO = TestDatabase.inject(new EmissionDataDAO(), entityManager);
+            ApprovedEmissionDataModel model = new ApprovedEmissionDataModel(emissionDataDAO, countryId);
+
+            QueryCountingStatementInspector.begin();
+            int count = model.count(Collections.emptyMap());
+            List<EmissionData> page = model.load(0, PAGE_SIZE, Collections.emptyMap(), Collections.emptyMap());
+            page.forEach(emissionData -> emissionData.getCountry().getName());
+            long points;
+
+            try (Stream<Object[]> rows = emissionDataDAO.streamApprovedValues(Collections.singleton(countryId), 1000)) {
+                points = rows.count();
+            }
+
+            RecordedQueries queries = QueryCountingStatementInspector.end();
+
+            assertEquals(TestDatabase.VALUES_PER_COUNTRY, count);
+            assertEquals(PAGE_SIZE, page.size());
+            assertEquals(TestDatabase.VALUES_PER_COUNTRY, points);
+            assertTrue(queries.getCount() <= BUDGET, () -> queries.getCount() + " statements: " + queries.getShapes());
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Paging the table loads the next page with one statement, starting after the last row of the previous page.
+     */
+    @Test
+    void pagingTheTableIssuesOneStatement() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+
+        try {
+            EmissionDataDAO emissionDataDAO = TestDatabase.inject(new EmissionDataDAO(), entityManager);
+            ApprovedEmissionDataModel model = new ApprovedEmissionDataModel(emissionDataDAO, TestDatabase.getCountryId(1));
+            List<EmissionData> first = model.load(0, PAGE_SIZE, Collections.emptyMap(), Collections.emptyMap());
+
+            QueryCountingStatementInspector.begin();
+            List<EmissionData> second = model.load(PAGE_SIZE, PAGE_SIZE, Collections.emptyMap(), Collections.emptyMap());
+            second.forEach(emissionData -> emissionData.getCountry().getName());
+            RecordedQueries queries = QueryCountingStatementInspector.end();
+
+            assertEquals(PAGE_SIZE, second.size());
+            assertTrue(second.get(0).getReportedFor().before(first.get(PAGE_SIZE - 1).getReportedFor()));
+            assertEquals(1, queries.getCount(), () -> queries.getCount() + " statements: " + queries.getShapes());
+        } finally {
+            entityManager.close();
+        }
+    }
+}
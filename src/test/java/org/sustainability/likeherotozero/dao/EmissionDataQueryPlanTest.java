@@ -0,0 +1,210 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.model.ApprovalQueueFilter;
+import org.sustainability.likeherotozero.model.SlowQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the hot queries on emission data use the indexes declared on {@link EmissionData} instead of scanning
+ * the table, so no query silently degrades to a full scan as the data grows. The DAO methods are called with the
+ * slow-query log recording every statement and explaining the first occurrence of each shape; the plans are then
+ * checked for the expected index. The plan format is the one of H2, the database of the tests.
+ */
+class EmissionDataQueryPlanTest {
+
+    private static final String TABLE_SCAN = "EMISSIONDATA.tableScan";
+
+    private static EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+    private EmissionDataDAO emissionDataDAO;
+    private EmissionRollupDAO emissionRollupDAO;
+    private int countryId;
+
+    /**
+     * Creates a persistence unit whose connections record and explain every statement.
+     * The slow-query log reads its settings when the factory is created, so they are changed only meanwhile.
+     */
+    @BeforeAll
+    static void setUp() {
+        String threshold = System.getProperty(SlowQueryConnectionProvider.THRESHOLD_PROPERTY);
+        String explain = System.getProperty(SlowQueryConnectionProvider.EXPLAIN_PROPERTY);
+
+        try {
+            System.setProperty(SlowQueryConnectionProvider.THRESHOLD_PROPERTY, "0");
+            System.setProperty(SlowQueryConnectionProvider.EXPLAIN_PROPERTY, "true");
+            entityManagerFactory = TestDatabase.createEntityManagerFactory();
+        } finally {
+            restore(SlowQueryConnectionProvider.THRESHOLD_PROPERTY, threshold);
+            restore(SlowQueryConnectionProvider.EXPLAIN_PROPERTY, explain);
+        }
+    }
+
+    /**
+     * Closes the persistence unit.
+     */
+    @AfterAll
+    static void tearDown() {
+        entityManagerFactory.close();
+        SlowQueryLog.clear();
+    }
+
+    /**
+     * Creates the DAOs on a new entity manager and forgets the statements recorded so far.
+     */
+    @BeforeEach
+    void createDAOs() {
+        entityManager = entityManagerFactory.createEntityManager();
+        emissionDataDAO = TestDatabase.inject(new EmissionDataDAO(), entityManager);
+        emissionRollupDAO = TestDatabase.inject(new EmissionRollupDAO(), entityManager);
+        countryId = TestDatabase.getCountryId(2);
+        SlowQueryLog.clear();
+    }
+
+    /**
+     * Closes the entity manager.
+     */
+    @AfterEach
+    void closeEntityManager() {
+        entityManager.close();
+    }
+
+    /**
+     * The newest value of a country is read from the end of the index range of the country.
+     */
+    @Test
+    void findNewestApprovedByCountryIdUsesTheCountryIndex() {
+        emissionDataDAO.findNewestApprovedByCountryId(countryId);
+        assertPlanUses(EmissionData.INDEX_COUNTRY_APPROVED_REPORTED);
+    }
+
+    /**
+     * A page of the table by offset is read from the index range of the country.
+     */
+    @Test
+    void findApprovedByCountryIdWithOffsetUsesTheCountryIndex() {
+        emissionDataDAO.findApprovedByCountryId(countryId, "reportedFor", false, null, 25, 25);
+        assertPlanUses(EmissionData.INDEX_COUNTRY_APPROVED_REPORTED);
+    }
+
+    /**
+     * A page of the table after a cursor is read from the index range of the country.
+     */
+    @Test
+    void findApprovedByCountryIdWithCursorUsesTheCountryIndex() {
+        EmissionData newest = emissionDataDAO.findNewestApprovedByCountryId(countryId);
+        SlowQueryLog.clear();
+        emissionDataDAO.findApprovedByCountryId(countryId, "reportedFor", false, newest, 0, 25);
+        assertPlanUses(EmissionData.INDEX_COUNTRY_APPROVED_REPORTED);
+    }
+
+    /**
+     * The approved values of a country are counted on the index range of the country.
+     */
+    @Test
+    void countApprovedByCountryIdUsesTheCountryIndex() {
+        emissionDataDAO.countApprovedByCountryId(countryId);
+        assertPlanUses(EmissionData.INDEX_COUNTRY_APPROVED_REPORTED);
+    }
+
+    /**
+     * The series of a country is read from the index range of the country.
+     */
+    @Test
+    void streamApprovedValuesUsesTheCountryIndex() {
+        try (Stream<Object[]> values = emissionDataDAO.streamApprovedValues(Collections.singleton(countryId), 500)) {
+            values.count();
+        }
+
+        assertPlanUses(EmissionData.INDEX_COUNTRY_APPROVED_REPORTED);
+    }
+
+    /**
+     * The values a bucket is recomputed from are read from the index range of the country.
+     */
+    @Test
+    void findApprovedValuesUsesTheCountryIndex() {
+        EmissionData newest = emissionDataDAO.findNewestApprovedByCountryId(countryId);
+        Date to = new Date(newest.getReportedFor().getTime());
+        SlowQueryLog.clear();
+        entityManager.getTransaction().begin();
+
+        try {
+            emissionRollupDAO.findApprovedValues(countryId, Date.valueOf(to.toLocalDate().minusYears(1)), to);
+        } finally {
+            entityManager.getTransaction().rollback();
+        }
+
+        assertPlanUses(EmissionData.INDEX_COUNTRY_APPROVED_REPORTED);
+    }
+
+    /**
+     * The approval queue is read from the index on the approval state and the creation time.
+     */
+    @Test
+    void findUnapprovedUsesTheQueueIndex() {
+        emissionDataDAO.findUnapproved(new ApprovalQueueFilter(), null, 0, 50);
+        assertPlanUses(EmissionData.INDEX_APPROVED_CREATED);
+    }
+
+    /**
+     * The approval queue is counted on the index on the approval state and the creation time.
+     */
+    @Test
+    void countUnapprovedUsesTheQueueIndex() {
+        emissionDataDAO.countUnapproved(new ApprovalQueueFilter());
+        assertPlanUses(EmissionData.INDEX_APPROVED_CREATED);
+    }
+
+    /**
+     * Checks the plans of all statements on emission data explained since the log was cleared, so a method issuing
+     * several statements cannot pass on the plan of only one of them.
+     *
+     * @param index the name of the index every statement must use.
+     */
+    private static void assertPlanUses(String index) {
+        List<String> plans = SlowQueryLog.getEntries().stream()
+                .filter(statement -> null != statement.getPlan())
+                .filter(statement -> statement.getSql().contains("EmissionData"))
+                .map(SlowQuery::getPlan)
+                .collect(Collectors.toList());
+
+        assertFalse(plans.isEmpty(), "No plan was recorded");
+
+        for (String plan : plans) {
+            assertFalse(plan.contains(TABLE_SCAN), () -> "The table is scanned:\n" + plan);
+            assertTrue(plan.toUpperCase(Locale.ROOT).contains(index.toUpperCase(Locale.ROOT)), () -> "Expected " + index + ":\n" + plan);
+        }
+    }
+
+    /**
+     * Restores a system property.
+     *
+     * @param name  the name of the property.
+     * @param value the previous value, or null if it was not set.
+     */
+    private static void restore(String name, String value) {
+        if (null == value) {
+            System.clearProperty(name);
+        } else {
+            System.setProperty(name, value);
+        }
+    }
+}
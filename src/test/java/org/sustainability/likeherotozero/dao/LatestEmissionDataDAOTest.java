@@ -0,0 +1,143 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.sustainability.likeherotozero.entity.EmissionData;
+import org.sustainability.likeherotozero.entity.LatestEmissionData;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the locking and refreshing of the latest emission data of a country by {@link LatestEmissionDataDAO}.
+ * Every test rolls its transactions back, so the shared test database is left unchanged.
+ */
+class LatestEmissionDataDAOTest {
+
+    private static EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Creates the persistence unit on the test database.
+     */
+    @BeforeAll
+    static void setUp() {
+        entityManagerFactory = TestDatabase.createEntityManagerFactory();
+    }
+
+    /**
+     * Closes the persistence unit.
+     */
+    @AfterAll
+    static void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    /**
+     * The placeholder inserted to lock a country is filled with the newest approved value by the refresh.
+     */
+    @Test
+    void refreshFillsThePlaceholder() {
+        int countryId = TestDatabase.getCountryId(3);
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        LatestEmissionDataDAO latestEmissionDataDAO = createDAO(entityManager);
+
+        try {
+            entityManager.getTransaction().begin();
+            latestEmissionDataDAO.lock(countryId);
+            latestEmissionDataDAO.refresh(countryId);
+            entityManager.flush();
+            entityManager.clear();
+
+            EmissionData newest = TestDatabase.inject(new EmissionDataDAO(), entityManager).findNewestApprovedByCountryId(countryId);
+            LatestEmissionData latest = latestEmissionDataDAO.findOneByCountryId(countryId);
+
+            assertNotNull(latest);
+            assertEquals(newest.getId(), latest.getEmissionDataId());
+            assertEquals(newest.getValue(), latest.getValue());
+        } finally {
+            entityManager.getTransaction().rollback();
+            entityManager.close();
+        }
+    }
+
+    /**
+     * The placeholder of a country without approved values is removed by the refresh.
+     */
+    @Test
+    void refreshRemovesThePlaceholderOfACountryWithoutValues() {
+        int countryId = Integer.MAX_VALUE;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        LatestEmissionDataDAO latestEmissionDataDAO = createDAO(entityManager);
+
+        try {
+            entityManager.getTransaction().begin();
+            latestEmissionDataDAO.lock(countryId);
+            latestEmissionDataDAO.refresh(countryId);
+            entityManager.flush();
+            entityManager.clear();
+
+            assertNull(latestEmissionDataDAO.findOneByCountryId(countryId));
+        } finally {
+            entityManager.getTransaction().rollback();
+            entityManager.close();
+        }
+    }
+
+    /**
+     * A second transaction locking a country, even one without an entry yet, waits until the first one has ended
+     * instead of inserting the entry a second time.
+     *
+     * @throws Exception if the second transaction fails.
+     */
+    @Test
+    void lockWaitsForTheTransactionHoldingTheCountry() throws Exception {
+        int countryId = Integer.MAX_VALUE - 1;
+        EntityManager first = entityManagerFactory.createEntityManager();
+        EntityManager second = entityManagerFactory.createEntityManager();
+
+        try {
+            first.getTransaction().begin();
+            createDAO(first).lock(countryId);
+
+            CompletableFuture<Void> locked = CompletableFuture.runAsync(() -> {
+                second.getTransaction().begin();
+                createDAO(second).lock(countryId);
+            });
+
+            assertThrows(TimeoutException.class, () -> locked.get(500, TimeUnit.MILLISECONDS));
+            first.getTransaction().rollback();
+            locked.get(10, TimeUnit.SECONDS);
+        } finally {
+            if (first.getTransaction().isActive()) {
+                first.getTransaction().rollback();
+            }
+
+            if (second.getTransaction().isActive()) {
+                second.getTransaction().rollback();
+            }
+
+            first.close();
+            second.close();
+        }
+    }
+
+    /**
+     * Creates the DAO on an entity manager.
+     *
+     * @param entityManager the entity manager.
+     * @return the {@link LatestEmissionDataDAO}.
+     */
+    private static LatestEmissionDataDAO createDAO(EntityManager entityManager) {
+        LatestEmissionDataDAO latestEmissionDataDAO = TestDatabase.inject(new LatestEmissionDataDAO(), entityManager);
+        return TestDatabase.inject(latestEmissionDataDAO, "emissionDataDAO", TestDatabase.inject(new EmissionDataDAO(), entityManager));
+    }
+}
@@ -0,0 +1,94 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the statement splitting and the checksums of the migration scripts of {@link SchemaMigrator}.
+ */
+class SchemaMigratorTest {
+
+    private static final String SCRIPT = "-- Creates the tables\n"
+            + "create table A (\n"
+            + "    id integer not null,\n"
+            + "    primary key (id)\n"
+            + ") engine=InnoDB;\n"
+            + "\n"
+            + "  -- An indented comment\n"
+            + "create index idx_a on A (id);\n"
+            + "insert into A (id) values (1)";
+
+    /**
+     * Statements end with a semicolon at the end of a line, which is removed; comments and blank lines are skipped,
+     * and a last statement without a semicolon is kept.
+     */
+    @Test
+    void splitsStatementsAtSemicolonsAtTheEndOfALine() {
+        List<String> statements = new SchemaMigrator.Migration(1, "V1__test.sql", SCRIPT).getStatements();
+
+        assertEquals(List.of(
+                "create table A (\n    id integer not null,\n    primary key (id)\n) engine=InnoDB",
+                "create index idx_a on A (id)",
+                "insert into A (id) values (1)"), statements);
+    }
+
+    /**
+     * A semicolon within a line does not end the statement.
+     */
+    @Test
+    void keepsSemicolonsWithinALine() {
+        List<String> statements = new SchemaMigrator.Migration(1, "V1__test.sql",
+                "insert into A (name) values ('a;b');\nselect 1;\n").getStatements();
+
+        assertEquals(List.of("insert into A (name) values ('a;b')", "select 1"), statements);
+    }
+
+    /**
+     * The checksum is the SHA-256 of the script and does not depend on the line endings of the checkout.
+     */
+    @Test
+    void computesChecksumsIndependentOfLineEndings() {
+        String checksum = new SchemaMigrator.Migration(1, "V1__test.sql", SCRIPT).getChecksum();
+
+        assertEquals(64, checksum.length());
+        assertEquals(checksum, new SchemaMigrator.Migration(1, "V1__test.sql", SCRIPT.replace("\n", "\r\n")).getChecksum());
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                new SchemaMigrator.Migration(1, "V1__test.sql", "").getChecksum());
+    }
+
+    /**
+     * Any other change of a script, even of a comment or whitespace, changes its checksum.
+     */
+    @Test
+    void changesTheChecksumWithTheContent() {
+        String checksum = new SchemaMigrator.Migration(1, "V1__test.sql", SCRIPT).getChecksum();
+
+        assertNotEquals(checksum, new SchemaMigrator.Migration(1, "V1__test.sql", SCRIPT + " ").getChecksum());
+        assertNotEquals(checksum, new SchemaMigrator.Migration(1, "V1__test.sql", SCRIPT.replace("tables", "table")).getChecksum());
+    }
+
+    /**
+     * The released scripts contain statements only, without semicolons left at their ends.
+     */
+    @Test
+    void splitsTheReleasedScripts() {
+        for (String script : List.of("V1__baseline.sql", "V2__projections_rollups_and_indexes.sql")) {
+            List<String> statements = SchemaMigrator.readMigrations().stream()
+                    .filter(migration -> migration.getScript().equals(script))
+                    .findFirst()
+                    .orElseThrow()
+                    .getStatements();
+
+            assertTrue(statements.size() > 1, script);
+
+            for (String statement : statements) {
+                assertTrue(!statement.isBlank() && !statement.trim().endsWith(";") && !statement.trim().startsWith("--"), statement);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.sustainability.likeherotozero.dao;
+
+import org.sustainability.likeherotozero.entity.Country;
+import org.sustainability.likeherotozero.entity.EmissionData;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory H2 database in MySQL mode shared by the database tests. The schema is created by the migration scripts
+ * and validated against the entities, then filled once per test run with synthetic countries, approved daily values
+ * and unapproved values for the approval queue.
+ */
+final class TestDatabase {
+
+    /**
+     * The number of countries.
+     */
+    static final int COUNTRIES = 10;
+
+    /**
+     * The number of approved daily values per country.
+     */
+    static final int VALUES_PER_COUNTRY = 1000;
+
+    /**
+     * The number of unapproved values per country.
+     */
+    static final int PENDING_PER_COUNTRY = 20;
+
+    /**
+     * The number of entities persisted before the persistence context is flushed and cleared while seeding.
+     */
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private static final Map<String, Object> OVERRIDES = createOverrides();
+
+    private static int[] countryIds;
+
+    private TestDatabase() {
+
+    }
+
+    /**
+     * Creates a persistence unit on the database, which is migrated and seeded first if this has not happened yet.
+     * The caller closes the factory.
+     *
+     * @return the {@link EntityManagerFactory}.
+     */
+    static EntityManagerFactory createEntityManagerFactory() {
+        seed();
+        return Persistence.createEntityManagerFactory("default", OVERRIDES);
+    }
+
+    /**
+     * Gets the ID of a seeded country.
+     *
+     * @param index any non-negative number; it is mapped to one of the countries.
+     * @return the ID of the country.
+     */
+    static int getCountryId(int index) {
+        seed();
+        return countryIds[index % countryIds.length];
+    }
+
+    /**
+     * Sets the injected {@link EntityManager} of a DAO, since the tests run without CDI.
+     *
+     * @param dao           the DAO.
+     * @param entityManager the entity manager.
+     * @param <T>           the type of the DAO.
+     * @return the DAO.
+     */
+    static <T> T inject(T dao, EntityManager entityManager) {
+        return inject(dao, "entityManager", entityManager);
+    }
+
+    /**
+     * Sets an injected field of a DAO, e.g. another DAO it uses, since the tests run without CDI.
+     *
+     * @param dao   the DAO.
+     * @param name  the name of the field.
+     * @param value the value to inject.
+     * @param <T>   the type of the DAO.
+     * @return the DAO.
+     */
+    static <T> T inject(T dao, String name, Object value) {
+        try {
+            Field field = dao.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(dao, value);
+            return dao;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " of " + dao.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Migrates the schema and seeds the synthetic data once.
+     */
+    private static synchronized void seed() {
+        if (null != countryIds) {
+            return;
+        }
+
+        new SchemaMigrator(OVERRIDES).migrate();
+        Map<String, Object> validate = new HashMap<>(OVERRIDES);
+        validate.put("hibernate.hbm2ddl.auto", "validate");
+        EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory("default", validate);
+        int[] ids = new int[COUNTRIES];
+
+        try {
+            EntityManager entityManager = entityManagerFactory.createEntityManager();
+
+            try {
+                entityManager.getTransaction().begin();
+                LocalDate first = LocalDate.now().minusYears(1).minusDays(VALUES_PER_COUNTRY);
+                int pending = 0;
+
+                for (int c = 0; c < COUNTRIES; c++) {
+                    Country country = new Country();
+                    country.setName("Country " + c);
+                    country.setCode(String.format("C%02d", c));
+                    entityManager.persist(country);
+                    ids[c] = country.getId();
+
+                    for (int v = 0; v < VALUES_PER_COUNTRY + PENDING_PER_COUNTRY; v++) {
+                        EmissionData emissionData = new EmissionData();
+                        emissionData.setCountry(country);
+                        emissionData.setReportedFor(java.sql.Date.valueOf(first.plusDays(v)));
+                        emissionData.setValue(1000 + (c * 31 + v * 17) % 5000 + v / 1000.0);
+                        // The unapproved values follow the approved ones, so they cannot collide
+                        emissionData.setApproved(v < VALUES_PER_COUNTRY);
+                        entityManager.persist(emissionData);
+
+                        if (++pending % SEED_BATCH_SIZE == 0) {
+                            entityManager.flush();
+                            entityManager.clear();
+                            country = entityManager.getReference(Country.class, ids[c]);
+                        }
+                    }
+                }
+
+                entityManager.getTransaction().commit();
+            } finally {
+                entityManager.close();
+            }
+        } finally {
+            entityManagerFactory.close();
+        }
+
+        countryIds = ids;
+    }
+
+    /**
+     * Builds the settings that replace the MySQL database of the persistence unit with the in-memory H2 database.
+     *
+     * @return the settings overriding persistence.xml.
+     */
+    private static Map<String, Object> createOverrides() {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("jakarta.persistence.jdbc.url", "jdbc:h2:mem:test;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1");
+        overrides.put("jakarta.persistence.jdbc.driver", "org.h2.Driver");
+        overrides.put("jakarta.persistence.jdbc.user", "sa");
+        overrides.put("jakarta.persistence.jdbc.password", "");
+        overrides.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        overrides.put("hibernate.hbm2ddl.auto", "none");
+        overrides.put("hibernate.show_sql", "false");
+        overrides.put("hibernate.hikari.registerMbeans", "false");
+        return overrides;
+    }
+}
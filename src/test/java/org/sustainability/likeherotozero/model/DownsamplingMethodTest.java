@@ -0,0 +1,141 @@
+package org.sustainability.likeherotozero.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link DownsamplingMethod}s on synthetic series.
+ */
+class DownsamplingMethodTest {
+
+    private static final int SIZE = 1000;
+
+    /**
+     * The first and the last point are kept and the result does not exceed the threshold, for every threshold.
+     *
+     * @param method the method under test.
+     */
+    @ParameterizedTest
+    @EnumSource(DownsamplingMethod.class)
+    void keepsTheEndsWithinTheThreshold(DownsamplingMethod method) {
+        EmissionSeries series = createSeries(SIZE);
+
+        for (int threshold = DownsamplingMethod.MIN_POINTS; threshold < SIZE; threshold += 37) {
+            EmissionSeries downsampled = method.downsample(series, threshold);
+
+            assertTrue(downsampled.size() <= threshold, "threshold " + threshold + " gave " + downsampled.size() + " points");
+            assertEquals(series.getEpochDay(0), downsampled.getEpochDay(0));
+            assertEquals(series.getValue(0), downsampled.getValue(0));
+            assertEquals(series.getEpochDay(SIZE - 1), downsampled.getEpochDay(downsampled.size() - 1));
+            assertEquals(series.getValue(SIZE - 1), downsampled.getValue(downsampled.size() - 1));
+        }
+    }
+
+    /**
+     * Only reported points are selected, in ascending order of their dates.
+     *
+     * @param method the method under test.
+     */
+    @ParameterizedTest
+    @EnumSource(DownsamplingMethod.class)
+    void selectsReportedPointsInOrder(DownsamplingMethod method) {
+        EmissionSeries series = createSeries(SIZE);
+        EmissionSeries downsampled = method.downsample(series, 100);
+
+        for (int i = 0; i < downsampled.size(); i++) {
+            int index = downsampled.getEpochDay(i) - series.getEpochDay(0);
+            assertEquals(series.getValue(index), downsampled.getValue(i));
+
+            if (i > 0) {
+                assertTrue(downsampled.getEpochDay(i - 1) < downsampled.getEpochDay(i));
+            }
+        }
+    }
+
+    /**
+     * A series with no more points than the threshold is returned as it is.
+     *
+     * @param method the method under test.
+     */
+    @ParameterizedTest
+    @EnumSource(DownsamplingMethod.class)
+    void returnsSmallSeriesUnchanged(DownsamplingMethod method) {
+        EmissionSeries series = createSeries(50);
+
+        assertSame(series, method.downsample(series, 50));
+        assertSame(series, method.downsample(series, 51));
+    }
+
+    /**
+     * Thresholds below the minimum are rejected.
+     *
+     * @param method the method under test.
+     */
+    @ParameterizedTest
+    @EnumSource(DownsamplingMethod.class)
+    void rejectsThresholdsBelowTheMinimum(DownsamplingMethod method) {
+        EmissionSeries series = createSeries(SIZE);
+
+        assertThrows(IllegalArgumentException.class, () -> method.downsample(series, DownsamplingMethod.MIN_POINTS - 1));
+        assertThrows(IllegalArgumentException.class, () -> method.downsample(series, 0));
+    }
+
+    /**
+     * MIN_MAX keeps the extremes of the series, which lie inside of it.
+     */
+    @Test
+    void minMaxKeepsThePeakAndTheTrough() {
+        EmissionSeries series = createSeries(SIZE);
+        EmissionSeries downsampled = DownsamplingMethod.MIN_MAX.downsample(series, 20);
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+
+        for (int i = 0; i < downsampled.size(); i++) {
+            min = Math.min(min, downsampled.getValue(i));
+            max = Math.max(max, downsampled.getValue(i));
+        }
+
+        assertEquals(0, min);
+        assertEquals(5000, max);
+    }
+
+    /**
+     * The downsampled series keeps the version, update time and source size of the series.
+     */
+    @Test
+    void keepsTheSourceOfTheSeries() {
+        EmissionSeries series = createSeries(SIZE);
+        EmissionSeries downsampled = DownsamplingMethod.LTTB.downsample(series, 10);
+
+        assertEquals(series.getVersion(), downsampled.getVersion());
+        assertEquals(series.getLastModified(), downsampled.getLastModified());
+        assertEquals(SIZE, downsampled.getSourceSize());
+    }
+
+    /**
+     * Creates a series of daily values following a sine wave, with a peak of 5000 and a trough of 0 in between.
+     *
+     * @param size the number of points.
+     * @return the {@link EmissionSeries}.
+     */
+    private static EmissionSeries createSeries(int size) {
+        int[] epochDays = new int[size];
+        double[] values = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            epochDays[i] = 18000 + i;
+            values[i] = 2500 + 2000 * Math.sin(i / 50.0);
+        }
+
+        values[size / 3] = 5000;
+        values[2 * size / 3] = 0;
+
+        return new EmissionSeries(1, 7, 1_600_000_000_000L, epochDays, values);
+    }
+}
@@ -0,0 +1,76 @@
+package org.sustainability.likeherotozero.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the rounding and formatting of emission values by {@link EmissionValueFormat}.
+ */
+class EmissionValueFormatTest {
+
+    /**
+     * Ties at the fourth decimal place are rounded away from zero on the decimal value, including those whose
+     * double lies slightly below the tie.
+     *
+     * @param kt    the value in kt.
+     * @param milli the expected value in milli-kt.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "0.0005, 1",
+            "0.5005, 501",
+            "1.0005, 1001",
+            "2.0005, 2001",
+            "1234.5675, 1234568",
+            "0.0004999, 0",
+            "0.0015, 2",
+            "-0.0005, -1",
+            "-0.5005, -501",
+            "1.2344, 1234",
+            "1.2346, 1235"
+    })
+    void roundsTiesHalfUp(double kt, long milli) {
+        assertEquals(milli, EmissionValueFormat.toMilli(kt));
+    }
+
+    /**
+     * Every value with a trailing five at the fourth decimal place is rounded up, not only the ones whose binary
+     * product with 1000 reaches the tie.
+     */
+    @Test
+    void roundsAllTiesUp() {
+        for (int milli = 0; milli < 100_000; milli++) {
+            double kt = Double.parseDouble(milli / 1000 + "." + String.format("%03d", milli % 1000) + "5");
+            assertEquals(milli + 1, EmissionValueFormat.toMilli(kt), () -> "for " + kt);
+        }
+    }
+
+    /**
+     * Values are rounded to three decimal places and converted back without drift.
+     */
+    @Test
+    void roundsToMilli() {
+        assertEquals(0.501, EmissionValueFormat.roundToMilli(0.5005));
+        assertEquals(0.5, EmissionValueFormat.roundToMilli(0.50049));
+        assertEquals(1234.568, EmissionValueFormat.roundToMilli(1234.5675));
+        assertEquals(Double.NaN, EmissionValueFormat.roundToMilli(Double.NaN));
+        assertEquals(Double.POSITIVE_INFINITY, EmissionValueFormat.roundToMilli(Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * Formatting uses the separators of the locale and rounds like {@link EmissionValueFormat#toMilli(double)}.
+     */
+    @Test
+    void formatsWithTheSeparatorsOfTheLocale() {
+        assertEquals("1,234.568", EmissionValueFormat.format(1234.5675, Locale.ENGLISH));
+        assertEquals("1.234.568,000", EmissionValueFormat.format(1234568, Locale.GERMAN));
+        assertEquals("0.501", EmissionValueFormat.format(0.5005, Locale.ENGLISH));
+        assertEquals("-12.000", EmissionValueFormat.format(-12, Locale.ENGLISH));
+        assertEquals("1234567.891", EmissionValueFormat.formatPlain(1234567.8905));
+    }
+}
@@ -0,0 +1,107 @@
+package org.sustainability.likeherotozero.service;
+
+import org.sustainability.likeherotozero.entity.Country;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests of the parsing and validation of the rows of an imported CSV file by {@link EmissionDataImportService}.
+ */
+class EmissionDataImportServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+    private static final CountryIndex COUNTRY_INDEX = CountryIndex.of(List.of(createCountry(1, "DEU"), createCountry(2, "FRA")));
+
+    /**
+     * Columns are separated by commas or semicolons, may be quoted and surrounded by whitespace, and the value is
+     * rounded to three decimal places.
+     *
+     * @param line  the line of the file.
+     * @param value the expected value.
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "DEU,2020-01-01,1234.5|1234.5",
+            "DEU, 2020-01-01 , 1234.5|1234.5",
+            "\"DEU\",\"2020-01-01\",\"1234.5\"|1234.5",
+            "deu,2020-01-01,1234|1234",
+            "DEU;2020-01-01;1234.5|1234.5",
+            "\"DEU\";\"2020-01-01\";\"0.0005\"|0.001",
+            "DEU,2020-01-01,1.23456|1.235"
+    })
+    void parsesValidRows(String line, double value) {
+        EmissionDataImportService.Row row = parse(line);
+
+        assertNull(row.getError());
+        assertEquals(1, row.getCountryId());
+        assertEquals(LocalDate.of(2020, 1, 1), row.getReportedFor());
+        assertEquals(value, row.getValue());
+    }
+
+    /**
+     * A decimal comma is a column separator, so the row has too many columns.
+     *
+     * @param line the line of the file.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"DEU,2020-01-01,1234,5", "DEU;2020-01-01;1234,5"})
+    void rejectsADecimalComma(String line) {
+        assertEquals("Expected 3 columns: country code, date, value!", parse(line).getError());
+    }
+
+    /**
+     * Invalid rows are rejected with the reason.
+     *
+     * @param line the line of the file.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "DEU,2020-01-01",
+            "XXX,2020-01-01,1",
+            "DEU,01.01.2020,1",
+            "DEU,2024-07-01,1",
+            "DEU,2020-01-01,abc",
+            "DEU,2020-01-01,NaN",
+            "DEU,2020-01-01,-1",
+            "DEU;2020-01-01;-1.5"
+    })
+    void rejectsInvalidRows(String line) {
+        assertNotNull(parse(line).getError());
+    }
+
+    /**
+     * Parses a line as the second line of a file.
+     *
+     * @param line the line.
+     * @return the parsed {@link EmissionDataImportService.Row}.
+     */
+    private static EmissionDataImportService.Row parse(String line) {
+        EmissionDataImportService.Row row = new EmissionDataImportService.Row(2, line);
+        row.parse(COUNTRY_INDEX, TODAY);
+        return row;
+    }
+
+    /**
+     * Creates a country.
+     *
+     * @param id   the ID.
+     * @param code the ISO 3166-1 alpha-3 code.
+     * @return the {@link Country}.
+     */
+    private static Country createCountry(int id, String code) {
+        Country country = new Country();
+        country.setId(id);
+        country.setName(code);
+        country.setCode(code);
+        return country;
+    }
+}